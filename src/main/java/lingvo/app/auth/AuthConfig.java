@@ -1,5 +1,6 @@
 package lingvo.app.auth;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lingvo.app.auth.service.UserService;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,15 +13,16 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class AuthConfig {
 
     @Bean
-    public JwtTokenProvider jwtTokenProvider(UserService userService) {
+    public JwtTokenProvider jwtTokenProvider(UserService userService, MeterRegistry meterRegistry) {
         JwtTokenProvider provider = new JwtTokenProvider();
         provider.setUserDetailsService(userService);
+        provider.setMeterRegistry(meterRegistry);
         return provider;
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new MeteredPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
     }
 
     @Bean
@@ -2,12 +2,19 @@ package lingvo.app.auth;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -42,8 +49,16 @@ public class JwtTokenProvider {
 
     private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
 
+    private Timer parseTimer;
+    private Timer blacklistTimer;
+    private Timer userLoadTimer;
 
-    public JwtTokenProvider() {
+    /**
+     * Started with the application rather than in the constructor, so a provider built in a test or a
+     * context that fails to start leaves no scheduler thread behind.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
         scheduler.scheduleAtFixedRate(this::cleanupBlacklistedTokens, 1, 1, TimeUnit.HOURS);
     }
 
@@ -51,8 +66,31 @@ public class JwtTokenProvider {
         this.userDetailsService = userDetailsService;
     }
 
+    /**
+     * Times each stage of authenticating a request as {@code lingvo.auth.jwt} tagged by {@code stage}, and
+     * gauges the revoked-token map. Falls back to the global registry when not called.
+     */
+    public void setMeterRegistry(MeterRegistry meterRegistry) {
+        this.parseTimer = stageTimer(meterRegistry, "parse");
+        this.blacklistTimer = stageTimer(meterRegistry, "blacklist");
+        this.userLoadTimer = stageTimer(meterRegistry, "user-load");
+        Gauge.builder("lingvo.auth.revoked.tokens", blacklistedTokens, ConcurrentHashMap::size)
+                .description("Revoked tokens not yet expired")
+                .register(meterRegistry);
+    }
+
+    private static Timer stageTimer(MeterRegistry meterRegistry, String stage) {
+        return Timer.builder("lingvo.auth.jwt")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
     @PostConstruct
     protected void init() {
+        if (parseTimer == null) {
+            setMeterRegistry(Metrics.globalRegistry);
+        }
         secretKey = Keys.hmacShaKeyFor(secretKeyString.getBytes(StandardCharsets.UTF_8));
         logger.info("JWT secret key initialized successfully");
     }
@@ -77,17 +115,27 @@ public class JwtTokenProvider {
                 .signWith(secretKey, SignatureAlgorithm.HS256)
                 .compact();
 
-        logger.info("Created token for user {} with expiration {}", username, validity);
+        logger.debug("Created token for user {} with expiration {}", username, validity);
         return token;
     }
 
     public Authentication getAuthentication(String token) {
-        UserDetails userDetails = this.userDetailsService.loadUserByUsername(getUsername(token));
+        String username = getUsername(token);
+        UserDetails userDetails = userLoadTimer.record(() -> this.userDetailsService.loadUserByUsername(username));
         return new UsernamePasswordAuthenticationToken(userDetails, "", userDetails.getAuthorities());
     }
 
     public String getUsername(String token) {
-        return Jwts.parserBuilder().setSigningKey(secretKey).build().parseClaimsJws(token).getBody().getSubject();
+        return parse(token).getBody().getSubject();
+    }
+
+    private Jws<Claims> parse(String token) {
+        Timer.Sample sample = Timer.start();
+        try {
+            return Jwts.parserBuilder().setSigningKey(secretKey).build().parseClaimsJws(token);
+        } finally {
+            sample.stop(parseTimer);
+        }
     }
 
     public String resolveToken(HttpServletRequest req) {
@@ -123,9 +171,9 @@ public class JwtTokenProvider {
 
     public boolean validateToken(String token) {
         try {
-            Jws<Claims> claims = Jwts.parserBuilder().setSigningKey(secretKey).build().parseClaimsJws(token);
+            Jws<Claims> claims = parse(token);
 
-            if (blacklistedTokens.containsKey(token)) {
+            if (blacklistTimer.record(() -> blacklistedTokens.containsKey(token))) {
                 return false;
             }
 
@@ -146,7 +194,7 @@ public class JwtTokenProvider {
         logger.info("Cleaned up {} expired tokens from blacklist", sizeBefore - sizeAfter);
     }
 
-
+    @PreDestroy
     public void shutdown() {
         scheduler.shutdown();
     }
@@ -0,0 +1,62 @@
+package lingvo.app.auth;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Times every hash as {@code lingvo.auth.bcrypt} tagged by {@code operation}, and gauges the hashes running
+ * at once. A hash holds its request thread for its whole cost, so {@code lingvo.auth.bcrypt.active} climbing
+ * past the core count means signins are queueing for CPU.
+ */
+public class MeteredPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final AtomicInteger active = new AtomicInteger();
+
+    public MeteredPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.encodeTimer = timer(meterRegistry, "encode");
+        this.matchesTimer = timer(meterRegistry, "matches");
+        Gauge.builder("lingvo.auth.bcrypt.active", active, AtomicInteger::get)
+                .description("Password hashes in progress")
+                .register(meterRegistry);
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("lingvo.auth.bcrypt")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        active.incrementAndGet();
+        try {
+            return encodeTimer.record(() -> delegate.encode(rawPassword));
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        active.incrementAndGet();
+        try {
+            return matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword));
+        } finally {
+            active.decrementAndGet();
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -1,7 +1,16 @@
 package lingvo.app.auth;
 
+import lingvo.app.auth.service.UserIdCache;
+import lingvo.app.limits.ConcurrencyLimitFilter;
+import lingvo.app.limits.ConcurrencyLimiter;
+import lingvo.app.limits.QuotaFilter;
+import lingvo.app.limits.UserQuotas;
+import lingvo.app.sharding.ShardRouter;
+import lingvo.app.sharding.ShardSelectionFilter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -13,12 +22,47 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
     private final JwtTokenProvider jwtTokenProvider;
+    private final ShardRouter shardRouter;
+    private final UserIdCache userIdCache;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final UserQuotas userQuotas;
+    private final int managementPort;
 
-    public SecurityConfig(JwtTokenProvider jwtTokenProvider) {
+    public SecurityConfig(JwtTokenProvider jwtTokenProvider, ShardRouter shardRouter, UserIdCache userIdCache,
+                          ConcurrencyLimiter concurrencyLimiter, UserQuotas userQuotas,
+                          @Value("${management.server.port:-1}") int managementPort) {
         this.jwtTokenProvider = jwtTokenProvider;
+        this.shardRouter = shardRouter;
+        this.userIdCache = userIdCache;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.userQuotas = userQuotas;
+        this.managementPort = managementPort;
     }
 
+    /**
+     * Requests to the internal management port. Prometheus scrapes {@code /actuator/prometheus} there without a
+     * token, since no user token lives long enough for a scrape config; every other endpoint still needs an
+     * administrator. Without a management port this chain matches nothing and the actuator stays behind the
+     * rules of the public chain.
+     */
     @Bean
+    @Order(1)
+    public SecurityFilterChain managementFilterChain(HttpSecurity http) throws Exception {
+        http
+                .securityMatcher(request -> managementPort > 0 && request.getLocalPort() == managementPort)
+                .csrf(csrf -> csrf.disable())
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/actuator/health", "/actuator/prometheus").permitAll()
+                        .anyRequest().hasAnyAuthority("ADMINISTRATOR", "SUPER_ADMINISTRATOR")
+                )
+                .addFilterBefore(new JwtAuthenticationFilter(jwtTokenProvider), UsernamePasswordAuthenticationFilter.class);
+
+        return http.build();
+    }
+
+    @Bean
+    @Order(2)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
                 .csrf(csrf -> csrf.disable())
@@ -26,9 +70,16 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/signin", "/api/auth/signup").permitAll()
                         .requestMatchers("/api/auth/revoke", "/api/auth/logout").authenticated()
+                        .requestMatchers("/api/admin/profiling/**").hasAuthority("SUPER_ADMINISTRATOR")
+                        .requestMatchers("/api/admin/**").hasAnyAuthority("ADMINISTRATOR", "SUPER_ADMINISTRATOR")
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasAnyAuthority("ADMINISTRATOR", "SUPER_ADMINISTRATOR")
                         .anyRequest().authenticated()
                 )
-                .addFilterBefore(new JwtAuthenticationFilter(jwtTokenProvider), UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(new JwtAuthenticationFilter(jwtTokenProvider), UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(new QuotaFilter(userQuotas, userIdCache), JwtAuthenticationFilter.class)
+                .addFilterAfter(new ConcurrencyLimitFilter(concurrencyLimiter), QuotaFilter.class)
+                .addFilterAfter(new ShardSelectionFilter(shardRouter, userIdCache), ConcurrencyLimitFilter.class);
 
         return http.build();
     }
@@ -40,7 +40,7 @@ public class AuthController {
 
     @PostMapping("/signin")
     public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequestDto loginRequest) {
-        logger.info("Attempting to authenticate user: {}", loginRequest.getUsername());
+        logger.debug("Attempting to authenticate user: {}", loginRequest.getUsername());
         try {
             Authentication authentication = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
@@ -53,10 +53,10 @@ public class AuthController {
 
             String accessToken = tokenProvider.createAccessToken(authentication.getName());
             String refreshToken = tokenProvider.createRefreshToken(authentication.getName());
-            logger.info("User {} successfully authenticated", loginRequest.getUsername());
+            logger.debug("User {} successfully authenticated", loginRequest.getUsername());
             return ResponseEntity.ok(new AuthResponseDto(accessToken, refreshToken));
         } catch (AuthenticationException e) {
-            logger.error("Authentication failed for user {}: {}", loginRequest.getUsername(), e.getMessage());
+            logger.warn("Authentication failed for user {}: {}", loginRequest.getUsername(), e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authentication failed: " + e.getMessage());
         }
     }
@@ -78,7 +78,7 @@ public class AuthController {
 
     @GetMapping("/user")
     public ResponseEntity<?> getCurrentUser() {
-        logger.info("Попытка получить информацию о текущем пользователе");
+        logger.debug("Попытка получить информацию о текущем пользователе");
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.isAuthenticated()) {
             String username = authentication.getName();
@@ -90,7 +90,7 @@ public class AuthController {
                 response.put("email", user.getEmail());
                 response.put("role", user.getRoles());
 
-                logger.info("Информация о текущем пользователе успешно получена для пользователя: {}", username);
+                logger.debug("Информация о текущем пользователе успешно получена для пользователя: {}", username);
                 return ResponseEntity.ok(response);
             } else {
                 logger.warn("Пользователь не найден в базе данных: {}", username);
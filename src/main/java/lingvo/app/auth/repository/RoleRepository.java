@@ -1,12 +1,19 @@
 package lingvo.app.auth.repository;
 
+import jakarta.persistence.QueryHint;
 import lingvo.app.auth.entity.Role;
 import lingvo.app.auth.entity.RoleType;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
 
 public interface RoleRepository extends JpaRepository<Role, Long> {
+    /**
+     * Served from the query cache; any write to {@code t_role} invalidates it.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Role> findByName(RoleType name);
     boolean existsByName(RoleType name);
 }
\ No newline at end of file
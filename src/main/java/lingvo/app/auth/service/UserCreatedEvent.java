@@ -0,0 +1,7 @@
+package lingvo.app.auth.service;
+
+/**
+ * Published inside the transaction that inserted the user.
+ */
+public record UserCreatedEvent(Long userId) {
+}
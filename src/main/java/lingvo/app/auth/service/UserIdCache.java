@@ -0,0 +1,42 @@
+package lingvo.app.auth.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lingvo.app.auth.entity.User;
+import lingvo.app.auth.repository.UserRepository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Username to user id for the request filters, which need the id before any service runs. Usernames never
+ * change owner, so an id is looked up once; the lookup runs outside the cache's map lock, which would
+ * otherwise pin a virtual thread during the query. Must be called before a shard is selected: every
+ * account is on the directory.
+ */
+@Component
+public class UserIdCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, Long> userIds = Caffeine.newBuilder()
+            .maximumSize(100_000)
+            .build();
+
+    public UserIdCache(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Returns the id, or {@code null} for an unknown username.
+     */
+    public Long idOf(String username) {
+        Long userId = userIds.getIfPresent(username);
+        if (userId == null) {
+            User user = userRepository.findByUsername(username);
+            if (user == null) {
+                return null;
+            }
+            userId = user.getId();
+            userIds.put(username, userId);
+        }
+        return userId;
+    }
+}
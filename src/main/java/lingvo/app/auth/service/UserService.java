@@ -1,5 +1,6 @@
 package lingvo.app.auth.service;
 
+import io.micrometer.core.annotation.Timed;
 import lingvo.app.auth.dto.SignUpRequestDto;
 import lingvo.app.auth.entity.Role;
 import lingvo.app.auth.entity.RoleType;
@@ -7,8 +8,12 @@ import lingvo.app.auth.entity.User;
 import lingvo.app.auth.repository.RoleRepository;
 import lingvo.app.auth.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -22,12 +27,14 @@ import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("lingvo.service")
 @RequiredArgsConstructor
 public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final String EMAIL_REGEX = "^[A-Za-z0-9+_.-]+@(.+)$";
     private static final Pattern EMAIL_PATTERN = Pattern.compile(EMAIL_REGEX);
@@ -51,6 +58,7 @@ public class UserService implements UserDetailsService {
 
         user.setRoles(Collections.singleton(userRole));
         userRepository.save(user);
+        eventPublisher.publishEvent(new UserCreatedEvent(user.getId()));
     }
 
     private void validateUsername(String username) {
@@ -109,4 +117,19 @@ public class UserService implements UserDetailsService {
     public User findByUsername(String username) {
         return userRepository.findByUsername(username);
     }
+
+    /**
+     * The user behind the current request, as put into the security context by the JWT filter.
+     */
+    public User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new AccessDeniedException("Not authenticated");
+        }
+        User user = userRepository.findByUsername(authentication.getName());
+        if (user == null) {
+            throw new UsernameNotFoundException("User not found with username: " + authentication.getName());
+        }
+        return user;
+    }
 }
\ No newline at end of file
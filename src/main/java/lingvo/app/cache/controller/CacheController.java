@@ -0,0 +1,27 @@
+package lingvo.app.cache.controller;
+
+import lingvo.app.cache.dto.CacheRegionStatsDto;
+import lingvo.app.cache.service.CacheStatistics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/cache")
+@RequiredArgsConstructor
+@Slf4j
+public class CacheController {
+
+    private final CacheStatistics cacheStatistics;
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<CacheRegionStatsDto>> getCacheStats() {
+        log.info("REST request to get second-level cache stats");
+        return ResponseEntity.ok(cacheStatistics.snapshot());
+    }
+}
@@ -0,0 +1,149 @@
+package lingvo.app.cache.invalidation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Tells the other nodes which cache keys a transaction changed. Keys are collected per transaction and sent
+ * with {@code pg_notify} just before it commits: Postgres delivers a notification only when the sending
+ * transaction commits and drops it on rollback, so listeners never evict for a change that did not happen
+ * and never hear about one before it is visible. Local caches evict on their own; listeners skip messages
+ * from their own node.
+ */
+@Component
+public class CacheInvalidationBus {
+
+    static final String CHANNEL = "cache_invalidation";
+
+    /**
+     * Postgres rejects payloads of 8000 bytes or more; a region whose keys do not fit is flushed instead.
+     */
+    static final int MAX_PAYLOAD_BYTES = 7900;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public CacheInvalidationBus(JdbcTemplate jdbcTemplate,
+                                ObjectMapper objectMapper,
+                                @Value("${app.cache-invalidation.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reports a changed key of {@code region}; outside a transaction the change is already visible and the
+     * notification goes out right away.
+     */
+    public void publish(String region, Object key) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(Map.of(region, Set.of(String.valueOf(key))), Set.of());
+            return;
+        }
+        pending().keys.computeIfAbsent(region, r -> new LinkedHashSet<>()).add(String.valueOf(key));
+    }
+
+    public void publishAll(String region) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(Map.of(), Set.of(region));
+            return;
+        }
+        pending().flushed.add(region);
+    }
+
+    private PendingKeys pending() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingKeys pendingKeys && pendingKeys.bus() == this) {
+                return pendingKeys;
+            }
+        }
+        PendingKeys pendingKeys = new PendingKeys();
+        TransactionSynchronizationManager.registerSynchronization(pendingKeys);
+        return pendingKeys;
+    }
+
+    /**
+     * Splits the collected keys into payloads that fit a single NOTIFY each.
+     */
+    List<String> payloads(Map<String, Set<String>> keys, Set<String> flushed) {
+        List<String> payloads = new ArrayList<>();
+        for (String region : flushed) {
+            payloads.add(write(new InvalidationMessage(nodeId, region, List.of(), true)));
+        }
+        keys.forEach((region, regionKeys) -> {
+            if (flushed.contains(region)) {
+                return;
+            }
+            String payload = write(new InvalidationMessage(nodeId, region, List.copyOf(regionKeys), false));
+            if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+                payload = write(new InvalidationMessage(nodeId, region, List.of(), true));
+            }
+            payloads.add(payload);
+        });
+        return payloads;
+    }
+
+    private void send(Map<String, Set<String>> keys, Set<String> flushed) {
+        for (String payload : payloads(keys, flushed)) {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", (RowCallbackHandler) rs -> { }, CHANNEL, payload);
+        }
+    }
+
+    private String write(InvalidationMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cache invalidation cannot be serialized", e);
+        }
+    }
+
+    /**
+     * Keys of the current transaction. Registered as a synchronization rather than a bound resource so an
+     * inner REQUIRES_NEW transaction gets, and commits, its own set.
+     */
+    private final class PendingKeys implements TransactionSynchronization {
+
+        private final Map<String, Set<String>> keys = new LinkedHashMap<>();
+        private final Set<String> flushed = new LinkedHashSet<>();
+
+        CacheInvalidationBus bus() {
+            return CacheInvalidationBus.this;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            send(keys, flushed);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package lingvo.app.cache.invalidation;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Evicts entries of a node-local cache when another node reports a change through the
+ * {@link CacheInvalidationBus}. Keys are the strings the writer published for the same region.
+ */
+public interface CacheInvalidationHandler {
+
+    Set<String> regions();
+
+    void evict(String region, Collection<String> keys);
+
+    /**
+     * Drops the whole region; used for bulk changes and after the listener missed notifications.
+     */
+    void evictAll(String region);
+}
@@ -0,0 +1,174 @@
+package lingvo.app.cache.invalidation;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lingvo.app.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Listens for {@link CacheInvalidationBus} notifications on a dedicated connection outside the pool and
+ * evicts the matching local entries. Everything that arrived during one poll is applied as one batch, with
+ * keys merged per region. Notifications sent while the connection is down are lost, so every (re)connect
+ * starts with a full flush of all local caches. A notification is sent on the database its transaction ran
+ * on, so with sharding every shard gets a listener connection of its own.
+ */
+@Component
+@Slf4j
+public class CacheInvalidationListener {
+
+    private final CacheInvalidationBus bus;
+    private final ObjectMapper objectMapper;
+    private final DataSourceProperties dataSourceProperties;
+    private final List<String> shardUrls;
+    private final Map<String, CacheInvalidationHandler> handlers = new HashMap<>();
+    private final int pollTimeoutMillis;
+    private final long reconnectDelayMillis;
+    private final ExecutorService executor;
+
+    private volatile boolean running;
+
+    public CacheInvalidationListener(CacheInvalidationBus bus,
+                                     ObjectMapper objectMapper,
+                                     DataSourceProperties dataSourceProperties,
+                                     List<CacheInvalidationHandler> handlers,
+                                     @Value("${app.cache-invalidation.poll-timeout-ms:10000}") int pollTimeoutMillis,
+                                     @Value("${app.cache-invalidation.reconnect-delay-ms:5000}") long reconnectDelayMillis,
+                                     @Value("${app.sharding.urls:}") String shardUrls) {
+        this.bus = bus;
+        this.objectMapper = objectMapper;
+        this.dataSourceProperties = dataSourceProperties;
+        for (CacheInvalidationHandler handler : handlers) {
+            handler.regions().forEach(region -> this.handlers.put(region, handler));
+        }
+        this.pollTimeoutMillis = pollTimeoutMillis;
+        this.reconnectDelayMillis = reconnectDelayMillis;
+        this.shardUrls = ShardRouter.parseUrls(shardUrls);
+        this.executor = Executors.newFixedThreadPool(1 + this.shardUrls.size());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!bus.isEnabled()) {
+            return;
+        }
+        log.info("Listening for cache invalidations as node {} for regions {}", bus.nodeId(), handlers.keySet());
+        running = true;
+        List<String> urls = new ArrayList<>();
+        urls.add(dataSourceProperties.determineUrl());
+        urls.addAll(shardUrls);
+        urls.forEach(url -> executor.submit(() -> run(url)));
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        executor.shutdownNow();
+    }
+
+    private void run(String url) {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url,
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CacheInvalidationBus.CHANNEL);
+                }
+                flushAll();
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMillis);
+                    if (notifications != null && notifications.length > 0) {
+                        apply(Arrays.stream(notifications).map(PGNotification::getParameter).toList());
+                    } else if (!connection.isValid(5)) {
+                        throw new SQLException("Cache invalidation connection lost");
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener on {} disconnected, reconnecting in {} ms", url,
+                        reconnectDelayMillis, e);
+                try {
+                    Thread.sleep(reconnectDelayMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies one batch of payloads; messages from this node are skipped, its caches already evicted.
+     */
+    void apply(Collection<String> payloads) {
+        Map<String, Set<String>> keys = new LinkedHashMap<>();
+        Set<String> flushed = new LinkedHashSet<>();
+        for (String payload : payloads) {
+            InvalidationMessage message = read(payload);
+            if (message == null || bus.nodeId().equals(message.node())) {
+                continue;
+            }
+            if (message.all()) {
+                flushed.add(message.region());
+            } else {
+                keys.computeIfAbsent(message.region(), region -> new LinkedHashSet<>()).addAll(message.keys());
+            }
+        }
+        flushed.forEach(region -> withHandler(region, handler -> handler.evictAll(region)));
+        keys.forEach((region, regionKeys) -> {
+            if (!flushed.contains(region)) {
+                withHandler(region, handler -> handler.evict(region, regionKeys));
+            }
+        });
+        log.debug("Applied cache invalidations: {} flushed, {} keyed regions", flushed, keys.keySet());
+    }
+
+    void flushAll() {
+        handlers.forEach((region, handler) -> handler.evictAll(region));
+        log.info("Flushed local caches {}", handlers.keySet());
+    }
+
+    private void withHandler(String region, Consumer<CacheInvalidationHandler> action) {
+        CacheInvalidationHandler handler = handlers.get(region);
+        if (handler == null) {
+            log.debug("No cache for invalidated region {}", region);
+            return;
+        }
+        action.accept(handler);
+    }
+
+    private InvalidationMessage read(String payload) {
+        try {
+            return objectMapper.readValue(payload, InvalidationMessage.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed cache invalidation: {}", payload);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package lingvo.app.cache.invalidation;
+
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import lingvo.app.flashcards.entity.Deck;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Evicts second-level cache entries changed on other nodes. Only mutable entity regions are listed; roles
+ * never change and a user's roles are fixed at sign-up.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityCacheInvalidationHandler implements CacheInvalidationHandler {
+
+    private static final Map<String, Class<?>> ENTITIES = Map.of(Deck.CACHE_REGION, Deck.class);
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public Set<String> regions() {
+        return ENTITIES.keySet();
+    }
+
+    @Override
+    public void evict(String region, Collection<String> keys) {
+        Cache cache = entityManagerFactory.getCache();
+        Class<?> entity = ENTITIES.get(region);
+        keys.forEach(key -> cache.evict(entity, Long.valueOf(key)));
+    }
+
+    @Override
+    public void evictAll(String region) {
+        entityManagerFactory.getCache().evict(ENTITIES.get(region));
+    }
+}
@@ -0,0 +1,10 @@
+package lingvo.app.cache.invalidation;
+
+import java.util.List;
+
+/**
+ * One NOTIFY payload: keys of one region changed by a committed transaction on {@code node}, or the
+ * whole region when {@code all} is set.
+ */
+record InvalidationMessage(String node, String region, List<String> keys, boolean all) {
+}
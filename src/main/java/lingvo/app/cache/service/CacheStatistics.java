@@ -0,0 +1,68 @@
+package lingvo.app.cache.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import lingvo.app.cache.dto.CacheRegionStatsDto;
+import lingvo.app.flashcards.cache.FlashcardCache;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Per-region view of Hibernate's second-level and query cache counters, followed by the in-process
+ * flashcard cache, counted since startup. Also published as {@code lingvo.cache.hit.ratio} and
+ * {@code lingvo.cache.entries} gauges per region.
+ */
+@Component
+@RequiredArgsConstructor
+public class CacheStatistics implements MeterBinder {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final FlashcardCache flashcardCache;
+
+    public List<CacheRegionStatsDto> snapshot() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        Stream<CacheRegionStatsDto> hibernateRegions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(statistics::getCacheRegionStatistics)
+                .filter(Objects::nonNull)
+                .map(CacheStatistics::toDto);
+        return Stream.concat(hibernateRegions, flashcardCache.stats().stream()).toList();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (CacheRegionStatsDto region : snapshot()) {
+            Gauge.builder("lingvo.cache.hit.ratio", this, statistics -> statistics.region(region.getRegion()).getHitRatio())
+                    .tag("region", region.getRegion())
+                    .register(registry);
+            Gauge.builder("lingvo.cache.entries", this, statistics -> statistics.region(region.getRegion()).getEntries())
+                    .tag("region", region.getRegion())
+                    .register(registry);
+        }
+    }
+
+    private CacheRegionStatsDto region(String name) {
+        return snapshot().stream()
+                .filter(region -> region.getRegion().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    static CacheRegionStatsDto toDto(CacheRegionStatistics region) {
+        long hits = region.getHitCount();
+        long misses = region.getMissCount();
+        double hitRatio = hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+        return new CacheRegionStatsDto(region.getRegionName(), hits, misses, region.getPutCount(), hitRatio,
+                region.getElementCountInMemory());
+    }
+}
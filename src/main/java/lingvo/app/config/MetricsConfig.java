@@ -0,0 +1,21 @@
+package lingvo.app.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Makes {@code @Timed} on services effective. Controllers are timed by Spring MVC as
+ * {@code http.server.requests} (tagged by method and URI pattern) and repositories by Spring Data as
+ * {@code spring.data.repository.invocations}; percentile histograms for both are switched on in
+ * application.properties.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
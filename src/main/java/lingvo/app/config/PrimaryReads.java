@@ -0,0 +1,35 @@
+package lingvo.app.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * Reads whose result outlives the request, such as cache loads, must not come from a lagging replica: a value
+ * loaded right after an invalidation would be cached stale until the next change. With a replica configured
+ * such reads run in a read-only transaction of their own on the primary; without one they join the caller's.
+ */
+@Component
+public class PrimaryReads {
+
+    private final TransactionTemplate newTransaction;
+    private final boolean replicaConfigured;
+
+    public PrimaryReads(PlatformTransactionManager transactionManager, ObjectProvider<ReplicaLagGuard> lagGuard) {
+        this.newTransaction = new TransactionTemplate(transactionManager);
+        this.newTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.newTransaction.setReadOnly(true);
+        this.replicaConfigured = lagGuard.getIfAvailable() != null;
+    }
+
+    public <T> T read(Supplier<T> work) {
+        if (!replicaConfigured) {
+            return work.get();
+        }
+        return ReadWriteRoutingDataSource.onPrimary(() -> newTransaction.execute(status -> work.get()));
+    }
+}
@@ -0,0 +1,110 @@
+package lingvo.app.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Sends {@code @Transactional(readOnly = true)} work to the replica and everything else to the primary. Must
+ * sit behind a {@code LazyConnectionDataSourceProxy}: the transaction manager asks for a connection before
+ * the read-only flag of the new transaction is visible here. If the replica refuses a connection, the read
+ * falls back to the primary.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Route {
+        PRIMARY, REPLICA
+    }
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    private final ReplicaLagGuard lagGuard;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagGuard lagGuard) {
+        this.lagGuard = lagGuard;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Runs {@code work} with read-only connections taken from the primary; only connections obtained inside
+     * it are affected, so it is meant to wrap a transaction of its own.
+     */
+    static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = PRIMARY_READS.get();
+        PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                PRIMARY_READS.remove();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (PRIMARY_READS.get() != null
+                || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || !lagGuard.isReplicaUsable()
+                || lagGuard.hasRecentWrite(currentUser())) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() == Route.PRIMARY) {
+            recordWriteOnCommit();
+            return target(Route.PRIMARY).getConnection();
+        }
+        try {
+            return target(Route.REPLICA).getConnection();
+        } catch (SQLException e) {
+            log.warn("Replica unavailable, reading from the primary: {}", e.getMessage());
+            lagGuard.replicaFailed();
+            return target(Route.PRIMARY).getConnection();
+        }
+    }
+
+    private DataSource target(Route route) {
+        return getResolvedDataSources().get(route);
+    }
+
+    /**
+     * A read-write transaction on behalf of a user pins that user's reads to the primary once it commits.
+     */
+    private void recordWriteOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return;
+        }
+        String user = currentUser();
+        if (user == null) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                lagGuard.recordWrite(user);
+            }
+        });
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || !authentication.isAuthenticated() ? null : authentication.getName();
+    }
+}
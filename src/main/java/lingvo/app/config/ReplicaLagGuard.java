@@ -0,0 +1,127 @@
+package lingvo.app.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether read-only transactions may go to the replica. The replica is used only while its measured
+ * replay lag stays under {@code max-lag-ms}; until the first check passes, and whenever a check fails, reads
+ * stay on the primary. Lag is measured end to end with a heartbeat: every check stamps the primary's
+ * heartbeat row with this node's clock and reads back the stamp the replica has replayed. A WAL receiver
+ * that stalled or disconnected therefore shows up as growing lag, which replay positions alone would not. A user who committed a write also reads from the primary for
+ * {@code read-your-writes-ms}, so they never see their own change missing.
+ */
+@Slf4j
+public class ReplicaLagGuard {
+
+    static final String BEAT_UPDATE = "UPDATE t_replica_heartbeat SET beat_millis = greatest(beat_millis, ?)";
+
+    static final String BEAT_QUERY = "SELECT beat_millis FROM t_replica_heartbeat";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long maxLagMillis;
+    private final long checkIntervalMillis;
+    private final Cache<String, Boolean> recentWriters;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagGuard(DataSource primary, DataSource replica, long maxLagMillis, long checkIntervalMillis,
+                           long readYourWritesMillis) {
+        this.primary = primary;
+        this.replica = replica;
+        this.maxLagMillis = maxLagMillis;
+        this.checkIntervalMillis = checkIntervalMillis;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(readYourWritesMillis))
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::check, 0, checkIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    /**
+     * Takes the replica out of rotation until the next successful check.
+     */
+    public void replicaFailed() {
+        replicaUsable = false;
+    }
+
+    public void recordWrite(String user) {
+        if (user != null) {
+            recentWriters.put(user, Boolean.TRUE);
+        }
+    }
+
+    public boolean hasRecentWrite(String user) {
+        return user != null && recentWriters.getIfPresent(user) != null;
+    }
+
+    /**
+     * The stamp the replica shows is at most one interval old when it is caught up, so that interval is not
+     * counted as lag.
+     */
+    void check() {
+        boolean usable;
+        long now = System.currentTimeMillis();
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(BEAT_QUERY)) {
+            if (!resultSet.next()) {
+                log.warn("Replica has no heartbeat row, reading from the primary");
+                usable = false;
+            } else {
+                long lagMillis = Math.max(0, now - resultSet.getLong(1) - checkIntervalMillis);
+                usable = lagMillis <= maxLagMillis;
+                if (!usable) {
+                    log.warn("Replica lags {} ms behind the primary, reading from the primary", lagMillis);
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Replica lag check failed, reading from the primary: {}", e.getMessage());
+            usable = false;
+        }
+        if (usable && !replicaUsable) {
+            log.info("Replica in rotation");
+        }
+        replicaUsable = usable;
+        beat(now);
+    }
+
+    private void beat(long now) {
+        try (Connection connection = primary.getConnection();
+             PreparedStatement statement = connection.prepareStatement(BEAT_UPDATE)) {
+            statement.setLong(1, now);
+            statement.executeUpdate();
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Replica heartbeat could not be written: {}", e.getMessage());
+        }
+    }
+}
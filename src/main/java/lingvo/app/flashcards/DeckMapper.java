@@ -3,6 +3,7 @@ package lingvo.app.flashcards;
 import lingvo.app.flashcards.dto.DeckCreateUpdateDto;
 import lingvo.app.flashcards.dto.DeckResponseDto;
 import lingvo.app.flashcards.entity.Deck;
+import lingvo.app.flashcards.entity.DeckStats;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
@@ -13,12 +14,42 @@ public interface DeckMapper {
     @Mapping(target = "id",ignore = true)
     @Mapping(target = "createdBy",ignore = true)
     @Mapping(target = "createdAt",ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "deleted", ignore = true)
+    @Mapping(target = "changeTxid", ignore = true)
+    @Mapping(target = "changeSeq", ignore = true)
+    @Mapping(target = "favoriteCount", ignore = true)
     Deck deckCreateUpdateDtoToDeck(DeckCreateUpdateDto deckCreateUpdateDto);
 
+    @Mapping(target = "createdById", source = "createdBy.id")
+    @Mapping(target = "cardCount", ignore = true)
+    @Mapping(target = "dueCount", ignore = true)
+    @Mapping(target = "averageDifficulty", ignore = true)
+    @Mapping(target = "lastStudiedAt", ignore = true)
+    @Mapping(target = "statsRevision", ignore = true)
     DeckResponseDto deckToDeckResponseDto(Deck deck);
 
+    default DeckResponseDto deckToDeckResponseDto(Deck deck, DeckStats stats) {
+        DeckResponseDto dto = deckToDeckResponseDto(deck);
+        if (stats != null) {
+            dto.setCardCount(stats.getCardCount());
+            dto.setDueCount(stats.getDueCount());
+            dto.setAverageDifficulty(stats.getCardCount() == 0 ? 0 : stats.getDifficultySum() / stats.getCardCount());
+            dto.setLastStudiedAt(stats.getLastStudiedAt());
+            dto.setStatsRevision(stats.getRevision());
+        }
+        return dto;
+    }
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "createdBy", ignore = true)
     @Mapping(target = "createdAt", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "deleted", ignore = true)
+    @Mapping(target = "changeTxid", ignore = true)
+    @Mapping(target = "changeSeq", ignore = true)
+    @Mapping(target = "favoriteCount", ignore = true)
     void updateDeckFromDto(DeckCreateUpdateDto dto, @MappingTarget Deck deck);
 }
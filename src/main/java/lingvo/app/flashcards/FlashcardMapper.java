@@ -27,14 +27,6 @@ public interface FlashcardMapper {
 
     List<FlashcardResponseDto> flashcardsToFlashcardResponseDto(List<Flashcard> flashcards);
 
-    @Mapping(target = "word", ignore = true)
-    @Mapping(target = "translationPerApi", ignore = true)
-    @Mapping(target = "selectedTranslations", ignore = true)
-    @Mapping(target = "usageExample", ignore = true)
-    @Mapping(target = "deck", ignore = true)
-    @Mapping(target = "createdAt", ignore = true)
-    void updateFlashcardProgress(FlashcardUpdateProgressDto flashcardUpdateProgressDto, @MappingTarget Flashcard flashcard);
-
     @Named("deckIdToDeck")
     default Deck deckIdToDeck(Long id) {
         if (id == null) {
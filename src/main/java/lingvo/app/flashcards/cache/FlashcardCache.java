@@ -0,0 +1,226 @@
+package lingvo.app.flashcards.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lingvo.app.cache.dto.CacheRegionStatsDto;
+import lingvo.app.cache.invalidation.CacheInvalidationBus;
+import lingvo.app.cache.invalidation.CacheInvalidationHandler;
+import lingvo.app.flashcards.dto.FlashcardResponseDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process cache for single-card reads: the owner's view of a card by id, and per owner the id of
+ * the first card with a given word. Concurrent misses for one key share a single load. Writers evict after
+ * their transaction commits, and an eviction that meets a load in flight drops it, so a value read before
+ * the commit never outlives it. Loads run on the calling thread outside Caffeine's map locks: a database
+ * read inside {@code compute} would pin a virtual thread to its carrier for the whole query. Other nodes are told through the {@link CacheInvalidationBus}; the TTL
+ * bounds staleness if a notification is lost.
+ */
+@Component
+public class FlashcardCache implements CacheInvalidationHandler {
+
+    public static final String REGION = "flashcards";
+    public static final String WORDS_REGION = "flashcard-words";
+    public static final String DECKS_REGION = "flashcard-decks";
+
+    private final CacheInvalidationBus invalidationBus;
+    private final boolean enabled;
+    private final AsyncCache<Long, CachedFlashcard> cardsById;
+    private final AsyncCache<WordKey, Long> idsByWord;
+
+    /**
+     * A card as its owner sees it, with what is needed to decide whether another reader may see it too.
+     */
+    public record CachedFlashcard(Long ownerId, Long deckOwnerId, FlashcardResponseDto dto) {
+
+        /**
+         * Whether {@code userId} reads this card as its owner; subscribers see it with their own progress
+         * and are served outside the cache. A card without a recorded owner is nobody's.
+         */
+        public boolean isOwnerView(long userId) {
+            return (deckOwnerId == null || deckOwnerId == userId) && ownerId != null && ownerId == userId;
+        }
+    }
+
+    record WordKey(Long ownerId, String word) {
+
+        /**
+         * Bus key; the owner id never contains the separator, the word may.
+         */
+        String asString() {
+            return ownerId + ":" + word;
+        }
+
+        static WordKey parse(String key) {
+            int separator = key.indexOf(':');
+            return new WordKey(Long.valueOf(key.substring(0, separator)), key.substring(separator + 1));
+        }
+    }
+
+    public FlashcardCache(CacheInvalidationBus invalidationBus,
+                          @Value("${app.flashcard-cache.enabled:true}") boolean enabled,
+                          @Value("${app.flashcard-cache.max-size:10000}") long maxSize,
+                          @Value("${app.flashcard-cache.ttl-ms:60000}") long ttlMillis) {
+        this.invalidationBus = invalidationBus;
+        this.enabled = enabled;
+        this.cardsById = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .buildAsync();
+        this.idsByWord = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMillis))
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Returns the cached card or loads it. The loader may throw; nothing is cached then.
+     */
+    public CachedFlashcard get(Long id, Supplier<CachedFlashcard> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return load(cardsById, id, loader);
+    }
+
+    /**
+     * Returns the id of the owner's first card with this word, or {@code null} if there is none; misses are
+     * not cached.
+     */
+    public Long getIdByWord(Long ownerId, String word, Supplier<Long> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        return load(idsByWord, new WordKey(ownerId, word), loader);
+    }
+
+    /**
+     * Only an empty future is published under the map lock; the caller that published it runs the loader
+     * and concurrent callers for the key wait on that future. A {@code null} result removes the entry.
+     */
+    private static <K, V> V load(AsyncCache<K, V> cache, K key, Supplier<V> loader) {
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> value = cache.get(key, (k, executor) -> loading);
+        if (value == loading) {
+            try {
+                loading.complete(loader.get());
+            } catch (RuntimeException | Error e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return value.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops the card and the word lookups it may answer once the current transaction commits, or right away
+     * outside a transaction.
+     */
+    public void evictAfterCommit(Long cardId, Long ownerId, String... words) {
+        if (!enabled) {
+            return;
+        }
+        List<WordKey> wordKeys = Arrays.stream(words)
+                .filter(Objects::nonNull)
+                .map(word -> new WordKey(ownerId, word))
+                .toList();
+        invalidationBus.publish(REGION, cardId);
+        wordKeys.forEach(key -> invalidationBus.publish(WORDS_REGION, key.asString()));
+        afterCommit(() -> {
+            cardsById.synchronous().invalidate(cardId);
+            idsByWord.synchronous().invalidateAll(wordKeys);
+        });
+    }
+
+    /**
+     * Drops every cached card of the deck; used when cards are removed in bulk, without their ids at hand.
+     */
+    public void evictDeckAfterCommit(Long deckId) {
+        if (!enabled) {
+            return;
+        }
+        invalidationBus.publish(DECKS_REGION, deckId);
+        afterCommit(() -> evictDeck(deckId));
+    }
+
+    /**
+     * Loads still in flight are dropped too; their deck is not known yet.
+     */
+    private void evictDeck(Long deckId) {
+        cardsById.asMap().values().removeIf(card -> !card.isDone() || card.isCompletedExceptionally()
+                || deckId.equals(card.join().dto().getDeckId()));
+        idsByWord.synchronous().invalidateAll();
+    }
+
+    @Override
+    public Set<String> regions() {
+        return Set.of(REGION, WORDS_REGION, DECKS_REGION);
+    }
+
+    @Override
+    public void evict(String region, Collection<String> keys) {
+        switch (region) {
+            case REGION -> cardsById.synchronous().invalidateAll(keys.stream().map(Long::valueOf).toList());
+            case WORDS_REGION -> idsByWord.synchronous().invalidateAll(keys.stream().map(WordKey::parse).toList());
+            case DECKS_REGION -> keys.stream().map(Long::valueOf).forEach(this::evictDeck);
+            default -> throw new IllegalArgumentException("Unknown region " + region);
+        }
+    }
+
+    @Override
+    public void evictAll(String region) {
+        switch (region) {
+            case REGION, DECKS_REGION -> cardsById.synchronous().invalidateAll();
+            case WORDS_REGION -> idsByWord.synchronous().invalidateAll();
+            default -> throw new IllegalArgumentException("Unknown region " + region);
+        }
+    }
+
+    public List<CacheRegionStatsDto> stats() {
+        return List.of(toDto(REGION, cardsById.synchronous()), toDto(WORDS_REGION, idsByWord.synchronous()));
+    }
+
+    private static CacheRegionStatsDto toDto(String region, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        double hitRatio = stats.requestCount() == 0 ? 0 : (double) stats.hitCount() / stats.requestCount();
+        return new CacheRegionStatsDto(region, stats.hitCount(), stats.missCount(), stats.loadSuccessCount(),
+                hitRatio, cache.estimatedSize());
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,215 @@
+package lingvo.app.flashcards.catalog;
+
+import jakarta.annotation.PreDestroy;
+import lingvo.app.flashcards.dto.CollectionVersionDto;
+import lingvo.app.flashcards.dto.DeckCatalogEntryDto;
+import lingvo.app.flashcards.dto.DeckCatalogPageDto;
+import lingvo.app.flashcards.entity.DeckStats;
+import lingvo.app.flashcards.entity.Language;
+import lingvo.app.flashcards.repository.DeckRepository;
+import lingvo.app.flashcards.stats.DeckStatsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Public decks per language, ranked by favorite count. The top {@code app.catalog.top-k} decks of every
+ * language are held in memory and replaced wholesale on each refresh, so catalog pages are served without
+ * touching the database; only pages past the top-K fall through to a keyset query.
+ */
+@Component
+@Slf4j
+public class DeckCatalog {
+
+    static final int MAX_PAGE_SIZE = 100;
+
+    private final DeckRepository deckRepository;
+    private final DeckStatsService deckStatsService;
+    private final int topK;
+    private final long refreshIntervalMillis;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private volatile Map<Language, Ranking> rankings = Map.of();
+
+    /**
+     * One immutable ranking; {@code digest} is a hash of its entries, so every node that loaded the same
+     * ranking hands out the same ETag, and refreshes that found nothing new keep it.
+     */
+    record Ranking(List<DeckCatalogEntryDto> entries, String digest) {
+    }
+
+    public DeckCatalog(DeckRepository deckRepository,
+                       DeckStatsService deckStatsService,
+                       @Value("${app.catalog.top-k:1000}") int topK,
+                       @Value("${app.catalog.refresh-interval-ms:60000}") long refreshIntervalMillis) {
+        this.deckRepository = deckRepository;
+        this.deckStatsService = deckStatsService;
+        this.topK = topK;
+        this.refreshIntervalMillis = refreshIntervalMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (Exception e) {
+            log.error("Deck catalog refresh failed", e);
+        }
+    }
+
+    public void refresh() {
+        Map<Language, Ranking> next = new EnumMap<>(Language.class);
+        for (Language language : Language.values()) {
+            List<DeckCatalogEntryDto> entries = withCardCounts(deckRepository.findCatalog(language, PageRequest.of(0, topK)));
+            next.put(language, new Ranking(List.copyOf(entries), digest(entries)));
+        }
+        rankings = next;
+        log.debug("Deck catalog refreshed");
+    }
+
+    /**
+     * The validator of one catalog page, or empty when the page reaches past the top-K: those entries are
+     * read live from the database, which has no version to compare against, so they are never answered
+     * with a 304. There is no Last-Modified either, since refresh times differ from node to node.
+     */
+    public Optional<CollectionVersionDto> getVersion(Language language, String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        long[] after = parseCursor(cursor);
+        Ranking ranking = ranking(language);
+        List<DeckCatalogEntryDto> entries = ranking.entries();
+        int from = after == null ? 0 : firstAfter(entries, after[0], after[1]);
+        if (from + pageSize > entries.size() && entries.size() >= topK) {
+            return Optional.empty();
+        }
+        String tag = "catalog-" + language.getCode() + "-" + ranking.digest()
+                + "-" + (cursor == null ? "" : cursor) + "-" + pageSize;
+        return Optional.of(new CollectionVersionDto(tag, null));
+    }
+
+    /**
+     * Pages are keyed by the last entry's (favorite count, id) rather than an offset, so a cursor stays
+     * valid across refreshes that reorder the ranking.
+     */
+    public DeckCatalogPageDto getPage(Language language, String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        long[] after = parseCursor(cursor);
+        Ranking ranking = ranking(language);
+        List<DeckCatalogEntryDto> entries = ranking.entries();
+
+        int from = after == null ? 0 : firstAfter(entries, after[0], after[1]);
+        List<DeckCatalogEntryDto> page = new ArrayList<>(entries.subList(from, Math.min(from + pageSize, entries.size())));
+        if (page.size() < pageSize && entries.size() >= topK) {
+            DeckCatalogEntryDto last = page.isEmpty() ? (from > 0 ? entries.get(from - 1) : null) : page.get(page.size() - 1);
+            long favoriteCount = last != null ? last.getFavoriteCount() : after[0];
+            long id = last != null ? last.getId() : after[1];
+            page.addAll(withCardCounts(deckRepository.findCatalogAfter(language, favoriteCount, id,
+                    PageRequest.of(0, pageSize - page.size()))));
+        }
+
+        DeckCatalogPageDto result = new DeckCatalogPageDto();
+        result.setDecks(page);
+        if (page.size() == pageSize) {
+            DeckCatalogEntryDto last = page.get(page.size() - 1);
+            result.setNextCursor(formatCursor(last.getFavoriteCount(), last.getId()));
+        }
+        return result;
+    }
+
+    private Ranking ranking(Language language) {
+        Ranking ranking = rankings.get(language);
+        if (ranking == null) {
+            refresh();
+            ranking = rankings.get(language);
+        }
+        return ranking;
+    }
+
+    private List<DeckCatalogEntryDto> withCardCounts(List<DeckCatalogEntryDto> entries) {
+        Map<Long, DeckStats> stats = deckStatsService.findByDeckIds(entries.stream().map(DeckCatalogEntryDto::getId).toList());
+        for (DeckCatalogEntryDto entry : entries) {
+            DeckStats deckStats = stats.get(entry.getId());
+            entry.setCardCount(deckStats == null ? 0 : deckStats.getCardCount());
+        }
+        return entries;
+    }
+
+    static String digest(List<DeckCatalogEntryDto> entries) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (DeckCatalogEntryDto entry : entries) {
+            String line = entry.getId() + "\u0000" + entry.getTitle() + "\u0000" + entry.getCreatedById()
+                    + "\u0000" + entry.getFavoriteCount() + "\u0000" + entry.getCardCount() + "\n";
+            digest.update(line.getBytes(StandardCharsets.UTF_8));
+        }
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
+    static int firstAfter(List<DeckCatalogEntryDto> entries, long favoriteCount, long id) {
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            DeckCatalogEntryDto entry = entries.get(mid);
+            boolean after = entry.getFavoriteCount() < favoriteCount
+                    || (entry.getFavoriteCount() == favoriteCount && entry.getId() > id);
+            if (after) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    static int pageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+
+    static long[] parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] parts = cursor.split("-");
+        try {
+            if (parts.length != 2) {
+                throw new NumberFormatException(cursor);
+            }
+            return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid catalog cursor: " + cursor);
+        }
+    }
+
+    static String formatCursor(long favoriteCount, long id) {
+        return favoriteCount + "-" + id;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,44 @@
+package lingvo.app.flashcards.controller;
+
+import lingvo.app.flashcards.catalog.DeckCatalog;
+import lingvo.app.flashcards.dto.CollectionVersionDto;
+import lingvo.app.flashcards.dto.DeckCatalogPageDto;
+import lingvo.app.flashcards.entity.Language;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/catalog")
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogController {
+
+    private final DeckCatalog deckCatalog;
+
+    @GetMapping("/{language}")
+    public ResponseEntity<DeckCatalogPageDto> getCatalog(@PathVariable Language language,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "20") int limit,
+                                                         WebRequest webRequest) {
+        log.debug("Rest request to get {} catalog after {}", language, cursor);
+        Optional<CollectionVersionDto> version = deckCatalog.getVersion(language, cursor, limit);
+        if (version.isEmpty()) {
+            return ResponseEntity.ok(deckCatalog.getPage(language, cursor, limit));
+        }
+        String eTag = EntityTags.of(version.get());
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(deckCatalog.getPage(language, cursor, limit));
+    }
+}
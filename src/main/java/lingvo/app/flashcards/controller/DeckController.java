@@ -1,12 +1,17 @@
 package lingvo.app.flashcards.controller;
 
+import lingvo.app.flashcards.dto.CollectionVersionDto;
 import lingvo.app.flashcards.dto.DeckCreateUpdateDto;
 import lingvo.app.flashcards.dto.DeckResponseDto;
+import lingvo.app.flashcards.dto.DeckSearchPageDto;
+import lingvo.app.flashcards.entity.Language;
 import lingvo.app.flashcards.service.DeckService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -22,42 +27,74 @@ public class DeckController {
 
     @PostMapping
     public ResponseEntity<DeckResponseDto> createDeck(@RequestBody DeckCreateUpdateDto deckCreateUpdateDto) throws URISyntaxException {
-       log.info("REST request to create Deck: {}", deckCreateUpdateDto);
+        log.debug("REST request to create Deck: {}", deckCreateUpdateDto.getTitle());
     DeckResponseDto result = deckService.createDeck(deckCreateUpdateDto);
     return ResponseEntity.created(new URI("/api/deck/" + result.getId())).body(result);
     }
 
+    @PostMapping("/{id}/clone")
+    public ResponseEntity<DeckResponseDto> cloneDeck(@PathVariable Long id) throws URISyntaxException {
+        log.debug("REST request to clone Deck: {}", id);
+        DeckResponseDto result = deckService.cloneDeck(id);
+        return ResponseEntity.created(new URI("/api/deck/" + result.getId())).body(result);
+    }
+
+    @PutMapping("/{id}/favorite")
+    public ResponseEntity<Void> addFavorite(@PathVariable Long id) {
+        log.debug("REST request to add Deck to favorites: {}", id);
+        deckService.addFavorite(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{id}/favorite")
+    public ResponseEntity<Void> removeFavorite(@PathVariable Long id) {
+        log.debug("REST request to remove Deck from favorites: {}", id);
+        deckService.removeFavorite(id);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping
-    public ResponseEntity<List<DeckResponseDto>> getAllDecks() {
-        log.info("REST request to get all Decks");
+    public ResponseEntity<List<DeckResponseDto>> getAllDecks(WebRequest webRequest) {
+        log.debug("REST request to get all Decks");
+        CollectionVersionDto version = deckService.getDecksVersion();
+        String eTag = EntityTags.of(version);
+        long lastModified = EntityTags.lastModified(version.getLastModified());
+        if (webRequest.checkNotModified(eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
         List<DeckResponseDto> decks = deckService.getAllDecks();
-        return ResponseEntity.ok(decks);
+        return ResponseEntity.ok().eTag(eTag).lastModified(lastModified).body(decks);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<DeckResponseDto> getDeck(@PathVariable Long id) {
-        log.info("REST request to get Deck: {}", id);
+        log.debug("REST request to get Deck: {}", id);
         DeckResponseDto result = deckService.getDeckById(id);
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(result))
+                .lastModified(EntityTags.lastModified(result.getUpdatedAt()))
+                .body(result);
     }
 
-    @GetMapping("/{word}")
-    public ResponseEntity<DeckResponseDto> getDeckByTitle(@PathVariable String title) {
-        log.info("REST request to get Deck by word: {}", title);
-        DeckResponseDto result = deckService.getDeckByTitle(title);
-        return ResponseEntity.ok(result);
+    @GetMapping("/search")
+    public ResponseEntity<DeckSearchPageDto> searchDecks(@RequestParam(name = "q", defaultValue = "") String query,
+                                                         @RequestParam Language language,
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(defaultValue = "20") int limit) {
+        log.debug("REST request to search Decks by title: {}", query);
+        return ResponseEntity.ok(deckService.searchDecks(query, language, cursor, limit));
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<DeckResponseDto> updateDeck(@PathVariable Long id, @RequestBody DeckCreateUpdateDto deckCreateUpdateDto) {
-        log.info("REST request to update Deck: {}", id, deckCreateUpdateDto);
+        log.debug("REST request to update Deck: {}", id);
         DeckResponseDto result = deckService.updateDeck( id,deckCreateUpdateDto);
         return ResponseEntity.ok(result);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteDeck(@PathVariable Long id) {
-        log.info("REST request to delete Deck: {}", id);
+        log.debug("REST request to delete Deck: {}", id);
         deckService.deleteDeck(id);
         return ResponseEntity.noContent().build();
     }
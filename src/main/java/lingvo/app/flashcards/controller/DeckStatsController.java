@@ -0,0 +1,28 @@
+package lingvo.app.flashcards.controller;
+
+import lingvo.app.flashcards.stats.DeckStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin/deck-stats")
+@RequiredArgsConstructor
+@Slf4j
+public class DeckStatsController {
+
+    private final DeckStatsService deckStatsService;
+
+    @Value("${app.deck-stats.repair-chunk-size:500}")
+    private int repairChunkSize;
+
+    @PostMapping("/repair")
+    public ResponseEntity<Integer> repairDeckStats() {
+        log.info("REST request to repair deck stats");
+        return ResponseEntity.accepted().body(deckStatsService.scheduleRepair(repairChunkSize));
+    }
+}
@@ -0,0 +1,37 @@
+package lingvo.app.flashcards.controller;
+
+import lingvo.app.flashcards.dto.CollectionVersionDto;
+import lingvo.app.flashcards.dto.DeckResponseDto;
+import lingvo.app.flashcards.dto.FlashcardResponseDto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Strong ETags and Last-Modified values built from version columns, never from response bodies.
+ */
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    static String of(DeckResponseDto deck) {
+        return quote("deck-" + deck.getId() + "-" + deck.getVersion() + "-" + deck.getStatsRevision());
+    }
+
+    static String of(FlashcardResponseDto flashcard) {
+        return quote("flashcard-" + flashcard.getId() + "-" + flashcard.getVersion());
+    }
+
+    static String of(CollectionVersionDto collection) {
+        return quote(collection.getTag());
+    }
+
+    static long lastModified(LocalDateTime timestamp) {
+        return timestamp == null ? -1 : timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static String quote(String tag) {
+        return "\"" + tag + "\"";
+    }
+}
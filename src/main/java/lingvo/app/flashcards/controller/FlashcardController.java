@@ -1,15 +1,19 @@
 package lingvo.app.flashcards.controller;
 
+import lingvo.app.flashcards.dto.CollectionVersionDto;
 import lingvo.app.flashcards.dto.DeckResponseDto;
 import lingvo.app.flashcards.dto.FlashcardCreateDto;
 import lingvo.app.flashcards.dto.FlashcardResponseDto;
 import lingvo.app.flashcards.dto.FlashcardUpdateDto;
+import lingvo.app.flashcards.dto.FlashcardUpdateProgressDto;
 import lingvo.app.flashcards.entity.Flashcard;
 import lingvo.app.flashcards.service.FlashcardService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -24,42 +28,80 @@ public class FlashcardController {
 
     @PostMapping
     public ResponseEntity<FlashcardResponseDto> createFlashcard(@RequestBody FlashcardCreateDto flashcardCreateDto) throws URISyntaxException {
-        log.info("create Flashcard", flashcardCreateDto);
+        log.debug("create Flashcard");
         FlashcardResponseDto result = flashcardService.createFlashcard(flashcardCreateDto);
         return ResponseEntity.created(new URI("/api/flashcard/" + result.getId())).body(result);
     }
 
     @GetMapping
-    public ResponseEntity<List<FlashcardResponseDto>> getAllFlashcards() {
-        log.info("Rest request to get all flashcards");
+    public ResponseEntity<List<FlashcardResponseDto>> getAllFlashcards(WebRequest webRequest) {
+        log.debug("Rest request to get all flashcards");
+        CollectionVersionDto version = flashcardService.getFlashcardsVersion();
+        String eTag = EntityTags.of(version);
+        long lastModified = EntityTags.lastModified(version.getLastModified());
+        if (webRequest.checkNotModified(eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
         List<FlashcardResponseDto> result = flashcardService.getAllFlashcards();
-        return ResponseEntity.ok().body(result);
+        return ResponseEntity.ok().eTag(eTag).lastModified(lastModified).body(result);
+    }
+
+    @GetMapping("/deck/{deckId}")
+    public ResponseEntity<List<FlashcardResponseDto>> getFlashcardsByDeck(@PathVariable Long deckId, WebRequest webRequest) {
+        log.debug("Rest request to get flashcards of deck {}", deckId);
+        CollectionVersionDto version = flashcardService.getDeckFlashcardsVersion(deckId);
+        String eTag = EntityTags.of(version);
+        long lastModified = EntityTags.lastModified(version.getLastModified());
+        if (webRequest.checkNotModified(eTag, lastModified)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        List<FlashcardResponseDto> result = flashcardService.getFlashcardsByDeck(deckId);
+        return ResponseEntity.ok().eTag(eTag).lastModified(lastModified).body(result);
     }
 
     @GetMapping("/word/{word}")
     public ResponseEntity<FlashcardResponseDto> getFlashcardByWord(@PathVariable String word) {
-        log.info("Rest request to get flashcard by word {}", word);
+        log.debug("Rest request to get flashcard by word {}", word);
         FlashcardResponseDto result = flashcardService.getFlashcardByWord(word);
-        return ResponseEntity.ok().body(result);
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(result))
+                .lastModified(EntityTags.lastModified(result.getUpdatedAt()))
+                .body(result);
+    }
+
+    @GetMapping("/due")
+    public ResponseEntity<List<FlashcardResponseDto>> getDueFlashcards(@RequestParam(defaultValue = "20") int limit) {
+        log.debug("Rest request to get due flashcards, limit {}", limit);
+        return ResponseEntity.ok(flashcardService.getDueFlashcards(limit));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<FlashcardResponseDto> getFlashcardById(@PathVariable Long id) {
-        log.info("Rest request to get flashcard by id {}", id);
+        log.debug("Rest request to get flashcard by id {}", id);
         FlashcardResponseDto result = flashcardService.getFlashcardById(id);
-        return ResponseEntity.ok().body(result);
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(result))
+                .lastModified(EntityTags.lastModified(result.getUpdatedAt()))
+                .body(result);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<FlashcardResponseDto> updateFlashcard(@PathVariable Long id, @RequestBody FlashcardUpdateDto flashcardUpdateDto) {
-        log.info("update Flashcard {}", flashcardUpdateDto);
+        log.debug("update Flashcard {}", id);
         FlashcardResponseDto result = flashcardService.updateFlashcard(id, flashcardUpdateDto);
         return ResponseEntity.ok().body(result);
     }
 
+    @PutMapping("/{id}/progress")
+    public ResponseEntity<FlashcardResponseDto> updateFlashcardProgress(@PathVariable Long id, @RequestBody FlashcardUpdateProgressDto flashcardUpdateProgressDto) {
+        log.debug("update Flashcard progress {}", id);
+        FlashcardResponseDto result = flashcardService.updateFlashcardProgress(id, flashcardUpdateProgressDto);
+        return ResponseEntity.ok().body(result);
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteFlashcard(@PathVariable Long id) {
-        log.info("delete Flashcard {}", id);
+        log.debug("delete Flashcard {}", id);
         flashcardService.deleteFlashcard(id);
         return ResponseEntity.noContent().build();
     }
@@ -0,0 +1,27 @@
+package lingvo.app.flashcards.controller;
+
+import lingvo.app.flashcards.dto.SyncResponseDto;
+import lingvo.app.flashcards.service.SyncService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/sync")
+@RequiredArgsConstructor
+@Slf4j
+public class SyncController {
+
+    private final SyncService syncService;
+
+    @GetMapping
+    public ResponseEntity<SyncResponseDto> getChanges(@RequestParam(required = false) String since,
+                                                      @RequestParam(defaultValue = "500") int limit) {
+        log.debug("Rest request to sync changes since {}", since);
+        return ResponseEntity.ok(syncService.getChangesSince(since, limit));
+    }
+}
@@ -0,0 +1,12 @@
+package lingvo.app.flashcards.dto;
+
+public interface ChangeRow {
+
+    Long getId();
+
+    Boolean getDeleted();
+
+    Long getChangeTxid();
+
+    Long getChangeSeq();
+}
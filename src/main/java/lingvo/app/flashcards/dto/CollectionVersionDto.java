@@ -0,0 +1,18 @@
+package lingvo.app.flashcards.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Validators of a collection resource, derived from version columns only.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CollectionVersionDto {
+    private String tag;
+    private LocalDateTime lastModified;
+}
@@ -0,0 +1,30 @@
+package lingvo.app.flashcards.dto;
+
+import lingvo.app.flashcards.entity.Language;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class DeckCatalogEntryDto {
+
+    private Long id;
+
+    private String title;
+
+    private Language language;
+
+    private Long createdById;
+
+    private long favoriteCount;
+
+    private long cardCount;
+
+    public DeckCatalogEntryDto(Long id, String title, Language language, Long createdById, long favoriteCount) {
+        this.id = id;
+        this.title = title;
+        this.language = language;
+        this.createdById = createdById;
+        this.favoriteCount = favoriteCount;
+    }
+}
@@ -0,0 +1,11 @@
+package lingvo.app.flashcards.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class DeckCatalogPageDto {
+    private List<DeckCatalogEntryDto> decks;
+    private String nextCursor;
+}
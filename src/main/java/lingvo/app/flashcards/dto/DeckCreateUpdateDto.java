@@ -11,4 +11,6 @@ public class DeckCreateUpdateDto {
 
     private Language language;
 
+    private boolean publicDeck;
+
 }
@@ -1,10 +1,7 @@
 package lingvo.app.flashcards.dto;
 
-import jakarta.persistence.*;
-import lingvo.app.auth.entity.User;
 import lingvo.app.flashcards.entity.Language;
 import lombok.Data;
-import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
@@ -17,7 +14,23 @@ public class DeckResponseDto {
 
     private Language language;
 
-    private User createdBy;
+    private Long createdById;
+
+    private boolean publicDeck;
 
     private LocalDateTime createdAt;
+
+    private long version;
+
+    private LocalDateTime updatedAt;
+
+    private long cardCount;
+
+    private long dueCount;
+
+    private double averageDifficulty;
+
+    private LocalDateTime lastStudiedAt;
+
+    private long statsRevision;
 }
@@ -0,0 +1,11 @@
+package lingvo.app.flashcards.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class DeckSearchPageDto {
+    private List<DeckResponseDto> decks;
+    private String nextCursor;
+}
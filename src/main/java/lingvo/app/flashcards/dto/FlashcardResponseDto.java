@@ -18,6 +18,10 @@ public class FlashcardResponseDto {
     private Long deckId;
     private LocalDateTime createdAt;
     private LocalDateTime lastReviewAt;
+    private LocalDateTime nextReviewAt;
     private int reviewCount;
     private double difficultFactor;
+    private LocalDateTime enrichedAt;
+    private long version;
+    private LocalDateTime updatedAt;
 }
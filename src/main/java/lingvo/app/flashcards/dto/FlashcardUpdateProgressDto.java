@@ -3,14 +3,29 @@ package lingvo.app.flashcards.dto;
 import lombok.Data;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Data
 public class FlashcardUpdateProgressDto {
 
     private Long id;
 
+    /**
+     * Generated by the client once per submission and sent again unchanged on every retry; a submission that
+     * was already merged is not counted a second time.
+     */
+    private UUID submissionId;
+
     private LocalDateTime lastReviewAt;
 
+    /**
+     * Next review scheduled by the client; taken over together with the difficulty when this review is the newest.
+     */
+    private LocalDateTime nextReviewAt;
+
+    /**
+     * Number of reviews done since the client last submitted progress; it is added to the stored count.
+     */
     private int reviewCount;
 
     private double difficultFactor;
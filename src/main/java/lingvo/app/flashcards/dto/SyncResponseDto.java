@@ -0,0 +1,18 @@
+package lingvo.app.flashcards.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class SyncResponseDto {
+    private String cursor;
+    private boolean hasMore;
+    private List<DeckResponseDto> decks;
+    private List<FlashcardResponseDto> flashcards;
+    /**
+     * Cards of a deleted deck are purged without tombstones of their own; clients drop them with the deck.
+     */
+    private List<Long> deletedDeckIds;
+    private List<Long> deletedFlashcardIds;
+}
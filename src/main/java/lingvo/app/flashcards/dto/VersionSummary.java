@@ -0,0 +1,12 @@
+package lingvo.app.flashcards.dto;
+
+import java.time.LocalDateTime;
+
+public interface VersionSummary {
+
+    long getCount();
+
+    long getVersion();
+
+    LocalDateTime getLastModified();
+}
@@ -0,0 +1,10 @@
+package lingvo.app.flashcards.enrichment;
+
+import java.util.Set;
+
+public record EnrichmentResult(String translation, Set<String> usageExamples) {
+
+    public static EnrichmentResult empty() {
+        return new EnrichmentResult(null, Set.of());
+    }
+}
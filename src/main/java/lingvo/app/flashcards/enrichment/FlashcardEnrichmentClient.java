@@ -0,0 +1,15 @@
+package lingvo.app.flashcards.enrichment;
+
+import lingvo.app.flashcards.entity.Language;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Looks up translations and usage examples for a batch of words of one language.
+ * Words missing from the returned map are treated as "nothing found".
+ */
+public interface FlashcardEnrichmentClient {
+
+    Map<String, EnrichmentResult> enrich(Language language, Collection<String> words);
+}
@@ -0,0 +1,56 @@
+package lingvo.app.flashcards.enrichment;
+
+import lingvo.app.flashcards.entity.Language;
+import lingvo.app.jobs.entity.OutboxJob;
+import lingvo.app.jobs.service.JobHandler;
+import lingvo.app.jobs.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Fills {@code translationPerApi} and {@code usageExample} of new flashcards. Claimed jobs are looked up
+ * with one provider call per language; retries and backoff come from the outbox worker.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FlashcardEnrichmentJobHandler implements JobHandler {
+
+    public static final String TYPE = "FLASHCARD_ENRICHMENT";
+
+    private final FlashcardEnrichmentClient enrichmentClient;
+    private final FlashcardEnrichmentWriter enrichmentWriter;
+    private final OutboxService outboxService;
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public void handle(List<OutboxJob> jobs) {
+        Map<Language, List<FlashcardEnrichmentPayload>> byLanguage = jobs.stream()
+                .map(job -> outboxService.readPayload(job, FlashcardEnrichmentPayload.class))
+                .collect(Collectors.groupingBy(FlashcardEnrichmentPayload::language));
+
+        Map<Long, EnrichmentResult> results = new HashMap<>();
+        for (Map.Entry<Language, List<FlashcardEnrichmentPayload>> entry : byLanguage.entrySet()) {
+            Set<String> words = new LinkedHashSet<>();
+            entry.getValue().forEach(payload -> words.add(payload.word()));
+            Map<String, EnrichmentResult> found = enrichmentClient.enrich(entry.getKey(), words);
+            for (FlashcardEnrichmentPayload payload : entry.getValue()) {
+                results.put(payload.flashcardId(), found.getOrDefault(payload.word(), EnrichmentResult.empty()));
+            }
+        }
+        enrichmentWriter.apply(results);
+        log.debug("Enriched {} flashcards in {} languages", results.size(), byLanguage.size());
+    }
+}
@@ -0,0 +1,6 @@
+package lingvo.app.flashcards.enrichment;
+
+import lingvo.app.flashcards.entity.Language;
+
+public record FlashcardEnrichmentPayload(Long flashcardId, String word, Language language) {
+}
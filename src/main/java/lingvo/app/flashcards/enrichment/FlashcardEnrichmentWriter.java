@@ -0,0 +1,51 @@
+package lingvo.app.flashcards.enrichment;
+
+import lingvo.app.flashcards.cache.FlashcardCache;
+import lingvo.app.flashcards.entity.Flashcard;
+import lingvo.app.flashcards.repository.FlashcardRepository;
+import lingvo.app.flashcards.stats.DeckStatsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+@Component
+@RequiredArgsConstructor
+public class FlashcardEnrichmentWriter {
+
+    private final FlashcardRepository flashcardRepository;
+    private final FlashcardCache flashcardCache;
+    private final DeckStatsService deckStatsService;
+
+    /**
+     * Writes lookup results for one batch. Values the user already filled in are never overwritten,
+     * and cards deleted in the meantime are skipped. Each deck the batch touched is marked changed once,
+     * in id order, so conditional GETs of the deck see the new values.
+     */
+    @Transactional
+    public void apply(Map<Long, EnrichmentResult> results) {
+        LocalDateTime now = LocalDateTime.now();
+        Set<Long> deckIds = new TreeSet<>();
+        for (Flashcard flashcard : flashcardRepository.findAllById(results.keySet())) {
+            EnrichmentResult result = results.get(flashcard.getId());
+            if (flashcard.getTranslationPerApi() == null && result.translation() != null) {
+                flashcard.setTranslationPerApi(result.translation());
+            }
+            if ((flashcard.getUsageExample() == null || flashcard.getUsageExample().isEmpty())
+                    && !result.usageExamples().isEmpty()) {
+                flashcard.setUsageExample(new HashSet<>(result.usageExamples()));
+            }
+            flashcard.setEnrichedAt(now);
+            flashcardCache.evictAfterCommit(flashcard.getId(), flashcard.getOwnerId());
+            deckIds.add(flashcard.getDeck().getId());
+        }
+        for (Long deckId : deckIds) {
+            deckStatsService.cardsChanged(deckId, now);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package lingvo.app.flashcards.enrichment;
+
+import lingvo.app.flashcards.entity.Language;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Fallback used until a real translation provider is wired in: it finds nothing,
+ * so cards are only marked as processed. A real client should be declared {@code @Primary}.
+ */
+@Component
+@Slf4j
+public class NoopFlashcardEnrichmentClient implements FlashcardEnrichmentClient {
+
+    @Override
+    public Map<String, EnrichmentResult> enrich(Language language, Collection<String> words) {
+        log.debug("No enrichment provider configured, skipping {} {} words", words.size(), language);
+        return Map.of();
+    }
+}
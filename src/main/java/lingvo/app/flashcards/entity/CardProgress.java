@@ -0,0 +1,59 @@
+package lingvo.app.flashcards.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Study progress of one user on one card of a deck they subscribed to. Shared content stays in
+ * {@link Flashcard} once, so a popular deck costs one narrow row per studied card and user.
+ */
+@Entity
+@NoArgsConstructor
+@Getter
+@Setter
+@IdClass(CardProgress.Key.class)
+@Table(name = "t_card_progress")
+public class CardProgress {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Id
+    @Column(name = "card_id")
+    private Long cardId;
+
+    @Column(name = "deck_id", nullable = false)
+    private Long deckId;
+
+    private LocalDateTime lastReviewAt;
+
+    private LocalDateTime nextReviewAt;
+
+    @Column(nullable = false)
+    private int reviewCount;
+
+    @Column(nullable = false)
+    private double difficultFactor;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private Long cardId;
+    }
+}
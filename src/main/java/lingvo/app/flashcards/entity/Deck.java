@@ -2,22 +2,31 @@ package lingvo.app.flashcards.entity;
 
 import jakarta.persistence.*;
 import lingvo.app.auth.entity.User;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
-import lombok.RequiredArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.text.Normalizer;
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
 @NoArgsConstructor
-@RequiredArgsConstructor
 @Getter
 @Setter
 @Table(name = "t_deck")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Deck.CACHE_REGION)
+@SQLRestriction("deleted = false")
 public class Deck {
 
+    public static final String CACHE_REGION = "decks";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -25,15 +34,82 @@ public class Deck {
     @Column(nullable = false,name = "title")
     private String title;
 
+    /**
+     * {@link #normalizeTitle(String) Normalized} copy of the title for search. The C collation makes
+     * {@code LIKE 'prefix%'} and keyset comparisons usable on a plain btree index.
+     */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "title_normalized", nullable = false, columnDefinition = "varchar(255) collate \"C\"")
+    private String normalizedTitle;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false, name = "language")
     private Language language;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "created_by_user_id")
     private User createdBy;
 
+    /**
+     * Public decks can be cloned by every user; private ones only by their owner and users who favorited them.
+     */
+    @Column(name = "is_public", nullable = false)
+    private boolean publicDeck;
+
+    /**
+     * Number of {@code user_decks} rows, kept by the favorite endpoints so the catalog can rank without counting.
+     */
+    @Column(name = "favorite_count", nullable = false)
+    private long favoriteCount;
+
     @CreationTimestamp
     @Column(nullable = false)
     private LocalDateTime createdAt;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Tombstone flag: deleted rows stay in the table so sync clients learn about the deletion.
+     */
+    @Column(nullable = false)
+    private boolean deleted;
+
+    /**
+     * Set by the {@code track_change} trigger on insert and on every version bump.
+     */
+    @Column(name = "change_txid", nullable = false, insertable = false, updatable = false)
+    private long changeTxid;
+
+    @Column(name = "change_seq", nullable = false, insertable = false, updatable = false)
+    private long changeSeq;
+
+    /**
+     * Id of the creating user, or {@code null} for decks created before decks had owners.
+     */
+    public Long getOwnerId() {
+        return createdBy == null ? null : createdBy.getId();
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateNormalizedTitle() {
+        normalizedTitle = normalizeTitle(title);
+    }
+
+    /**
+     * Case-folded, accent-free title with collapsed whitespace; search terms go through the same function.
+     */
+    public static String normalizeTitle(String title) {
+        if (title == null) {
+            return null;
+        }
+        String decomposed = Normalizer.normalize(title, Normalizer.Form.NFKD).replaceAll("\\p{M}", "");
+        return decomposed.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
 }
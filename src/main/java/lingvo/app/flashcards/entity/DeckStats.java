@@ -0,0 +1,69 @@
+package lingvo.app.flashcards.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per-deck aggregate read by deck listings instead of counting {@code t_flashcard}. Card count is kept exact
+ * by the card writes; difficulty and due count are recomputed by the rollup whenever {@code pendingChanges}
+ * is positive or {@code nextDueAt} has passed.
+ */
+@Entity
+@NoArgsConstructor
+@Getter
+@Setter
+@Table(name = "t_deck_stats")
+public class DeckStats {
+
+    @Id
+    @Column(name = "deck_id")
+    private Long deckId;
+
+    @Column(nullable = false)
+    private long cardCount;
+
+    @Column(nullable = false)
+    private long dueCount;
+
+    @Column(nullable = false)
+    private double difficultySum;
+
+    private LocalDateTime lastStudiedAt;
+
+    /**
+     * Earliest {@code nextReviewAt} still in the future at the last rollup; once it passes the due count is stale.
+     */
+    @Column(name = "next_due_at")
+    private LocalDateTime nextDueAt;
+
+    @Column(nullable = false)
+    private int pendingChanges;
+
+    /**
+     * Bumped by every write to the row; part of the deck ETags.
+     */
+    @Column(nullable = false)
+    private long revision;
+
+    /**
+     * Bumped whenever a card of the deck is created, changed or deleted, so the deck's card list can be
+     * validated without reading {@code t_flashcard}. Kept here rather than on {@code t_deck} so card writes
+     * don't evict cached decks.
+     */
+    @Column(nullable = false)
+    private long cardsVersion;
+
+    private LocalDateTime cardsUpdatedAt;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public DeckStats(Long deckId, LocalDateTime now) {
+        this.deckId = deckId;
+        this.updatedAt = now;
+    }
+}
@@ -5,9 +5,11 @@ import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
-import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.SQLRestriction;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.Set;
@@ -15,10 +17,11 @@ import java.util.Set;
 
 @Entity
 @NoArgsConstructor
-@RequiredArgsConstructor
 @Getter
 @Setter
 @Table(name = "t_flashcard")
+@SQLRestriction("deleted = false")
+@DynamicUpdate
 public class Flashcard {
 
     @Id
@@ -45,13 +48,33 @@ public class Flashcard {
     @JoinColumn(name = "deck_id", nullable = false)
     private Deck deck;
 
+    /**
+     * Card this one was cloned from; lets the clone statements copy element collections without a mapping table.
+     * A subscriber's copy of a shared card has the same source but stays in the source's deck, which is what
+     * tells it apart from a card of a cloned deck.
+     */
+    @Column(name = "source_card_id", updatable = false)
+    private Long sourceCardId;
+
+    /**
+     * User the card belongs to, denormalized from the deck's creator so per-user queries never join
+     * {@code t_deck}. Differs from the deck's creator only on a subscriber's private copy of a shared card.
+     */
+    @Column(name = "owner_id", updatable = false)
+    private Long ownerId;
+
     @CreationTimestamp
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
-    @Column(nullable = false)
     private LocalDateTime lastReviewAt;
 
+    /**
+     * When the card should be reviewed again; a card that was never reviewed is due right away.
+     */
+    @Column(name = "next_review_at")
+    private LocalDateTime nextReviewAt;
+
     @Column(nullable = false)
     private int reviewCount;
 
@@ -59,4 +82,30 @@ public class Flashcard {
     @Max(10)
     @Column(nullable = false)
     private double difficultFactor;
+
+    @Column(name = "enriched_at")
+    private LocalDateTime enrichedAt;
+
+    @Version
+    @Column(nullable = false)
+    private long version;
+
+    @UpdateTimestamp
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    /**
+     * Tombstone flag: deleted rows stay in the table so sync clients learn about the deletion.
+     */
+    @Column(nullable = false)
+    private boolean deleted;
+
+    /**
+     * Set by the {@code track_change} trigger on insert and on every version bump.
+     */
+    @Column(name = "change_txid", nullable = false, insertable = false, updatable = false)
+    private long changeTxid;
+
+    @Column(name = "change_seq", nullable = false, insertable = false, updatable = false)
+    private long changeSeq;
 }
@@ -0,0 +1,57 @@
+package lingvo.app.flashcards.purge;
+
+import lingvo.app.jobs.entity.OutboxJob;
+import lingvo.app.jobs.service.JobHandler;
+import lingvo.app.jobs.service.OutboxService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Empties large deleted decks chunk by chunk, each chunk in its own short transaction. A job that dies half
+ * way is simply retried: the chunks that were committed are gone and the rest is picked up.
+ */
+@Component
+@Slf4j
+public class DeckPurgeJobHandler implements JobHandler {
+
+    public static final String TYPE = "DECK_PURGE";
+
+    private final DeckPurgeService deckPurgeService;
+    private final OutboxService outboxService;
+    private final int chunkSize;
+
+    public DeckPurgeJobHandler(DeckPurgeService deckPurgeService,
+                               OutboxService outboxService,
+                               @Value("${app.decks.purge-chunk-size:1000}") int chunkSize) {
+        this.deckPurgeService = deckPurgeService;
+        this.outboxService = outboxService;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return 1;
+    }
+
+    @Override
+    public void handle(List<OutboxJob> jobs) {
+        for (OutboxJob job : jobs) {
+            Long deckId = outboxService.readPayload(job, DeckPurgePayload.class).deckId();
+            long total = 0;
+            int deleted;
+            do {
+                deleted = deckPurgeService.purgeCards(deckId, chunkSize);
+                total += deleted;
+            } while (deleted == chunkSize);
+            log.info("Purged {} cards of deleted deck {}", total, deckId);
+        }
+    }
+}
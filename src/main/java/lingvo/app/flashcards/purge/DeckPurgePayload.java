@@ -0,0 +1,4 @@
+package lingvo.app.flashcards.purge;
+
+public record DeckPurgePayload(Long deckId) {
+}
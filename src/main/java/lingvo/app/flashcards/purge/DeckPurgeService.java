@@ -0,0 +1,48 @@
+package lingvo.app.flashcards.purge;
+
+import io.micrometer.core.annotation.Timed;
+import lingvo.app.flashcards.cache.FlashcardCache;
+import lingvo.app.flashcards.repository.CardProgressRepository;
+import lingvo.app.flashcards.repository.DeckStatsRepository;
+import lingvo.app.flashcards.repository.FlashcardRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Removes the cards of a deleted deck with set-based DELETEs instead of loading and removing them one by one.
+ * The deck row itself stays as a tombstone for sync clients, which drop a deleted deck's cards on their side.
+ */
+@Service
+@Timed("lingvo.service")
+@RequiredArgsConstructor
+@Slf4j
+public class DeckPurgeService {
+
+    private final FlashcardRepository flashcardRepository;
+    private final CardProgressRepository cardProgressRepository;
+    private final DeckStatsRepository deckStatsRepository;
+    private final FlashcardCache flashcardCache;
+
+    /**
+     * Deletes up to {@code limit} cards of the deck together with their element-collection and progress rows.
+     *
+     * @return number of deleted cards; less than {@code limit} once the deck is empty
+     */
+    @Transactional
+    public int purgeCards(Long deckId, int limit) {
+        cardProgressRepository.purgeByDeckId(deckId, limit);
+        flashcardRepository.purgeUsageExamples(deckId, limit);
+        flashcardRepository.purgeSelectedTranslations(deckId, limit);
+        int deleted = flashcardRepository.purgeByDeckId(deckId, limit);
+        if (deleted > 0) {
+            deckStatsRepository.touchCards(deckId, LocalDateTime.now());
+            flashcardCache.evictDeckAfterCommit(deckId);
+        }
+        log.debug("Purged {} cards of deck {}", deleted, deckId);
+        return deleted;
+    }
+}
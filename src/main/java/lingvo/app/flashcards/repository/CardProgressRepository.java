@@ -0,0 +1,103 @@
+package lingvo.app.flashcards.repository;
+
+import jakarta.persistence.QueryHint;
+import lingvo.app.flashcards.dto.VersionSummary;
+import lingvo.app.flashcards.entity.CardProgress;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface CardProgressRepository extends JpaRepository<CardProgress, CardProgress.Key> {
+
+    List<CardProgress> findByUserIdAndCardIdIn(Long userId, Collection<Long> cardIds);
+
+    /**
+     * The user's progress rows that are due at {@code now} on cards of decks they don't own but may still
+     * study, most overdue first; read from the (user_id, next_review_at) index.
+     */
+    @Query(value = "SELECT p.* FROM t_card_progress p " +
+            "JOIN t_flashcard f ON f.id = p.card_id AND f.deleted = false " +
+            "JOIN t_deck d ON d.id = f.deck_id AND d.deleted = false " +
+            "WHERE p.user_id = :userId AND (p.next_review_at IS NULL OR p.next_review_at <= :now) " +
+            "AND d.created_by_user_id <> :userId " +
+            "AND (d.is_public OR EXISTS (SELECT 1 FROM user_decks ud WHERE ud.user_id = :userId AND ud.deck_id = d.id)) " +
+            "ORDER BY p.next_review_at NULLS LAST, p.card_id LIMIT :limit", nativeQuery = true)
+    List<CardProgress> findDueInSharedDecks(@Param("userId") Long userId, @Param("now") LocalDateTime now,
+                                            @Param("limit") int limit);
+
+    /**
+     * Same merge rules as {@link FlashcardRepository#mergeProgress}, as an upsert: the first review of a card
+     * creates the row, later ones add up and the newest review decides difficulty and schedule.
+     */
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "t_card_progress"))
+    @Query(value = "INSERT INTO t_card_progress AS p (user_id, card_id, deck_id, last_review_at, next_review_at, " +
+            "    review_count, difficult_factor, version, updated_at) " +
+            "VALUES (:userId, :cardId, :deckId, :reviewedAt, :nextReviewAt, :reviews, :difficulty, 0, :now) " +
+            "ON CONFLICT (user_id, card_id) DO UPDATE SET " +
+            "    review_count = p.review_count + EXCLUDED.review_count, " +
+            "    difficult_factor = CASE WHEN p.last_review_at IS NULL OR p.last_review_at <= EXCLUDED.last_review_at " +
+            "        THEN EXCLUDED.difficult_factor ELSE p.difficult_factor END, " +
+            "    next_review_at = CASE WHEN p.last_review_at IS NULL OR p.last_review_at <= EXCLUDED.last_review_at " +
+            "        THEN EXCLUDED.next_review_at ELSE p.next_review_at END, " +
+            "    last_review_at = greatest(p.last_review_at, EXCLUDED.last_review_at), " +
+            "    version = p.version + 1, " +
+            "    updated_at = EXCLUDED.updated_at", nativeQuery = true)
+    void mergeProgress(@Param("userId") Long userId,
+                       @Param("cardId") Long cardId,
+                       @Param("deckId") Long deckId,
+                       @Param("reviews") int reviews,
+                       @Param("reviewedAt") LocalDateTime reviewedAt,
+                       @Param("difficulty") double difficulty,
+                       @Param("nextReviewAt") LocalDateTime nextReviewAt,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Remembers a progress submission; returns 0 if the user already sent it, in which case it must not be
+     * merged again. A concurrent retry waits for the first one to commit.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "t_progress_submission"))
+    @Query(value = "INSERT INTO t_progress_submission (user_id, submission_id, card_id, created_at) " +
+            "VALUES (:userId, :submissionId, :cardId, :now) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int recordSubmission(@Param("userId") Long userId, @Param("submissionId") UUID submissionId,
+                         @Param("cardId") Long cardId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "t_progress_submission"))
+    @Query(value = "DELETE FROM t_progress_submission WHERE ctid IN (SELECT ctid FROM t_progress_submission " +
+            "WHERE created_at < :cutoff LIMIT :limit)", nativeQuery = true)
+    int purgeSubmissionsBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    /**
+     * Re-keys a user's progress from a shared card to their private copy of it.
+     */
+    @Modifying(clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "t_card_progress"))
+    @Query(value = "UPDATE t_card_progress SET card_id = :copyId, version = version + 1, updated_at = :now " +
+            "WHERE user_id = :userId AND card_id = :cardId", nativeQuery = true)
+    int moveToCopy(@Param("userId") Long userId, @Param("cardId") Long cardId, @Param("copyId") Long copyId,
+                   @Param("now") LocalDateTime now);
+
+    @Query(value = "SELECT count(*) AS \"count\", coalesce(sum(version), 0) AS \"version\", " +
+            "max(updated_at) AS \"lastModified\" FROM t_card_progress " +
+            "WHERE user_id = :userId AND deck_id = :deckId", nativeQuery = true)
+    VersionSummary summarizeDeckProgress(@Param("userId") Long userId, @Param("deckId") Long deckId);
+
+    /**
+     * Companion of the card purge statements in {@link FlashcardRepository}; must run before them.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "t_card_progress"))
+    @Query(value = "DELETE FROM t_card_progress WHERE card_id IN " +
+            "(SELECT id FROM t_flashcard WHERE deck_id = :deckId ORDER BY id LIMIT :limit)", nativeQuery = true)
+    int purgeByDeckId(@Param("deckId") Long deckId, @Param("limit") int limit);
+}
@@ -1,11 +1,130 @@
 package lingvo.app.flashcards.repository;
 
-import lingvo.app.flashcards.dto.DeckResponseDto;
+import jakarta.persistence.QueryHint;
+import lingvo.app.flashcards.dto.ChangeRow;
+import lingvo.app.flashcards.dto.DeckCatalogEntryDto;
+import lingvo.app.flashcards.dto.VersionSummary;
 import lingvo.app.flashcards.entity.Deck;
+import lingvo.app.flashcards.entity.Language;
+import org.springframework.data.domain.Pageable;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface DeckRepository extends JpaRepository<Deck, Long> {
-    Optional <Deck> findByTitle(String title);
+    /**
+     * One owner's decks in one language whose normalized title starts with {@code prefix}, after the keyset
+     * position ({@code afterTitle}, {@code afterId}). Served by {@code idx_deck_owner_title}: equality on the
+     * leading columns, a range scan for the prefix and the row comparison.
+     */
+    @Query(value = "SELECT * FROM t_deck WHERE created_by_user_id = :ownerId AND language = :language " +
+            "AND deleted = false " +
+            "AND title_normalized LIKE :prefix ESCAPE '\\' " +
+            "AND (title_normalized, id) > (:afterTitle, :afterId) " +
+            "ORDER BY title_normalized, id " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Deck> searchByTitle(@Param("ownerId") long ownerId,
+                             @Param("language") String language,
+                             @Param("prefix") String prefix,
+                             @Param("afterTitle") String afterTitle,
+                             @Param("afterId") long afterId,
+                             @Param("limit") int limit);
+
+    List<Deck> findByCreatedByIdOrderByIdAsc(long ownerId);
+
+    Optional<Deck> findByIdAndCreatedById(Long id, long ownerId);
+
+    /**
+     * Counts tombstones too: a deletion bumps the deck's version, so the summary changes on every write.
+     * Stats revisions are added because listings embed {@code t_deck_stats}.
+     */
+    @Query(value = "SELECT count(*) AS \"count\", coalesce(sum(d.version + coalesce(s.revision, 0)), 0) AS \"version\", " +
+            "greatest(max(d.updated_at), max(s.updated_at)) AS \"lastModified\" " +
+            "FROM t_deck d LEFT JOIN t_deck_stats s ON s.deck_id = d.id " +
+            "WHERE d.created_by_user_id = :ownerId", nativeQuery = true)
+    VersionSummary summarizeDeckVersions(@Param("ownerId") long ownerId);
+
+    @Modifying
+    @Query("update Deck d set d.deleted = true, d.version = d.version + 1, d.updatedAt = :now where d.id = :deckId")
+    int softDelete(@Param("deckId") Long deckId, @Param("now") LocalDateTime now);
+
+    /**
+     * Changes after the given cursor, including tombstones. Rows written by transactions that may still
+     * be running (txid at or above the snapshot xmin) are held back, so a slow writer can never commit
+     * a row behind a cursor a client already holds.
+     */
+    @Query(value = "SELECT id, deleted, change_txid AS \"changeTxid\", change_seq AS \"changeSeq\" FROM t_deck " +
+            "WHERE created_by_user_id = :ownerId AND (change_txid, change_seq) > (:txid, :seq) " +
+            "AND change_txid < pg_snapshot_xmin(pg_current_snapshot())::text::bigint " +
+            "ORDER BY change_txid, change_seq " +
+            "LIMIT :limit", nativeQuery = true)
+    List<ChangeRow> findChangesAfter(@Param("ownerId") long ownerId, @Param("txid") long txid, @Param("seq") long seq,
+                                     @Param("limit") int limit);
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM user_decks WHERE user_id = :userId AND deck_id = :deckId)",
+            nativeQuery = true)
+    boolean isFavorite(@Param("userId") long userId, @Param("deckId") Long deckId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_decks"))
+    @Query(value = "INSERT INTO user_decks (user_id, deck_id) VALUES (:userId, :deckId) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    int addFavorite(@Param("userId") long userId, @Param("deckId") Long deckId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_decks"))
+    @Query(value = "DELETE FROM user_decks WHERE user_id = :userId AND deck_id = :deckId", nativeQuery = true)
+    int removeFavorite(@Param("userId") long userId, @Param("deckId") Long deckId);
+
+    /**
+     * Deliberately leaves {@code version} alone: popularity is not part of the deck's own representation.
+     */
+    @Modifying
+    @Query("update Deck d set d.favoriteCount = d.favoriteCount + :delta where d.id = :deckId")
+    void addFavoriteCount(@Param("deckId") Long deckId, @Param("delta") long delta);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "t_deck"))
+    @Query(value = "UPDATE t_deck d SET favorite_count = " +
+            "(SELECT count(*) FROM user_decks u WHERE u.deck_id = d.id) " +
+            "WHERE d.id IN (:deckIds)", nativeQuery = true)
+    int recountFavorites(@Param("deckIds") Collection<Long> deckIds);
+
+    @Query("select new lingvo.app.flashcards.dto.DeckCatalogEntryDto(d.id, d.title, d.language, u.id, d.favoriteCount) " +
+            "from Deck d left join d.createdBy u " +
+            "where d.publicDeck = true and d.language = :language " +
+            "order by d.favoriteCount desc, d.id")
+    List<DeckCatalogEntryDto> findCatalog(@Param("language") Language language, Pageable pageable);
+
+    @Query("select new lingvo.app.flashcards.dto.DeckCatalogEntryDto(d.id, d.title, d.language, u.id, d.favoriteCount) " +
+            "from Deck d left join d.createdBy u " +
+            "where d.publicDeck = true and d.language = :language " +
+            "and (d.favoriteCount < :favoriteCount or (d.favoriteCount = :favoriteCount and d.id > :id)) " +
+            "order by d.favoriteCount desc, d.id")
+    List<DeckCatalogEntryDto> findCatalogAfter(@Param("language") Language language,
+                                               @Param("favoriteCount") long favoriteCount,
+                                               @Param("id") Long id,
+                                               Pageable pageable);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_decks"))
+    @Query(value = "DELETE FROM user_decks WHERE deck_id = :deckId", nativeQuery = true)
+    int removeFromFavorites(@Param("deckId") Long deckId);
+
+    @Query("select d.id from Deck d where d.id between :fromId and :toId order by d.id")
+    List<Long> findIdsBetween(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Query("select min(d.id) from Deck d")
+    Long findMinId();
+
+    @Query("select max(d.id) from Deck d")
+    Long findMaxId();
 }
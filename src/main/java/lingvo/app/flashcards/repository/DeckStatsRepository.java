@@ -0,0 +1,97 @@
+package lingvo.app.flashcards.repository;
+
+import jakarta.persistence.QueryHint;
+import lingvo.app.flashcards.entity.DeckStats;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface DeckStatsRepository extends JpaRepository<DeckStats, Long> {
+
+    /**
+     * A new card has no review yet, so it is due and adds nothing to the difficulty sum: the row stays exact.
+     */
+    @Modifying
+    @Query("update DeckStats s set s.cardCount = s.cardCount + 1, s.dueCount = s.dueCount + 1, " +
+            "s.revision = s.revision + 1, s.updatedAt = :now where s.deckId = :deckId")
+    void cardCreated(@Param("deckId") Long deckId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update DeckStats s set s.cardCount = s.cardCount + 1, s.pendingChanges = s.pendingChanges + 1, " +
+            "s.revision = s.revision + 1, s.updatedAt = :now where s.deckId = :deckId")
+    void cardMovedIn(@Param("deckId") Long deckId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update DeckStats s set s.cardCount = s.cardCount - 1, s.pendingChanges = s.pendingChanges + 1, " +
+            "s.revision = s.revision + 1, s.updatedAt = :now where s.deckId = :deckId")
+    void cardRemoved(@Param("deckId") Long deckId, @Param("now") LocalDateTime now);
+
+    /**
+     * Also moves the deck's card-list version, so a review writes the row once: reviews of one deck queue on
+     * this row lock until commit, and a second UPDATE would only hold it longer.
+     */
+    @Modifying
+    @Query("update DeckStats s set " +
+            "s.lastStudiedAt = case when s.lastStudiedAt is null or s.lastStudiedAt < :reviewedAt " +
+            "    then :reviewedAt else s.lastStudiedAt end, " +
+            "s.pendingChanges = s.pendingChanges + 1, s.revision = s.revision + 1, s.updatedAt = :now, " +
+            "s.cardsVersion = s.cardsVersion + 1, s.cardsUpdatedAt = :now " +
+            "where s.deckId = :deckId")
+    void cardReviewed(@Param("deckId") Long deckId, @Param("reviewedAt") LocalDateTime reviewedAt,
+                      @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("update DeckStats s set s.cardsVersion = s.cardsVersion + 1, s.cardsUpdatedAt = :now where s.deckId = :deckId")
+    void touchCards(@Param("deckId") Long deckId, @Param("now") LocalDateTime now);
+
+    /**
+     * The row of a deleted deck is kept, so collection ETags built from revision sums never go backwards.
+     */
+    @Modifying
+    @Query("update DeckStats s set s.cardCount = 0, s.dueCount = 0, s.difficultySum = 0, s.pendingChanges = 0, " +
+            "s.nextDueAt = null, s.revision = s.revision + 1, s.updatedAt = :now where s.deckId = :deckId")
+    void retire(@Param("deckId") Long deckId, @Param("now") LocalDateTime now);
+
+    /**
+     * Claims stale rows for the rollup; rows locked by a card write or another node are skipped this round.
+     */
+    @Query(value = "SELECT deck_id FROM t_deck_stats WHERE (pending_changes > 0 OR next_due_at <= :now) " +
+            "AND EXISTS (SELECT 1 FROM t_deck d WHERE d.id = deck_id AND d.deleted = false) " +
+            "ORDER BY deck_id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockStale(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Recomputes the given decks from {@code t_flashcard} with one grouped scan over {@code deck_id}, creating
+     * missing rows. {@code pending_changes} only drops by the amount seen when the scan started, so card
+     * writes that commit in between keep the row stale for the next rollup.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "t_deck_stats"))
+    @Query(value = "INSERT INTO t_deck_stats AS s (deck_id, card_count, due_count, difficulty_sum, last_studied_at, " +
+            "    next_due_at, pending_changes, revision, updated_at) " +
+            "SELECT d.id, count(f.id), " +
+            "    count(f.id) FILTER (WHERE f.next_review_at IS NULL OR f.next_review_at <= :now), " +
+            "    coalesce(sum(f.difficult_factor), 0), max(f.last_review_at), " +
+            "    min(f.next_review_at) FILTER (WHERE f.next_review_at > :now), " +
+            "    coalesce(max(old.pending_changes), 0), 1, :now " +
+            "FROM t_deck d " +
+            "LEFT JOIN t_deck_stats old ON old.deck_id = d.id " +
+            "LEFT JOIN t_flashcard f ON f.deck_id = d.id AND f.owner_id IS NOT DISTINCT FROM d.created_by_user_id " +
+            "    AND f.deleted = false " +
+            "WHERE d.id IN (:deckIds) AND d.deleted = false " +
+            "GROUP BY d.id " +
+            "ON CONFLICT (deck_id) DO UPDATE SET " +
+            "    card_count = EXCLUDED.card_count, due_count = EXCLUDED.due_count, " +
+            "    difficulty_sum = EXCLUDED.difficulty_sum, last_studied_at = EXCLUDED.last_studied_at, " +
+            "    next_due_at = EXCLUDED.next_due_at, " +
+            "    pending_changes = greatest(s.pending_changes - EXCLUDED.pending_changes, 0), " +
+            "    revision = s.revision + 1, updated_at = EXCLUDED.updated_at", nativeQuery = true)
+    int recompute(@Param("deckIds") Collection<Long> deckIds, @Param("now") LocalDateTime now);
+}
@@ -1,10 +1,157 @@
 package lingvo.app.flashcards.repository;
 
+import jakarta.persistence.QueryHint;
+import lingvo.app.flashcards.dto.ChangeRow;
+import lingvo.app.flashcards.dto.VersionSummary;
 import lingvo.app.flashcards.entity.Flashcard;
+import org.springframework.data.domain.Pageable;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface FlashcardRepository extends JpaRepository<Flashcard, Long> {
-Optional<Flashcard> findByWord(String word);
+    List<Flashcard> findByOwnerIdOrderByDeckIdAscIdAsc(Long ownerId);
+
+    Optional<Flashcard> findFirstByOwnerIdAndWordOrderByIdAsc(Long ownerId, String word);
+
+    List<Flashcard> findByOwnerIdAndDeckIdOrderByIdAsc(Long ownerId, Long deckId);
+
+    /**
+     * A subscriber's copy of a shared card; clones of the card in other decks have the same source and owner.
+     */
+    Optional<Flashcard> findBySourceCardIdAndOwnerIdAndDeckId(Long sourceCardId, Long ownerId, Long deckId);
+
+    /**
+     * The owner's cards in their own decks that are due at {@code now}, most overdue first; never-reviewed
+     * cards come last. Copies of shared cards are left out: their progress lives in {@link CardProgressRepository}.
+     */
+    @Query("select f from Flashcard f where f.ownerId = :ownerId and f.deck.createdBy.id = :ownerId " +
+            "and (f.nextReviewAt is null or f.nextReviewAt <= :now) " +
+            "order by f.nextReviewAt asc nulls last, f.id")
+    List<Flashcard> findDue(@Param("ownerId") Long ownerId, @Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Counts tombstones too, like {@link DeckRepository#summarizeDeckVersions}; reads only the owner's rows.
+     */
+    @Query(value = "SELECT count(*) AS \"count\", coalesce(sum(version), 0) AS \"version\", " +
+            "max(updated_at) AS \"lastModified\" FROM t_flashcard WHERE owner_id = :ownerId", nativeQuery = true)
+    VersionSummary summarizeOwnerVersions(@Param("ownerId") Long ownerId);
+
+    /**
+     * Shared cards of the deck as one subscriber sees them: cards they copied are replaced by their copies.
+     */
+    @Query("select f from Flashcard f where f.deck.id = :deckId and (f.ownerId = :userId or (f.ownerId = :deckOwnerId " +
+            "and not exists (select c.id from Flashcard c where c.sourceCardId = f.id and c.ownerId = :userId " +
+            "and c.deck.id = f.deck.id)))")
+    List<Flashcard> findDeckViewForUser(@Param("deckId") Long deckId, @Param("deckOwnerId") Long deckOwnerId,
+                                        @Param("userId") Long userId);
+
+    /**
+     * Cards of decks the user subscribed to that they have never reviewed, as {@link #findDeckViewForUser}
+     * shows them. Native, so tombstones are filtered explicitly.
+     */
+    @Query(value = "SELECT f.* FROM user_decks ud " +
+            "JOIN t_deck d ON d.id = ud.deck_id AND d.deleted = false " +
+            "JOIN t_flashcard f ON f.deck_id = d.id AND f.deleted = false " +
+            "WHERE ud.user_id = :userId AND d.created_by_user_id <> :userId " +
+            "AND (f.owner_id = :userId OR (f.owner_id = d.created_by_user_id AND NOT EXISTS " +
+            "    (SELECT 1 FROM t_flashcard c WHERE c.source_card_id = f.id AND c.owner_id = :userId " +
+            "    AND c.deck_id = f.deck_id AND c.deleted = false))) " +
+            "AND NOT EXISTS (SELECT 1 FROM t_card_progress p WHERE p.user_id = :userId AND p.card_id = f.id) " +
+            "ORDER BY f.id LIMIT :limit", nativeQuery = true)
+    List<Flashcard> findUnreviewedInSubscribedDecks(@Param("userId") Long userId, @Param("limit") int limit);
+
+    /**
+     * Adds {@code reviews} to the stored count; the newer of the stored and the submitted review decides
+     * {@code lastReviewAt}, {@code nextReviewAt} and the difficulty. All right-hand sides see the row as it was before the update.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("update Flashcard f set " +
+            "f.reviewCount = f.reviewCount + :reviews, " +
+            "f.difficultFactor = case when f.lastReviewAt is null or f.lastReviewAt <= :reviewedAt " +
+            "    then :difficulty else f.difficultFactor end, " +
+            "f.nextReviewAt = case when f.lastReviewAt is null or f.lastReviewAt <= :reviewedAt " +
+            "    then :nextReviewAt else f.nextReviewAt end, " +
+            "f.lastReviewAt = case when f.lastReviewAt is null or f.lastReviewAt < :reviewedAt " +
+            "    then :reviewedAt else f.lastReviewAt end, " +
+            "f.version = f.version + 1, " +
+            "f.updatedAt = :now " +
+            "where f.id = :id")
+    int mergeProgress(@Param("id") Long id,
+                      @Param("reviews") int reviews,
+                      @Param("reviewedAt") LocalDateTime reviewedAt,
+                      @Param("difficulty") double difficulty,
+                      @Param("nextReviewAt") LocalDateTime nextReviewAt,
+                      @Param("now") LocalDateTime now);
+
+    /**
+     * Copies the live cards of one deck into another with fresh progress. Element collections are copied
+     * afterwards by {@link #cloneUsageExamples} and {@link #cloneSelectedTranslations}, joined through
+     * {@code source_card_id}.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "t_flashcard"))
+    @Query(value = "INSERT INTO t_flashcard (word, translation_per_api, deck_id, owner_id, source_card_id, created_at, " +
+            "    review_count, difficult_factor, enriched_at, version, updated_at, deleted) " +
+            "SELECT f.word, f.translation_per_api, :targetDeckId, :ownerId, f.id, :now, 0, 0, f.enriched_at, 0, :now, false " +
+            "FROM t_flashcard f JOIN t_deck d ON d.id = f.deck_id " +
+            "WHERE f.deck_id = :sourceDeckId AND f.owner_id IS NOT DISTINCT FROM d.created_by_user_id " +
+            "AND f.deleted = false ORDER BY f.id", nativeQuery = true)
+    int cloneCards(@Param("sourceDeckId") Long sourceDeckId, @Param("targetDeckId") Long targetDeckId,
+                   @Param("ownerId") Long ownerId, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "usage_example"))
+    @Query(value = "INSERT INTO usage_example (flashcard_id, example) " +
+            "SELECT c.id, u.example FROM t_flashcard c JOIN usage_example u ON u.flashcard_id = c.source_card_id " +
+            "WHERE c.deck_id = :targetDeckId", nativeQuery = true)
+    int cloneUsageExamples(@Param("targetDeckId") Long targetDeckId);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "t_selected_translation"))
+    @Query(value = "INSERT INTO t_selected_translation (flashcard_id, translation) " +
+            "SELECT c.id, t.translation FROM t_flashcard c " +
+            "JOIN t_selected_translation t ON t.flashcard_id = c.source_card_id " +
+            "WHERE c.deck_id = :targetDeckId", nativeQuery = true)
+    int cloneSelectedTranslations(@Param("targetDeckId") Long targetDeckId);
+
+    /**
+     * The three purge statements pick the same {@code limit} lowest card ids of the deck, so element
+     * collection rows always go before their card. Tombstoned cards are included.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "usage_example"))
+    @Query(value = "DELETE FROM usage_example WHERE flashcard_id IN " +
+            "(SELECT id FROM t_flashcard WHERE deck_id = :deckId ORDER BY id LIMIT :limit)", nativeQuery = true)
+    int purgeUsageExamples(@Param("deckId") Long deckId, @Param("limit") int limit);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "t_selected_translation"))
+    @Query(value = "DELETE FROM t_selected_translation WHERE flashcard_id IN " +
+            "(SELECT id FROM t_flashcard WHERE deck_id = :deckId ORDER BY id LIMIT :limit)", nativeQuery = true)
+    int purgeSelectedTranslations(@Param("deckId") Long deckId, @Param("limit") int limit);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "t_flashcard"))
+    @Query(value = "DELETE FROM t_flashcard WHERE id IN " +
+            "(SELECT id FROM t_flashcard WHERE deck_id = :deckId ORDER BY id LIMIT :limit)", nativeQuery = true)
+    int purgeByDeckId(@Param("deckId") Long deckId, @Param("limit") int limit);
+
+    /**
+     * See {@link DeckRepository#findChangesAfter}; both tables share one change sequence.
+     */
+    @Query(value = "SELECT id, deleted, change_txid AS \"changeTxid\", change_seq AS \"changeSeq\" FROM t_flashcard " +
+            "WHERE owner_id = :ownerId AND (change_txid, change_seq) > (:txid, :seq) " +
+            "AND change_txid < pg_snapshot_xmin(pg_current_snapshot())::text::bigint " +
+            "ORDER BY change_txid, change_seq " +
+            "LIMIT :limit", nativeQuery = true)
+    List<ChangeRow> findChangesAfter(@Param("ownerId") long ownerId, @Param("txid") long txid, @Param("seq") long seq,
+                                     @Param("limit") int limit);
 }
@@ -1,8 +1,10 @@
 package lingvo.app.flashcards.service;
 
+import lingvo.app.flashcards.dto.CollectionVersionDto;
 import lingvo.app.flashcards.dto.DeckCreateUpdateDto;
 import lingvo.app.flashcards.dto.DeckResponseDto;
-import lingvo.app.flashcards.entity.Deck;
+import lingvo.app.flashcards.dto.DeckSearchPageDto;
+import lingvo.app.flashcards.entity.Language;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -11,18 +13,30 @@ public interface DeckService {
     @Transactional
     DeckResponseDto createDeck(DeckCreateUpdateDto deckCreateUpdateDto);
 
-    @Transactional
+    @Transactional(readOnly = true)
     DeckResponseDto getDeckById(long deckId);
 
-    @Transactional
+    @Transactional(readOnly = true)
     List<DeckResponseDto> getAllDecks();
 
-    @Transactional
-    DeckResponseDto getDeckByTitle(String deckTitle);
+    @Transactional(readOnly = true)
+    CollectionVersionDto getDecksVersion();
+
+    @Transactional(readOnly = true)
+    DeckSearchPageDto searchDecks(String query, Language language, String cursor, int limit);
 
     @Transactional
     DeckResponseDto updateDeck(Long id, DeckCreateUpdateDto deckCreateUpdateDto);
 
     @Transactional
     void deleteDeck(long deckId);
+
+    @Transactional
+    DeckResponseDto cloneDeck(long deckId);
+
+    @Transactional
+    void addFavorite(long deckId);
+
+    @Transactional
+    void removeFavorite(long deckId);
 }
@@ -1,93 +1,287 @@
 package lingvo.app.flashcards.service;
 
+import io.micrometer.core.annotation.Timed;
+import lingvo.app.auth.entity.User;
+import lingvo.app.auth.service.UserService;
+import lingvo.app.cache.invalidation.CacheInvalidationBus;
 import lingvo.app.exception.ResourceNotFoundException;
+import lingvo.app.flashcards.dto.CollectionVersionDto;
 import lingvo.app.flashcards.dto.DeckCreateUpdateDto;
 import lingvo.app.flashcards.DeckMapper;
 import lingvo.app.flashcards.dto.DeckResponseDto;
+import lingvo.app.flashcards.dto.DeckSearchPageDto;
+import lingvo.app.flashcards.dto.VersionSummary;
 import lingvo.app.flashcards.entity.Deck;
+import lingvo.app.flashcards.entity.DeckStats;
+import lingvo.app.flashcards.entity.Language;
+import lingvo.app.flashcards.purge.DeckPurgeJobHandler;
+import lingvo.app.flashcards.purge.DeckPurgePayload;
+import lingvo.app.flashcards.purge.DeckPurgeService;
 import lingvo.app.flashcards.repository.DeckRepository;
+import lingvo.app.flashcards.repository.FlashcardRepository;
+import lingvo.app.flashcards.stats.DeckStatsService;
+import lingvo.app.jobs.service.OutboxService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("lingvo.service")
 @RequiredArgsConstructor
 @Slf4j
 public class DeckServiceImpl implements DeckService {
 
+    static final int MAX_SEARCH_PAGE_SIZE = 100;
+
     private final DeckRepository deckRepository;
     private final DeckMapper deckMapper;
+    private final DeckStatsService deckStatsService;
+    private final DeckPurgeService deckPurgeService;
+    private final OutboxService outboxService;
+    private final FlashcardRepository flashcardRepository;
+    private final UserService userService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${app.decks.sync-purge-max-cards:1000}")
+    private long syncPurgeMaxCards;
 
     @Transactional
     @Override
     public DeckResponseDto createDeck(DeckCreateUpdateDto deckCreateUpdateDto) {
-        log.info("Create deck with title: {}", deckCreateUpdateDto.getTitle());
+        log.debug("Create deck with title: {}", deckCreateUpdateDto.getTitle());
 
         Deck deck = deckMapper.deckCreateUpdateDtoToDeck(deckCreateUpdateDto);
+        deck.setCreatedBy(userService.getCurrentUser());
         Deck savedDeck = deckRepository.save(deck);
-        log.info("Deck created successfully with id: {}", savedDeck.getId());
+        deckStatsService.deckCreated(savedDeck.getId());
+        log.debug("Deck created successfully with id: {}", savedDeck.getId());
         return deckMapper.deckToDeckResponseDto(savedDeck);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
     public DeckResponseDto getDeckById(long deckId){
-        log.info("Fetching deck with id: {}", deckId);
+        log.debug("Fetching deck with id: {}", deckId);
         Deck deck = deckRepository.findById(deckId)
                 .orElseThrow(()->new ResourceNotFoundException("Deck not found"));
-        return deckMapper.deckToDeckResponseDto(deck);
+        User user = userService.getCurrentUser();
+        if (deck.getOwnerId() != null && !isOwner(deck, user) && !deck.isPublicDeck()
+                && !deckRepository.isFavorite(user.getId(), deckId)) {
+            throw new ResourceNotFoundException("Deck not found");
+        }
+        return toResponseDto(deck);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
     public List<DeckResponseDto> getAllDecks(){
-        log.info("Fetching all decks");
-        List<Deck> decks = deckRepository.findAll();
-        return decks.stream()
-                .map(deckMapper::deckToDeckResponseDto)
-                .collect(Collectors.toList());
+        log.debug("Fetching all decks");
+        List<Deck> decks = deckRepository.findByCreatedByIdOrderByIdAsc(userService.getCurrentUser().getId());
+        return toResponseDtos(decks);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
-    public DeckResponseDto getDeckByTitle(String deckTitle){
-        log.info("Fetching deck by title: {}", deckTitle);
-        Deck deck = deckRepository.findByTitle(deckTitle)
-                .orElseThrow(()->new ResourceNotFoundException("Deck not found"));
-        return deckMapper.deckToDeckResponseDto(deck);
+    public CollectionVersionDto getDecksVersion() {
+        long ownerId = userService.getCurrentUser().getId();
+        VersionSummary summary = deckRepository.summarizeDeckVersions(ownerId);
+        return new CollectionVersionDto("decks-" + ownerId + "-" + summary.getCount() + "-" + summary.getVersion(),
+                summary.getLastModified());
+    }
+
+    /**
+     * Prefix search over the current user's decks, case- and accent-insensitive, paged by
+     * (normalized title, id).
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public DeckSearchPageDto searchDecks(String query, Language language, String cursor, int limit) {
+        log.debug("Searching decks by title prefix: {}", query);
+        if (language == null) {
+            throw new IllegalArgumentException("language cannot be null");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_SEARCH_PAGE_SIZE));
+        String prefix = Deck.normalizeTitle(query == null ? "" : query);
+        SearchCursor after = SearchCursor.parse(cursor);
+        User user = userService.getCurrentUser();
+        List<Deck> decks = deckRepository.searchByTitle(user.getId(), language.name(), escapeLike(prefix) + "%",
+                after.title(), after.id(), pageSize);
+
+        DeckSearchPageDto page = new DeckSearchPageDto();
+        page.setDecks(toResponseDtos(decks));
+        if (decks.size() == pageSize) {
+            Deck last = decks.get(decks.size() - 1);
+            page.setNextCursor(new SearchCursor(last.getNormalizedTitle(), last.getId()).format());
+        }
+        return page;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /**
+     * Opaque keyset position; the title is base64url-encoded because it may contain any character.
+     */
+    record SearchCursor(String title, long id) {
+
+        static SearchCursor parse(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return new SearchCursor("", 0);
+            }
+            try {
+                String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = decoded.indexOf(':');
+                return new SearchCursor(decoded.substring(separator + 1), Long.parseLong(decoded.substring(0, separator)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid search cursor: " + cursor);
+            }
+        }
+
+        String format() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((id + ":" + title).getBytes(StandardCharsets.UTF_8));
+        }
     }
 
     @Transactional
     @Override
     public DeckResponseDto updateDeck(Long id, DeckCreateUpdateDto deckCreateUpdateDto) {
-        log.info("Updating deck with id: {}", id);
+        log.debug("Updating deck with id: {}", id);
         if (id == null) {
             throw new IllegalArgumentException("Deck id cannot be null");
         }
         if (deckCreateUpdateDto == null) {
             throw new IllegalArgumentException("DeckCreateUpdateDto cannot be null");
         }
-        Deck deck = deckRepository.findById(id)
+        Deck deck = deckRepository.findByIdAndCreatedById(id, userService.getCurrentUser().getId())
                 .orElseThrow(() -> new ResourceNotFoundException("Deck not found with id: " + id));
         deckMapper.updateDeckFromDto(deckCreateUpdateDto, deck);
         Deck updatedDeck = deckRepository.save(deck);
-        log.info("Deck with id: {} updated successfully", updatedDeck.getId());
-        return deckMapper.deckToDeckResponseDto(updatedDeck);
+        cacheInvalidationBus.publish(Deck.CACHE_REGION, id);
+        log.debug("Deck with id: {} updated successfully", updatedDeck.getId());
+        return toResponseDto(updatedDeck);
     }
 
+    /**
+     * Tombstones the deck and drops it from favorites right away. Its cards are removed with bulk DELETEs:
+     * in this transaction for small decks, by a background purge job for decks above the threshold.
+     */
     @Transactional
     @Override
     public void deleteDeck(long deckId){
-        log.info("Deleting deck with id: {}", deckId);
-        if(!deckRepository.existsById(deckId)){
+        log.debug("Deleting deck with id: {}", deckId);
+        long userId = userService.getCurrentUser().getId();
+        if(deckRepository.findByIdAndCreatedById(deckId, userId).isEmpty()){
             throw new ResourceNotFoundException("Deck not found");
         }
-        deckRepository.deleteById(deckId);
-        log.info("Deck deleted successfully with id: {}", deckId);
+        long cardCount = deckStatsService.cardCount(deckId);
+        deckRepository.softDelete(deckId, LocalDateTime.now());
+        cacheInvalidationBus.publish(Deck.CACHE_REGION, deckId);
+        deckRepository.removeFromFavorites(deckId);
+        deckStatsService.deckDeleted(deckId);
+        if (cardCount > syncPurgeMaxCards) {
+            outboxService.enqueue(DeckPurgeJobHandler.TYPE, userId, new DeckPurgePayload(deckId));
+            log.debug("Deck {} deleted, purge of {} cards queued", deckId, cardCount);
+            return;
+        }
+        deckPurgeService.purgeCards(deckId, Integer.MAX_VALUE);
+        log.debug("Deck deleted successfully with id: {}", deckId);
+    }
+
+    /**
+     * Copies a public, own or favorited deck for the current user inside the database: one INSERT for the
+     * deck, one INSERT ... SELECT for its cards and one per element collection, whatever the deck size.
+     * Progress starts fresh and the clone is private.
+     */
+    @Transactional
+    @Override
+    public DeckResponseDto cloneDeck(long deckId) {
+        log.debug("Cloning deck with id: {}", deckId);
+        Deck source = deckRepository.findById(deckId)
+                .orElseThrow(() -> new ResourceNotFoundException("Deck not found"));
+        User user = userService.getCurrentUser();
+        if (!source.isPublicDeck() && !isOwner(source, user) && !deckRepository.isFavorite(user.getId(), deckId)) {
+            throw new AccessDeniedException("Deck " + deckId + " cannot be cloned");
+        }
+        Deck clone = new Deck();
+        clone.setTitle(source.getTitle());
+        clone.setLanguage(source.getLanguage());
+        clone.setCreatedBy(user);
+        Deck savedClone = deckRepository.save(clone);
+
+        LocalDateTime now = LocalDateTime.now();
+        int cards = flashcardRepository.cloneCards(deckId, savedClone.getId(), user.getId(), now);
+        if (cards > 0) {
+            flashcardRepository.cloneUsageExamples(savedClone.getId());
+            flashcardRepository.cloneSelectedTranslations(savedClone.getId());
+        }
+        deckStatsService.deckCloned(savedClone.getId(), cards);
+        log.debug("Deck {} cloned into {} with {} cards", deckId, savedClone.getId(), cards);
+        return toResponseDto(savedClone);
+    }
+
+    /**
+     * Subscribes the current user to a deck. Its cards are not copied; the user studies the shared cards
+     * with their own progress.
+     */
+    @Transactional
+    @Override
+    public void addFavorite(long deckId) {
+        Deck deck = deckRepository.findById(deckId)
+                .orElseThrow(() -> new ResourceNotFoundException("Deck not found"));
+        User user = userService.getCurrentUser();
+        if (!deck.isPublicDeck() && !isOwner(deck, user)) {
+            throw new AccessDeniedException("Deck " + deckId + " is not public");
+        }
+        if (deckRepository.addFavorite(user.getId(), deckId) > 0) {
+            deckRepository.addFavoriteCount(deckId, 1);
+            cacheInvalidationBus.publish(Deck.CACHE_REGION, deckId);
+        }
+        log.debug("User {} subscribed to deck {}", user.getId(), deckId);
+    }
+
+    /**
+     * Progress and card copies are kept, so subscribing again picks up where the user left off.
+     */
+    @Transactional
+    @Override
+    public void removeFavorite(long deckId) {
+        User user = userService.getCurrentUser();
+        if (deckRepository.removeFavorite(user.getId(), deckId) > 0) {
+            deckRepository.addFavoriteCount(deckId, -1);
+            cacheInvalidationBus.publish(Deck.CACHE_REGION, deckId);
+        }
+        log.debug("User {} unsubscribed from deck {}", user.getId(), deckId);
+    }
+
+    private boolean isOwner(Deck deck, User user) {
+        return deck.getCreatedBy() != null && deck.getCreatedBy().getId() == user.getId();
+    }
+
+    private DeckResponseDto toResponseDto(Deck deck) {
+        return toResponseDtos(List.of(deck)).get(0);
+    }
+
+    /**
+     * Stats come from {@code t_deck_stats} in one lookup by primary key, never from counting flashcards.
+     */
+    private List<DeckResponseDto> toResponseDtos(List<Deck> decks) {
+        Map<Long, DeckStats> stats = deckStatsService.findByDeckIds(
+                decks.stream().map(Deck::getId).collect(Collectors.toList()));
+        return decks.stream()
+                .map(deck -> deckMapper.deckToDeckResponseDto(deck, stats.get(deck.getId())))
+                .collect(Collectors.toList());
     }
 
 }
@@ -1,5 +1,6 @@
 package lingvo.app.flashcards.service;
 
+import lingvo.app.flashcards.dto.CollectionVersionDto;
 import lingvo.app.flashcards.dto.FlashcardCreateDto;
 import lingvo.app.flashcards.dto.FlashcardResponseDto;
 import lingvo.app.flashcards.dto.FlashcardUpdateDto;
@@ -12,16 +13,27 @@ public interface FlashcardService {
     @Transactional
     FlashcardResponseDto createFlashcard(FlashcardCreateDto flashcardCreateDto);
 
-    @Transactional
+    @Transactional(readOnly = true)
     List<FlashcardResponseDto> getAllFlashcards();
 
-    @Transactional
+    @Transactional(readOnly = true)
+    CollectionVersionDto getFlashcardsVersion();
+
+    @Transactional(readOnly = true)
+    List<FlashcardResponseDto> getFlashcardsByDeck(Long deckId);
+
+    @Transactional(readOnly = true)
+    CollectionVersionDto getDeckFlashcardsVersion(Long deckId);
+
+    @Transactional(readOnly = true)
     FlashcardResponseDto getFlashcardById(Long id);
 
-    @Transactional
+    @Transactional(readOnly = true)
     FlashcardResponseDto getFlashcardByWord(String word);
 
-    @Transactional
+    @Transactional(readOnly = true)
+    List<FlashcardResponseDto> getDueFlashcards(int limit);
+
     FlashcardResponseDto updateFlashcard(Long id, FlashcardUpdateDto flashcardUpdateDto);
 
     @Transactional
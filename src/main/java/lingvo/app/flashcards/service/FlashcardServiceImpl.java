@@ -1,104 +1,401 @@
 package lingvo.app.flashcards.service;
 
+import io.micrometer.core.annotation.Timed;
+import lingvo.app.auth.entity.User;
+import lingvo.app.auth.service.UserService;
+import lingvo.app.config.PrimaryReads;
 import lingvo.app.exception.ResourceNotFoundException;
 import lingvo.app.flashcards.FlashcardMapper;
+import lingvo.app.flashcards.cache.FlashcardCache;
+import lingvo.app.flashcards.cache.FlashcardCache.CachedFlashcard;
+import lingvo.app.flashcards.dto.CollectionVersionDto;
 import lingvo.app.flashcards.dto.FlashcardCreateDto;
 import lingvo.app.flashcards.dto.FlashcardResponseDto;
 import lingvo.app.flashcards.dto.FlashcardUpdateDto;
 import lingvo.app.flashcards.dto.FlashcardUpdateProgressDto;
+import lingvo.app.flashcards.dto.VersionSummary;
+import lingvo.app.flashcards.enrichment.FlashcardEnrichmentJobHandler;
+import lingvo.app.flashcards.enrichment.FlashcardEnrichmentPayload;
+import lingvo.app.flashcards.entity.Deck;
+import lingvo.app.flashcards.entity.DeckStats;
 import lingvo.app.flashcards.entity.Flashcard;
+import lingvo.app.flashcards.repository.CardProgressRepository;
+import lingvo.app.flashcards.repository.DeckRepository;
 import lingvo.app.flashcards.repository.FlashcardRepository;
+import lingvo.app.flashcards.sharing.SharedDeckService;
+import lingvo.app.flashcards.stats.DeckStatsService;
+import lingvo.app.jobs.service.OutboxService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("lingvo.service")
 @RequiredArgsConstructor
 @Slf4j
 public class FlashcardServiceImpl implements FlashcardService {
 
+    private static final int MAX_UPDATE_ATTEMPTS = 3;
+    private static final int MAX_DUE_PAGE_SIZE = 100;
+    private static final Comparator<FlashcardResponseDto> DUE_ORDER = Comparator
+            .comparing(FlashcardResponseDto::getNextReviewAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(FlashcardResponseDto::getId);
+
     private final FlashcardRepository flashcardRepository;
+    private final CardProgressRepository cardProgressRepository;
+    private final DeckRepository deckRepository;
     private final FlashcardMapper flashcardMapper;
+    private final OutboxService outboxService;
+    private final DeckStatsService deckStatsService;
+    private final SharedDeckService sharedDeckService;
+    private final UserService userService;
+    private final TransactionTemplate transactionTemplate;
+    private final FlashcardCache flashcardCache;
+    private final PrimaryReads primaryReads;
 
     @Transactional
     @Override
     public FlashcardResponseDto createFlashcard(FlashcardCreateDto flashcardCreateDto) {
-        log.info("Create Flashcard");
+        log.debug("Create Flashcard");
 
         Flashcard flashcard = flashcardMapper.flashcardCreateDtoToFlashcard(flashcardCreateDto);
+        Deck deck = deckRepository.findById(flashcardCreateDto.getDeckId())
+                .orElseThrow(()->new ResourceNotFoundException("Deck not found"));
+        User user = userService.getCurrentUser();
+        if (sharedDeckService.isShared(deck, user)) {
+            throw new AccessDeniedException("Cards can only be added by the deck owner");
+        }
+        flashcard.setDeck(deck);
+        flashcard.setOwnerId(user.getId());
         Flashcard flashcardSaved = flashcardRepository.save(flashcard);
-        log.info("Flashcard created successfully", flashcardSaved);
+        flashcardCache.evictAfterCommit(flashcardSaved.getId(), flashcardSaved.getOwnerId(), flashcardSaved.getWord());
+        touchDecks(deck.getId());
+        deckStatsService.cardCreated(deck.getId());
+        if (needsEnrichment(flashcardSaved)) {
+            outboxService.enqueue(FlashcardEnrichmentJobHandler.TYPE, flashcardSaved.getOwnerId(),
+                    new FlashcardEnrichmentPayload(flashcardSaved.getId(), flashcardSaved.getWord(), deck.getLanguage()));
+        }
+        log.debug("Flashcard {} created successfully", flashcardSaved.getId());
         return flashcardMapper.flashcardToFlashcardResponseDto(flashcardSaved);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
     public List<FlashcardResponseDto> getAllFlashcards() {
-        log.info("Get all flashcards");
-        List<Flashcard> flashcards = flashcardRepository.findAll();
-        return flashcards.stream()
-                .map(flashcardMapper:: flashcardToFlashcardResponseDto)
-                .collect(Collectors.toList());
+        log.debug("Get all flashcards");
+        User user = userService.getCurrentUser();
+        return sharedDeckService.toResponses(flashcardRepository.findByOwnerIdOrderByDeckIdAscIdAsc(user.getId()), user);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
+    @Override
+    public CollectionVersionDto getFlashcardsVersion() {
+        long ownerId = userService.getCurrentUser().getId();
+        VersionSummary summary = flashcardRepository.summarizeOwnerVersions(ownerId);
+        return new CollectionVersionDto("flashcards-" + ownerId + "-" + summary.getCount() + "-" + summary.getVersion(),
+                summary.getLastModified());
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<FlashcardResponseDto> getFlashcardsByDeck(Long deckId) {
+        log.debug("Get flashcards of deck: {}", deckId);
+        Deck deck = deckRepository.findById(deckId)
+                .orElseThrow(()->new ResourceNotFoundException("Deck not found"));
+        User user = userService.getCurrentUser();
+        if (sharedDeckService.isShared(deck, user)) {
+            return sharedDeckService.getCards(deck, user);
+        }
+        return flashcardMapper.flashcardsToFlashcardResponseDto(
+                flashcardRepository.findByOwnerIdAndDeckIdOrderByIdAsc(deck.getOwnerId(), deckId));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public CollectionVersionDto getDeckFlashcardsVersion(Long deckId) {
+        Deck deck = deckRepository.findById(deckId)
+                .orElseThrow(()->new ResourceNotFoundException("Deck not found"));
+        User user = userService.getCurrentUser();
+        boolean shared = sharedDeckService.isShared(deck, user);
+        if (shared) {
+            sharedDeckService.checkAccess(deck, user);
+        }
+        DeckStats stats = deckStatsService.findByDeckId(deckId).orElseGet(() -> new DeckStats(deckId, null));
+        LocalDateTime cardsUpdatedAt = stats.getCardsUpdatedAt();
+        String tag = "deck-" + deck.getId() + "-cards-" + stats.getCardsVersion();
+        if (!shared) {
+            return new CollectionVersionDto(tag, cardsUpdatedAt);
+        }
+        VersionSummary progress = sharedDeckService.summarizeProgress(deck, user);
+        LocalDateTime lastModified = progress.getLastModified() == null || cardsUpdatedAt == null
+                || cardsUpdatedAt.isAfter(progress.getLastModified())
+                ? cardsUpdatedAt : progress.getLastModified();
+        return new CollectionVersionDto(tag + "-user-" + user.getId() + "-" + progress.getCount() + "-" + progress.getVersion(),
+                lastModified);
+    }
+
+    @Transactional(readOnly = true)
     @Override
     public FlashcardResponseDto getFlashcardById(Long id) {
-        log.info("Get flashcard by id: {}", id);
-        Flashcard flashcard = flashcardRepository.findById(id)
-                .orElseThrow(()->new ResourceNotFoundException("Flashcard not found"));
-        return flashcardMapper.flashcardToFlashcardResponseDto(flashcard);
+        log.debug("Get flashcard by id: {}", id);
+        return viewFor(id, userService.getCurrentUser());
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     @Override
     public FlashcardResponseDto getFlashcardByWord(String word) {
-        log.info("Get flashcard by word: {}", word);
-        Flashcard flashcard = flashcardRepository.findByWord(word)
+        log.debug("Get flashcard by word: {}", word);
+        User user = userService.getCurrentUser();
+        Long ownerId = user.getId();
+        Long id = flashcardCache.getIdByWord(ownerId, word, () -> primaryReads.read(() -> flashcardRepository
+                .findFirstByOwnerIdAndWordOrderByIdAsc(ownerId, word)
+                .map(Flashcard::getId)
+                .orElse(null)));
+        if (id == null) {
+            throw new ResourceNotFoundException("Flashcard not found");
+        }
+        return viewFor(id, user);
+    }
+
+    /**
+     * The cached representation is only served to the owner of the card and its deck; everybody else gets
+     * the card with their own progress, or nothing.
+     */
+    private FlashcardResponseDto viewFor(Long id, User user) {
+        CachedFlashcard cached = flashcardCache.get(id, () -> loadForCache(id));
+        if (cached.isOwnerView(user.getId())) {
+            return cached.dto();
+        }
+        Flashcard flashcard = flashcardRepository.findById(id)
                 .orElseThrow(()->new ResourceNotFoundException("Flashcard not found"));
-        return flashcardMapper.flashcardToFlashcardResponseDto(flashcard);
+        if (sharedDeckService.isSharedCard(flashcard, user)) {
+            return sharedDeckService.getCard(flashcard, user);
+        }
+        throw new ResourceNotFoundException("Flashcard not found");
     }
 
-    @Transactional
+    /**
+     * Cached values are read from the primary, see {@link PrimaryReads}.
+     */
+    private CachedFlashcard loadForCache(Long id) {
+        return primaryReads.read(() -> {
+            Flashcard flashcard = flashcardRepository.findById(id)
+                    .orElseThrow(()->new ResourceNotFoundException("Flashcard not found"));
+            return new CachedFlashcard(flashcard.getOwnerId(), flashcard.getDeck().getOwnerId(),
+                    flashcardMapper.flashcardToFlashcardResponseDto(flashcard));
+        });
+    }
+
+    /**
+     * The current user's cards whose next review is due, most overdue first: own cards read from the
+     * (owner_id, next_review_at) index, cards of shared decks from the user's progress rows. Both lists are
+     * already ordered, so the page is taken from their merge.
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public List<FlashcardResponseDto> getDueFlashcards(int limit) {
+        log.debug("Get due flashcards");
+        int pageSize = Math.max(1, Math.min(limit, MAX_DUE_PAGE_SIZE));
+        User user = userService.getCurrentUser();
+        LocalDateTime now = LocalDateTime.now();
+        List<FlashcardResponseDto> due = new ArrayList<>(flashcardMapper.flashcardsToFlashcardResponseDto(
+                flashcardRepository.findDue(user.getId(), now, PageRequest.of(0, pageSize))));
+        due.addAll(sharedDeckService.getDueCards(user, now, pageSize));
+        return due.stream()
+                .sorted(DUE_ORDER)
+                .limit(pageSize)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Applies the edit on top of the latest row. If a concurrent writer bumps the version first, the edit is
+     * re-applied in a fresh transaction, so content edits end up last-writer-wins and never bounce back to
+     * the client. Progress columns are untouched thanks to {@code @DynamicUpdate}.
+     */
     @Override
     public FlashcardResponseDto updateFlashcard(Long id, FlashcardUpdateDto flashcardUpdateDto) {
-        log.info("Update Flashcard");
+        log.debug("Update Flashcard");
         if (flashcardUpdateDto == null) {
             throw new IllegalArgumentException("FlashcardUpdateDto cannot be null");
         }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> applyUpdate(id, flashcardUpdateDto));
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_UPDATE_ATTEMPTS) {
+                    throw e;
+                }
+                log.debug("Flashcard {} changed concurrently, retrying update (attempt {})", id, attempt);
+            }
+        }
+    }
+
+    private FlashcardResponseDto applyUpdate(Long id, FlashcardUpdateDto flashcardUpdateDto) {
         Flashcard flashcard = flashcardRepository.findById(id)
                 .orElseThrow(()->new ResourceNotFoundException("Flashcard not found"));
+        User user = userService.getCurrentUser();
+        if (sharedDeckService.isSharedCard(flashcard, user)) {
+            return applySubscriberUpdate(flashcard, user, flashcardUpdateDto);
+        }
+        requireOwned(flashcard, user);
+        Long previousDeckId = flashcard.getDeck().getId();
+        String previousWord = flashcard.getWord();
         flashcardMapper.updateFlashcardFromDto(flashcardUpdateDto, flashcard);
-        Flashcard flashcardUpdated = flashcardRepository.save(flashcard);
-        log.info("Flashcard updated successfully", flashcardUpdated);
+        if (!previousDeckId.equals(flashcard.getDeck().getId())) {
+            flashcard.setDeck(deckRepository.findByIdAndCreatedById(flashcard.getDeck().getId(), user.getId())
+                    .orElseThrow(()->new ResourceNotFoundException("Deck not found")));
+        }
+        Flashcard flashcardUpdated = flashcardRepository.saveAndFlush(flashcard);
+        flashcardCache.evictAfterCommit(id, flashcardUpdated.getOwnerId(), previousWord, flashcardUpdated.getWord());
+        touchDecks(previousDeckId, flashcardUpdated.getDeck().getId());
+        if (!previousDeckId.equals(flashcardUpdated.getDeck().getId())) {
+            deckStatsService.cardMoved(previousDeckId, flashcardUpdated.getDeck().getId());
+        }
+        log.debug("Flashcard {} updated successfully", flashcardUpdated.getId());
         return flashcardMapper.flashcardToFlashcardResponseDto(flashcardUpdated);
     }
 
+    /**
+     * Edits by a subscriber go to their private copy of the card, created on the first edit; the shared card
+     * and every other subscriber stay untouched.
+     */
+    private FlashcardResponseDto applySubscriberUpdate(Flashcard flashcard, User user, FlashcardUpdateDto flashcardUpdateDto) {
+        Flashcard copy = sharedDeckService.copyForWrite(flashcard, user);
+        Long deckId = copy.getDeck().getId();
+        String previousWord = copy.getWord();
+        flashcardMapper.updateFlashcardFromDto(flashcardUpdateDto, copy);
+        if (!deckId.equals(copy.getDeck().getId())) {
+            throw new IllegalArgumentException("Cards of a shared deck cannot be moved to another deck");
+        }
+        Flashcard copyUpdated = flashcardRepository.saveAndFlush(copy);
+        flashcardCache.evictAfterCommit(copyUpdated.getId(), copyUpdated.getOwnerId(), previousWord, copyUpdated.getWord());
+        touchDecks(deckId);
+        log.debug("Flashcard copy {} of user {} updated successfully", copyUpdated.getId(), user.getId());
+        return flashcardMapper.flashcardToFlashcardResponseDto(copyUpdated);
+    }
+
     @Transactional
     @Override
     public void deleteFlashcard(Long id) {
-        log.info("Delete Flashcard");
-        if(!flashcardRepository.existsById(id)) {
-            throw new ResourceNotFoundException("Flashcard not found");
+        log.debug("Delete Flashcard");
+        Flashcard flashcard = flashcardRepository.findById(id)
+                .orElseThrow(()->new ResourceNotFoundException("Flashcard not found"));
+        User user = userService.getCurrentUser();
+        if (sharedDeckService.isSharedCard(flashcard, user)) {
+            throw new AccessDeniedException("Cards of a shared deck can only be deleted by the deck owner");
         }
-        flashcardRepository.deleteById(id);
-        log.info("Flashcard deleted successfully");
+        requireOwned(flashcard, user);
+        flashcard.setDeleted(true);
+        flashcardRepository.save(flashcard);
+        flashcardCache.evictAfterCommit(id, flashcard.getOwnerId(), flashcard.getWord());
+        touchDecks(flashcard.getDeck().getId());
+        deckStatsService.cardRemoved(flashcard.getDeck().getId());
+        log.debug("Flashcard deleted successfully");
     }
 
+    /**
+     * Merges the submitted reviews into the stored progress with one UPDATE instead of read-modify-write:
+     * review counts add up and the most recent review decides {@code lastReviewAt} and the difficulty.
+     * Concurrent submissions from several devices therefore commute and none of them is lost. A retried
+     * submission carries the same {@code submissionId} and only returns the current progress, so the PUT
+     * stays idempotent. Progress on decks the user only subscribed to is kept per user instead of on the
+     * shared card.
+     */
     @Transactional
     @Override
     public FlashcardResponseDto updateFlashcardProgress(Long id, FlashcardUpdateProgressDto flashcardUpdateProgressDto) {
-        log.info("Update Flashcard progress");
+        log.debug("Update Flashcard progress");
+        validateProgress(flashcardUpdateProgressDto);
         Flashcard flashcard = flashcardRepository.findById(id)
                 .orElseThrow(()->new ResourceNotFoundException("Flashcard not found"));
-        flashcardMapper.updateFlashcardProgress(flashcardUpdateProgressDto, flashcard);
-        Flashcard flashcardUpdated = flashcardRepository.save(flashcard);
-        log.info("Flashcard progress updated successfully", flashcardUpdated);
+        User user = userService.getCurrentUser();
+        boolean shared = sharedDeckService.isSharedCard(flashcard, user);
+        if (!shared) {
+            requireOwned(flashcard, user);
+        }
+        if (cardProgressRepository.recordSubmission(user.getId(), flashcardUpdateProgressDto.getSubmissionId(), id,
+                LocalDateTime.now()) == 0) {
+            log.debug("Progress submission {} for flashcard {} was already applied",
+                    flashcardUpdateProgressDto.getSubmissionId(), id);
+            return shared ? sharedDeckService.getCard(flashcard, user)
+                    : flashcardMapper.flashcardToFlashcardResponseDto(flashcard);
+        }
+        if (shared) {
+            return sharedDeckService.recordProgress(flashcard, user, flashcardUpdateProgressDto);
+        }
+        int updated = flashcardRepository.mergeProgress(id,
+                flashcardUpdateProgressDto.getReviewCount(),
+                flashcardUpdateProgressDto.getLastReviewAt(),
+                flashcardUpdateProgressDto.getDifficultFactor(),
+                flashcardUpdateProgressDto.getNextReviewAt(),
+                LocalDateTime.now());
+        if (updated == 0) {
+            throw new ResourceNotFoundException("Flashcard not found");
+        }
+        Flashcard flashcardUpdated = flashcardRepository.findById(id)
+                .orElseThrow(()->new ResourceNotFoundException("Flashcard not found"));
+        flashcardCache.evictAfterCommit(id, flashcardUpdated.getOwnerId());
+        deckStatsService.cardReviewed(flashcardUpdated.getDeck().getId(), flashcardUpdateProgressDto.getLastReviewAt());
+        log.debug("Flashcard {} progress updated successfully", flashcardUpdated.getId());
         return flashcardMapper.flashcardToFlashcardResponseDto(flashcardUpdated);
     }
 
+    private void validateProgress(FlashcardUpdateProgressDto progress) {
+        if (progress == null) {
+            throw new IllegalArgumentException("FlashcardUpdateProgressDto cannot be null");
+        }
+        if (progress.getSubmissionId() == null) {
+            throw new IllegalArgumentException("submissionId cannot be null");
+        }
+        if (progress.getLastReviewAt() == null) {
+            throw new IllegalArgumentException("lastReviewAt cannot be null");
+        }
+        if (progress.getReviewCount() < 0) {
+            throw new IllegalArgumentException("reviewCount cannot be negative");
+        }
+        if (progress.getNextReviewAt() != null && progress.getNextReviewAt().isBefore(progress.getLastReviewAt())) {
+            throw new IllegalArgumentException("nextReviewAt cannot be before lastReviewAt");
+        }
+        if (progress.getDifficultFactor() < 0 || progress.getDifficultFactor() > 10) {
+            throw new IllegalArgumentException("difficultFactor must be between 0 and 10");
+        }
+    }
+
+    /**
+     * Outside shared decks a user only ever sees their own cards; anything else looks like it doesn't exist.
+     * Cards without a recorded owner belong to nobody.
+     */
+    private void requireOwned(Flashcard flashcard, User user) {
+        if (!Objects.equals(flashcard.getOwnerId(), user.getId())) {
+            throw new ResourceNotFoundException("Flashcard not found");
+        }
+    }
+
+    private void touchDecks(Long... deckIds) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Long deckId : new HashSet<>(Arrays.asList(deckIds))) {
+            deckStatsService.cardsChanged(deckId, now);
+        }
+    }
+
+    private boolean needsEnrichment(Flashcard flashcard) {
+        return flashcard.getTranslationPerApi() == null
+                || flashcard.getUsageExample() == null
+                || flashcard.getUsageExample().isEmpty();
+    }
+
 }
@@ -0,0 +1,77 @@
+package lingvo.app.flashcards.service;
+
+import jakarta.annotation.PreDestroy;
+import lingvo.app.flashcards.repository.CardProgressRepository;
+import lingvo.app.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Forgets progress submission ids once no client can still be retrying them, in small batches on every shard.
+ */
+@Component
+@Slf4j
+public class ProgressSubmissionCleanupWorker {
+
+    private final CardProgressRepository cardProgressRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transactionTemplate;
+    private final long retentionHours;
+    private final int batchSize;
+    private final long intervalMillis;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    public ProgressSubmissionCleanupWorker(CardProgressRepository cardProgressRepository,
+                                           ShardRouter shardRouter,
+                                           TransactionTemplate transactionTemplate,
+                                           @Value("${app.progress.submission-retention-hours:168}") long retentionHours,
+                                           @Value("${app.progress.submission-cleanup-batch-size:1000}") int batchSize,
+                                           @Value("${app.progress.submission-cleanup-interval-ms:600000}") long intervalMillis) {
+        this.cardProgressRepository = cardProgressRepository;
+        this.shardRouter = shardRouter;
+        this.transactionTemplate = transactionTemplate;
+        this.retentionHours = retentionHours;
+        this.batchSize = batchSize;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::cleanup, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void cleanup() {
+        shardRouter.forEachShard(this::cleanup);
+    }
+
+    private void cleanup(int shard) {
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+            int total = 0;
+            Integer deleted;
+            do {
+                deleted = transactionTemplate.execute(status -> cardProgressRepository.purgeSubmissionsBefore(cutoff, batchSize));
+                total += deleted == null ? 0 : deleted;
+            } while (deleted != null && deleted == batchSize);
+            if (total > 0) {
+                log.debug("Removed {} progress submission ids on shard {}", total, shard);
+            }
+        } catch (Exception e) {
+            log.error("Progress submission cleanup of shard {} failed", shard, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+}
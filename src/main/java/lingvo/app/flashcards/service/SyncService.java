@@ -0,0 +1,9 @@
+package lingvo.app.flashcards.service;
+
+import lingvo.app.flashcards.dto.SyncResponseDto;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface SyncService {
+    @Transactional
+    SyncResponseDto getChangesSince(String cursor, int limit);
+}
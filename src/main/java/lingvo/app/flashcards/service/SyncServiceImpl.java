@@ -0,0 +1,115 @@
+package lingvo.app.flashcards.service;
+
+import io.micrometer.core.annotation.Timed;
+import lingvo.app.auth.service.UserService;
+import lingvo.app.flashcards.DeckMapper;
+import lingvo.app.flashcards.FlashcardMapper;
+import lingvo.app.flashcards.dto.ChangeRow;
+import lingvo.app.flashcards.dto.SyncResponseDto;
+import lingvo.app.flashcards.repository.DeckRepository;
+import lingvo.app.flashcards.repository.FlashcardRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@Timed("lingvo.service")
+@RequiredArgsConstructor
+@Slf4j
+public class SyncServiceImpl implements SyncService {
+
+    static final int MAX_PAGE_SIZE = 1000;
+
+    private static final Comparator<ChangeRow> CHANGE_ORDER = Comparator
+            .comparing(ChangeRow::getChangeTxid)
+            .thenComparing(ChangeRow::getChangeSeq);
+
+    private final DeckRepository deckRepository;
+    private final FlashcardRepository flashcardRepository;
+    private final DeckMapper deckMapper;
+    private final FlashcardMapper flashcardMapper;
+    private final UserService userService;
+
+    /**
+     * Returns the next page of the current user's deck and flashcard changes after {@code cursor}, oldest
+     * first. Each table is read with one range scan over its (owner, change_txid, change_seq) index, so the
+     * cost depends on the page size and not on how many cards exist.
+     */
+    @Transactional
+    @Override
+    public SyncResponseDto getChangesSince(String cursor, int limit) {
+        log.debug("Sync changes since cursor: {}", cursor);
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        long[] position = parseCursor(cursor);
+        long ownerId = userService.getCurrentUser().getId();
+
+        List<ChangeRow> deckChanges = deckRepository.findChangesAfter(ownerId, position[0], position[1], pageSize + 1);
+        List<ChangeRow> flashcardChanges =
+                flashcardRepository.findChangesAfter(ownerId, position[0], position[1], pageSize + 1);
+
+        List<Change> merged = new ArrayList<>(deckChanges.size() + flashcardChanges.size());
+        deckChanges.forEach(row -> merged.add(new Change(row, true)));
+        flashcardChanges.forEach(row -> merged.add(new Change(row, false)));
+        merged.sort(Comparator.comparing(Change::row, CHANGE_ORDER));
+        List<Change> page = merged.subList(0, Math.min(pageSize, merged.size()));
+
+        List<ChangeRow> pageDecks = page.stream().filter(Change::deck).map(Change::row).toList();
+        List<ChangeRow> pageFlashcards = page.stream().filter(change -> !change.deck()).map(Change::row).toList();
+
+        SyncResponseDto response = new SyncResponseDto();
+        response.setHasMore(merged.size() > pageSize);
+        if (page.isEmpty()) {
+            response.setCursor(formatCursor(position[0], position[1]));
+        } else {
+            ChangeRow last = page.get(page.size() - 1).row();
+            response.setCursor(formatCursor(last.getChangeTxid(), last.getChangeSeq()));
+        }
+        response.setDecks(deckRepository.findAllById(liveIds(pageDecks)).stream()
+                .map(deckMapper::deckToDeckResponseDto)
+                .collect(Collectors.toList()));
+        response.setFlashcards(flashcardMapper.flashcardsToFlashcardResponseDto(
+                flashcardRepository.findAllById(liveIds(pageFlashcards))));
+        response.setDeletedDeckIds(deletedIds(pageDecks));
+        response.setDeletedFlashcardIds(deletedIds(pageFlashcards));
+        return response;
+    }
+
+    private List<Long> liveIds(List<ChangeRow> changes) {
+        return changes.stream().filter(change -> !change.getDeleted()).map(ChangeRow::getId).toList();
+    }
+
+    private List<Long> deletedIds(List<ChangeRow> changes) {
+        return changes.stream().filter(ChangeRow::getDeleted).map(ChangeRow::getId).toList();
+    }
+
+    static long[] parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank() || cursor.equals("0")) {
+            return new long[]{0, 0};
+        }
+        String[] parts = cursor.split("-");
+        try {
+            if (parts.length != 2) {
+                throw new NumberFormatException(cursor);
+            }
+            return new long[]{Long.parseLong(parts[0]), Long.parseLong(parts[1])};
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid sync cursor: " + cursor);
+        }
+    }
+
+    static String formatCursor(long txid, long seq) {
+        return txid + "-" + seq;
+    }
+
+    private record Change(ChangeRow row, boolean deck) {
+    }
+}
@@ -0,0 +1,202 @@
+package lingvo.app.flashcards.sharing;
+
+import io.micrometer.core.annotation.Timed;
+import lingvo.app.auth.entity.User;
+import lingvo.app.flashcards.FlashcardMapper;
+import lingvo.app.flashcards.dto.FlashcardResponseDto;
+import lingvo.app.flashcards.dto.FlashcardUpdateProgressDto;
+import lingvo.app.flashcards.dto.VersionSummary;
+import lingvo.app.flashcards.entity.CardProgress;
+import lingvo.app.flashcards.entity.Deck;
+import lingvo.app.flashcards.entity.Flashcard;
+import lingvo.app.flashcards.repository.CardProgressRepository;
+import lingvo.app.flashcards.repository.DeckRepository;
+import lingvo.app.flashcards.repository.FlashcardRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Serves decks to users who study them without owning them. Card content is shared; each subscriber's
+ * progress lives in {@link CardProgress}, and a card is copied for a subscriber only when they edit it.
+ * Decks without a recorded creator are treated as owned by everybody, as before sharing existed.
+ */
+@Service
+@Timed("lingvo.service")
+@RequiredArgsConstructor
+@Slf4j
+public class SharedDeckService {
+
+    private final FlashcardRepository flashcardRepository;
+    private final CardProgressRepository cardProgressRepository;
+    private final DeckRepository deckRepository;
+    private final FlashcardMapper flashcardMapper;
+
+    public boolean isShared(Deck deck, User user) {
+        return deck.getOwnerId() != null && deck.getOwnerId() != user.getId();
+    }
+
+    /**
+     * Whether the user works on per-user progress for this card: cards of decks they don't own, including
+     * their own copies of such cards.
+     */
+    public boolean isSharedCard(Flashcard flashcard, User user) {
+        return isShared(flashcard.getDeck(), user);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void checkAccess(Deck deck, User user) {
+        if (!deck.isPublicDeck() && !deckRepository.isFavorite(user.getId(), deck.getId())) {
+            throw new AccessDeniedException("Deck " + deck.getId() + " is not shared with the current user");
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<FlashcardResponseDto> getCards(Deck deck, User user) {
+        checkAccess(deck, user);
+        List<Flashcard> cards = flashcardRepository.findDeckViewForUser(deck.getId(), deck.getOwnerId(), user.getId());
+        Map<Long, CardProgress> progress = progressByCard(user, cards.stream().map(Flashcard::getId).toList());
+        return cards.stream()
+                .map(card -> withProgress(flashcardMapper.flashcardToFlashcardResponseDto(card), progress.get(card.getId())))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public FlashcardResponseDto getCard(Flashcard flashcard, User user) {
+        Flashcard target = resolveForUser(flashcard, user);
+        CardProgress progress = cardProgressRepository.findById(new CardProgress.Key(user.getId(), target.getId()))
+                .orElse(null);
+        return withProgress(flashcardMapper.flashcardToFlashcardResponseDto(target), progress);
+    }
+
+    /**
+     * Maps the user's own cards; copies of shared cards carry the user's progress instead of the empty
+     * progress columns of the copy.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<FlashcardResponseDto> toResponses(List<Flashcard> cards, User user) {
+        List<Long> sharedIds = cards.stream()
+                .filter(card -> isSharedCard(card, user))
+                .map(Flashcard::getId)
+                .toList();
+        Map<Long, CardProgress> progress = sharedIds.isEmpty() ? Map.of() : progressByCard(user, sharedIds);
+        return cards.stream()
+                .map(card -> {
+                    FlashcardResponseDto dto = flashcardMapper.flashcardToFlashcardResponseDto(card);
+                    return isSharedCard(card, user) ? withProgress(dto, progress.get(card.getId())) : dto;
+                })
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Due cards of decks the user studies without owning them: reviewed cards whose own schedule is due,
+     * then cards of subscribed decks never reviewed, at most {@code limit} in total.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<FlashcardResponseDto> getDueCards(User user, LocalDateTime now, int limit) {
+        List<CardProgress> due = cardProgressRepository.findDueInSharedDecks(user.getId(), now, limit);
+        Map<Long, Flashcard> cards = flashcardRepository.findAllById(due.stream().map(CardProgress::getCardId).toList())
+                .stream()
+                .collect(Collectors.toMap(Flashcard::getId, Function.identity()));
+        List<FlashcardResponseDto> result = new ArrayList<>();
+        for (CardProgress progress : due) {
+            Flashcard card = cards.get(progress.getCardId());
+            if (card != null) {
+                result.add(withProgress(flashcardMapper.flashcardToFlashcardResponseDto(card), progress));
+            }
+        }
+        if (result.size() < limit) {
+            for (Flashcard card : flashcardRepository.findUnreviewedInSubscribedDecks(user.getId(), limit - result.size())) {
+                result.add(withProgress(flashcardMapper.flashcardToFlashcardResponseDto(card), null));
+            }
+        }
+        return result;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public VersionSummary summarizeProgress(Deck deck, User user) {
+        return cardProgressRepository.summarizeDeckProgress(user.getId(), deck.getId());
+    }
+
+    /**
+     * Merges a review into the user's progress row; reviews sent for a shared card the user already copied
+     * are booked on the copy.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public FlashcardResponseDto recordProgress(Flashcard flashcard, User user, FlashcardUpdateProgressDto progress) {
+        Flashcard target = resolveForUser(flashcard, user);
+        cardProgressRepository.mergeProgress(user.getId(), target.getId(), target.getDeck().getId(),
+                progress.getReviewCount(), progress.getLastReviewAt(), progress.getDifficultFactor(),
+                progress.getNextReviewAt(), LocalDateTime.now());
+        Flashcard reloaded = flashcardRepository.findById(target.getId()).orElseThrow();
+        CardProgress merged = cardProgressRepository.findById(new CardProgress.Key(user.getId(), target.getId()))
+                .orElse(null);
+        return withProgress(flashcardMapper.flashcardToFlashcardResponseDto(reloaded), merged);
+    }
+
+    /**
+     * Returns the card the user may edit: their existing copy, or a new copy carrying their progress over.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Flashcard copyForWrite(Flashcard flashcard, User user) {
+        Flashcard existing = resolveForUser(flashcard, user);
+        if (Objects.equals(existing.getOwnerId(), user.getId())) {
+            return existing;
+        }
+        Flashcard copy = new Flashcard();
+        copy.setWord(flashcard.getWord());
+        copy.setTranslationPerApi(flashcard.getTranslationPerApi());
+        copy.setSelectedTranslations(copyOf(flashcard.getSelectedTranslations()));
+        copy.setUsageExample(copyOf(flashcard.getUsageExample()));
+        copy.setDeck(flashcard.getDeck());
+        copy.setEnrichedAt(flashcard.getEnrichedAt());
+        copy.setOwnerId(user.getId());
+        copy.setSourceCardId(flashcard.getId());
+        Flashcard saved = flashcardRepository.saveAndFlush(copy);
+        cardProgressRepository.moveToCopy(user.getId(), flashcard.getId(), saved.getId(), LocalDateTime.now());
+        log.debug("Copied shared card {} for user {} as {}", flashcard.getId(), user.getId(), saved.getId());
+        return flashcardRepository.findById(saved.getId()).orElseThrow();
+    }
+
+    private Flashcard resolveForUser(Flashcard flashcard, User user) {
+        if (Objects.equals(flashcard.getOwnerId(), user.getId())) {
+            return flashcard;
+        }
+        if (!Objects.equals(flashcard.getOwnerId(), flashcard.getDeck().getOwnerId())) {
+            throw new AccessDeniedException("Flashcard " + flashcard.getId() + " belongs to another user");
+        }
+        checkAccess(flashcard.getDeck(), user);
+        return flashcardRepository.findBySourceCardIdAndOwnerIdAndDeckId(flashcard.getId(), user.getId(),
+                flashcard.getDeck().getId()).orElse(flashcard);
+    }
+
+    private Map<Long, CardProgress> progressByCard(User user, List<Long> cardIds) {
+        return cardProgressRepository.findByUserIdAndCardIdIn(user.getId(), cardIds).stream()
+                .collect(Collectors.toMap(CardProgress::getCardId, Function.identity()));
+    }
+
+    private FlashcardResponseDto withProgress(FlashcardResponseDto dto, CardProgress progress) {
+        dto.setLastReviewAt(progress == null ? null : progress.getLastReviewAt());
+        dto.setNextReviewAt(progress == null ? null : progress.getNextReviewAt());
+        dto.setReviewCount(progress == null ? 0 : progress.getReviewCount());
+        dto.setDifficultFactor(progress == null ? 0 : progress.getDifficultFactor());
+        return dto;
+    }
+
+    private static <T> Set<T> copyOf(Set<T> values) {
+        return values == null ? null : new HashSet<>(values);
+    }
+}
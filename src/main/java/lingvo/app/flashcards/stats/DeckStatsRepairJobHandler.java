@@ -0,0 +1,44 @@
+package lingvo.app.flashcards.stats;
+
+import lingvo.app.jobs.entity.OutboxJob;
+import lingvo.app.jobs.service.JobHandler;
+import lingvo.app.jobs.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Recomputes one chunk of deck ids per job. Batches are limited to a single job so chunks spread over
+ * all workers instead of queueing behind each other.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DeckStatsRepairJobHandler implements JobHandler {
+
+    public static final String TYPE = "DECK_STATS_REPAIR";
+
+    private final DeckStatsService deckStatsService;
+    private final OutboxService outboxService;
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return 1;
+    }
+
+    @Override
+    public void handle(List<OutboxJob> jobs) {
+        for (OutboxJob job : jobs) {
+            DeckStatsRepairPayload payload = outboxService.readPayload(job, DeckStatsRepairPayload.class);
+            int repaired = deckStatsService.repairRange(payload.fromDeckId(), payload.toDeckId());
+            log.debug("Repaired stats of {} decks in {}..{}", repaired, payload.fromDeckId(), payload.toDeckId());
+        }
+    }
+}
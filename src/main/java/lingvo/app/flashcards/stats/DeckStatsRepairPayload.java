@@ -0,0 +1,4 @@
+package lingvo.app.flashcards.stats;
+
+public record DeckStatsRepairPayload(long fromDeckId, long toDeckId) {
+}
@@ -0,0 +1,74 @@
+package lingvo.app.flashcards.stats;
+
+import jakarta.annotation.PreDestroy;
+import lingvo.app.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Debounces the difficulty and due-count part of {@link lingvo.app.flashcards.entity.DeckStats}: card writes
+ * only mark the row stale, and every interval the stale rows are recomputed in batches. A deck reviewed a
+ * hundred times between two runs is therefore scanned once. Every shard is rolled up in turn, except while
+ * one of its buckets is being moved.
+ */
+@Component
+@Slf4j
+public class DeckStatsRollupWorker {
+
+    private final DeckStatsService deckStatsService;
+    private final ShardRouter shardRouter;
+    private final int batchSize;
+    private final long intervalMillis;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    public DeckStatsRollupWorker(DeckStatsService deckStatsService,
+                                 ShardRouter shardRouter,
+                                 @Value("${app.deck-stats.rollup-batch-size:200}") int batchSize,
+                                 @Value("${app.deck-stats.rollup-interval-ms:5000}") long intervalMillis) {
+        this.deckStatsService = deckStatsService;
+        this.shardRouter = shardRouter;
+        this.batchSize = batchSize;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::rollup, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void rollup() {
+        shardRouter.forEachShard(this::rollup);
+    }
+
+    private void rollup(int shard) {
+        if (shardRouter.hasFrozenBuckets(shard)) {
+            log.debug("Shard {} has frozen buckets, skipping rollup", shard);
+            return;
+        }
+        try {
+            int total = 0;
+            int recomputed;
+            do {
+                recomputed = deckStatsService.rollupStale(batchSize);
+                total += recomputed;
+            } while (recomputed == batchSize);
+            if (total > 0) {
+                log.debug("Rolled up stats of {} decks on shard {}", total, shard);
+            }
+        } catch (Exception e) {
+            log.error("Deck stats rollup of shard {} failed", shard, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,173 @@
+package lingvo.app.flashcards.stats;
+
+import io.micrometer.core.annotation.Timed;
+import lingvo.app.cache.invalidation.CacheInvalidationBus;
+import lingvo.app.flashcards.entity.Deck;
+import lingvo.app.flashcards.entity.DeckStats;
+import lingvo.app.flashcards.repository.DeckRepository;
+import lingvo.app.flashcards.repository.DeckStatsRepository;
+import lingvo.app.jobs.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@link DeckStats} in step with card writes. The write-path methods join the caller's transaction,
+ * so the aggregate commits together with the card change; everything that would need a scan of the deck's
+ * cards is left to {@link #rollupStale(int)}.
+ */
+@Service
+@Timed("lingvo.service")
+@RequiredArgsConstructor
+@Slf4j
+public class DeckStatsService {
+
+    private final DeckStatsRepository deckStatsRepository;
+    private final DeckRepository deckRepository;
+    private final OutboxService outboxService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deckCreated(Long deckId) {
+        deckStatsRepository.save(new DeckStats(deckId, LocalDateTime.now()));
+    }
+
+    /**
+     * Cloned cards start without progress, so all of them are due and the row is exact without a rollup.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deckCloned(Long deckId, long cardCount) {
+        LocalDateTime now = LocalDateTime.now();
+        DeckStats stats = new DeckStats(deckId, now);
+        stats.setCardCount(cardCount);
+        stats.setDueCount(cardCount);
+        if (cardCount > 0) {
+            stats.setCardsVersion(1);
+            stats.setCardsUpdatedAt(now);
+        }
+        deckStatsRepository.save(stats);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void deckDeleted(Long deckId) {
+        deckStatsRepository.retire(deckId, LocalDateTime.now());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cardCreated(Long deckId) {
+        deckStatsRepository.cardCreated(deckId, LocalDateTime.now());
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cardMoved(Long fromDeckId, Long toDeckId) {
+        LocalDateTime now = LocalDateTime.now();
+        deckStatsRepository.cardRemoved(fromDeckId, now);
+        deckStatsRepository.cardMovedIn(toDeckId, now);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cardRemoved(Long deckId) {
+        deckStatsRepository.cardRemoved(deckId, LocalDateTime.now());
+    }
+
+    /**
+     * Counts the review for the rollup and marks the deck's card list as changed in the same statement.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cardReviewed(Long deckId, LocalDateTime reviewedAt) {
+        deckStatsRepository.cardReviewed(deckId, reviewedAt, LocalDateTime.now());
+    }
+
+    /**
+     * Marks the deck's card list as changed for conditional GETs; called for every card write except
+     * reviews, which {@link #cardReviewed} covers.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cardsChanged(Long deckId, LocalDateTime now) {
+        deckStatsRepository.touchCards(deckId, now);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<DeckStats> findByDeckId(Long deckId) {
+        return deckStatsRepository.findById(deckId);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Long, DeckStats> findByDeckIds(Collection<Long> deckIds) {
+        return deckStatsRepository.findAllById(deckIds).stream()
+                .collect(Collectors.toMap(DeckStats::getDeckId, Function.identity()));
+    }
+
+    @Transactional(readOnly = true)
+    public long cardCount(Long deckId) {
+        return deckStatsRepository.findById(deckId).map(DeckStats::getCardCount).orElse(0L);
+    }
+
+    /**
+     * Recomputes up to {@code limit} decks that had card changes or whose next card became due since the
+     * last rollup.
+     *
+     * @return number of decks recomputed; less than {@code limit} once nothing stale is left
+     */
+    @Transactional
+    public int rollupStale(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> deckIds = deckStatsRepository.lockStale(now, limit);
+        if (deckIds.isEmpty()) {
+            return 0;
+        }
+        deckStatsRepository.recompute(deckIds, now);
+        return deckIds.size();
+    }
+
+    /**
+     * Recomputes every live deck with an id in the range, creating missing stats rows, and recounts the
+     * decks' favorites.
+     */
+    @Transactional
+    public int repairRange(long fromId, long toId) {
+        List<Long> deckIds = deckRepository.findIdsBetween(fromId, toId);
+        if (deckIds.isEmpty()) {
+            return 0;
+        }
+        deckRepository.recountFavorites(deckIds);
+        deckIds.forEach(deckId -> cacheInvalidationBus.publish(Deck.CACHE_REGION, deckId));
+        return deckStatsRepository.recompute(deckIds, LocalDateTime.now());
+    }
+
+    /**
+     * Splits the deck id space into chunks and queues one repair job per chunk, so the outbox workers of all
+     * nodes recompute them in parallel.
+     *
+     * @return number of queued chunks
+     */
+    @Transactional
+    public int scheduleRepair(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        Long minId = deckRepository.findMinId();
+        Long maxId = deckRepository.findMaxId();
+        if (minId == null) {
+            return 0;
+        }
+        int chunks = 0;
+        for (long from = minId; from <= maxId; from += chunkSize) {
+            outboxService.enqueue(DeckStatsRepairJobHandler.TYPE,
+                    new DeckStatsRepairPayload(from, Math.min(from + chunkSize - 1, maxId)));
+            chunks++;
+        }
+        log.info("Queued deck stats repair for decks {}..{} in {} chunks", minId, maxId, chunks);
+        return chunks;
+    }
+}
@@ -0,0 +1,27 @@
+package lingvo.app.jobs.controller;
+
+import lingvo.app.jobs.dto.JobTypeStatsDto;
+import lingvo.app.jobs.service.JobMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/jobs")
+@RequiredArgsConstructor
+@Slf4j
+public class JobController {
+
+    private final JobMetrics jobMetrics;
+
+    @GetMapping("/stats")
+    public ResponseEntity<List<JobTypeStatsDto>> getJobStats() {
+        log.info("REST request to get background job stats");
+        return ResponseEntity.ok(jobMetrics.snapshot());
+    }
+}
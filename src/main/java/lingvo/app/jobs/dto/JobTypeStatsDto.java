@@ -0,0 +1,16 @@
+package lingvo.app.jobs.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobTypeStatsDto {
+    private String type;
+    private long succeeded;
+    private long failed;
+    private double succeededPerSecond;
+    private double averageBatchMillis;
+}
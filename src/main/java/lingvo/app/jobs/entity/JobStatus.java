@@ -0,0 +1,5 @@
+package lingvo.app.jobs.entity;
+
+public enum JobStatus {
+    PENDING, RUNNING, FAILED
+}
@@ -0,0 +1,48 @@
+package lingvo.app.jobs.repository;
+
+import lingvo.app.jobs.entity.OutboxJob;
+import lingvo.app.jobs.entity.JobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxJobRepository extends JpaRepository<OutboxJob, Long> {
+
+    /**
+     * Locks up to {@code limit} runnable jobs: pending ones that are due, and running ones whose
+     * lease expired because their node died. Rows locked by other nodes are skipped, not waited on.
+     */
+    @Query(value = "SELECT * FROM t_outbox_job " +
+            "WHERE (status = 'PENDING' AND available_at <= :now) " +
+            "   OR (status = 'RUNNING' AND locked_until < :now) " +
+            "ORDER BY id " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxJob> lockRunnable(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Deletes a finished job, but only while it is still the claim this node made: a job whose lease
+     * expired and that another node claimed again carries that node's id and a higher attempt count.
+     */
+    @Modifying
+    @Query("delete from OutboxJob j where j.id = :id and j.lockedBy = :nodeId and j.attempts = :attempts")
+    int deleteClaimed(@Param("id") Long id, @Param("nodeId") String nodeId, @Param("attempts") int attempts);
+
+    /**
+     * Releases a failed job with the given outcome, fenced on the claim like {@link #deleteClaimed}.
+     */
+    @Modifying
+    @Query("update OutboxJob j set j.status = :status, j.availableAt = :availableAt, j.lastError = :error, " +
+            "j.lockedBy = null, j.lockedUntil = null " +
+            "where j.id = :id and j.lockedBy = :nodeId and j.attempts = :attempts")
+    int releaseClaimed(@Param("id") Long id,
+                       @Param("nodeId") String nodeId,
+                       @Param("attempts") int attempts,
+                       @Param("status") JobStatus status,
+                       @Param("availableAt") LocalDateTime availableAt,
+                       @Param("error") String error);
+}
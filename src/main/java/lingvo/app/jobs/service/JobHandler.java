@@ -0,0 +1,23 @@
+package lingvo.app.jobs.service;
+
+import lingvo.app.jobs.entity.OutboxJob;
+
+import java.util.List;
+
+/**
+ * Executes claimed outbox jobs of one {@link #type()}. Jobs are handed over in batches so a handler can
+ * group them (e.g. per language); throwing fails the whole batch and every job in it is retried.
+ */
+public interface JobHandler {
+
+    String type();
+
+    /**
+     * Upper bound for the jobs handed over in one call, on top of {@code app.jobs.batch-size}.
+     */
+    default int maxBatchSize() {
+        return Integer.MAX_VALUE;
+    }
+
+    void handle(List<OutboxJob> jobs) throws Exception;
+}
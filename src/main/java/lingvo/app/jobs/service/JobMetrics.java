@@ -0,0 +1,57 @@
+package lingvo.app.jobs.service;
+
+import lingvo.app.jobs.dto.JobTypeStatsDto;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class JobMetrics {
+
+    private final long startedAt = System.currentTimeMillis();
+    private final Map<String, TypeCounters> counters = new ConcurrentHashMap<>();
+
+    public void recordSuccess(String type, int jobs, long elapsedMillis) {
+        TypeCounters typeCounters = countersFor(type);
+        typeCounters.succeeded.add(jobs);
+        typeCounters.batches.increment();
+        typeCounters.elapsedMillis.add(elapsedMillis);
+    }
+
+    public void recordFailure(String type, int jobs, long elapsedMillis) {
+        TypeCounters typeCounters = countersFor(type);
+        typeCounters.failed.add(jobs);
+        typeCounters.batches.increment();
+        typeCounters.elapsedMillis.add(elapsedMillis);
+    }
+
+    public List<JobTypeStatsDto> snapshot() {
+        double uptimeSeconds = Math.max(1, System.currentTimeMillis() - startedAt) / 1000.0;
+        return counters.entrySet().stream()
+                .map(entry -> {
+                    TypeCounters c = entry.getValue();
+                    long batches = c.batches.sum();
+                    return new JobTypeStatsDto(
+                            entry.getKey(),
+                            c.succeeded.sum(),
+                            c.failed.sum(),
+                            c.succeeded.sum() / uptimeSeconds,
+                            batches == 0 ? 0 : (double) c.elapsedMillis.sum() / batches);
+                })
+                .toList();
+    }
+
+    private TypeCounters countersFor(String type) {
+        return counters.computeIfAbsent(type, t -> new TypeCounters());
+    }
+
+    private static final class TypeCounters {
+        private final LongAdder succeeded = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder batches = new LongAdder();
+        private final LongAdder elapsedMillis = new LongAdder();
+    }
+}
@@ -0,0 +1,76 @@
+package lingvo.app.jobs.service;
+
+import lingvo.app.jobs.entity.JobStatus;
+import lingvo.app.jobs.entity.OutboxJob;
+import lingvo.app.jobs.repository.OutboxJobRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Short transactions around the outbox table. Claiming commits before the jobs run, so no row
+ * lock is held while a handler works; the lease lets another node take over if this one dies.
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxJobStore {
+
+    private final OutboxJobRepository outboxJobRepository;
+
+    @Transactional
+    public List<OutboxJob> claim(String nodeId, int limit, long leaseMillis) {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxJob> jobs = outboxJobRepository.lockRunnable(now, limit);
+        for (OutboxJob job : jobs) {
+            job.setStatus(JobStatus.RUNNING);
+            job.setAttempts(job.getAttempts() + 1);
+            job.setLockedBy(nodeId);
+            job.setLockedUntil(now.plusNanos(leaseMillis * 1_000_000));
+        }
+        return jobs;
+    }
+
+    /**
+     * Deletes the finished jobs this node still holds and returns how many it deleted. A job whose lease
+     * ran out and that another node claimed again is left to that node.
+     */
+    @Transactional
+    public int complete(Collection<OutboxJob> jobs) {
+        int completed = 0;
+        for (OutboxJob job : jobs) {
+            completed += outboxJobRepository.deleteClaimed(job.getId(), job.getLockedBy(), job.getAttempts());
+        }
+        return completed;
+    }
+
+    /**
+     * Puts the jobs back with exponential backoff, or parks them as {@link JobStatus#FAILED}
+     * once they used up their attempts. Like {@link #complete}, only jobs this node still holds are
+     * released; returns how many were.
+     */
+    @Transactional
+    public int fail(Collection<OutboxJob> jobs, String error, int maxAttempts, long backoffMillis) {
+        LocalDateTime now = LocalDateTime.now();
+        String lastError = error == null ? null : error.substring(0, Math.min(error.length(), 1000));
+        int released = 0;
+        for (OutboxJob job : jobs) {
+            JobStatus status;
+            LocalDateTime availableAt;
+            if (job.getAttempts() >= maxAttempts) {
+                status = JobStatus.FAILED;
+                availableAt = job.getAvailableAt();
+            } else {
+                long delay = backoffMillis << Math.min(job.getAttempts() - 1, 10);
+                status = JobStatus.PENDING;
+                availableAt = now.plusNanos(delay * 1_000_000);
+            }
+            released += outboxJobRepository.releaseClaimed(job.getId(), job.getLockedBy(), job.getAttempts(),
+                    status, availableAt, lastError);
+        }
+        return released;
+    }
+}
@@ -0,0 +1,62 @@
+package lingvo.app.jobs.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import lingvo.app.jobs.entity.JobStatus;
+import lingvo.app.jobs.entity.OutboxJob;
+import lingvo.app.jobs.repository.OutboxJobRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Service
+@Timed("lingvo.service")
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxJobRepository outboxJobRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Records a job in the caller's transaction, so it becomes visible to workers only if the
+     * business change commits.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String type, Object payload) {
+        enqueue(type, null, payload);
+    }
+
+    /**
+     * Same as {@link #enqueue(String, Object)} for a job that only touches the data of {@code userId}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String type, Long userId, Object payload) {
+        OutboxJob job = new OutboxJob();
+        job.setType(type);
+        job.setUserId(userId);
+        job.setPayload(writePayload(payload));
+        job.setStatus(JobStatus.PENDING);
+        job.setAvailableAt(LocalDateTime.now());
+        outboxJobRepository.save(job);
+    }
+
+    public <T> T readPayload(OutboxJob job, Class<T> payloadType) {
+        try {
+            return objectMapper.readValue(job.getPayload(), payloadType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid payload for job " + job.getId(), e);
+        }
+    }
+
+    private String writePayload(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Job payload cannot be serialized", e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package lingvo.app.jobs.service;
+
+import jakarta.annotation.PreDestroy;
+import lingvo.app.jobs.entity.OutboxJob;
+import lingvo.app.sharding.ShardContext;
+import lingvo.app.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Polls the outbox table and runs claimed jobs on a fixed pool. Every node runs its own worker;
+ * {@code FOR UPDATE SKIP LOCKED} keeps them from claiming the same rows, so scaling out needs no broker.
+ * Jobs live on the shard of the write that enqueued them; each shard is polled in turn and its jobs run
+ * against it. A shard is skipped while one of its buckets is being moved.
+ */
+@Component
+@Slf4j
+public class OutboxWorker {
+
+    private final OutboxJobStore jobStore;
+    private final JobMetrics jobMetrics;
+    private final ShardRouter shardRouter;
+    private final Map<String, JobHandler> handlers;
+
+    private final String nodeId;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long leaseMillis;
+    private final long pollIntervalMillis;
+
+    private final Semaphore freeWorkers;
+    private final ExecutorService workers;
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor();
+
+    public OutboxWorker(OutboxJobStore jobStore,
+                        JobMetrics jobMetrics,
+                        ShardRouter shardRouter,
+                        List<JobHandler> handlers,
+                        @Value("${app.jobs.node-id:}") String nodeId,
+                        @Value("${app.jobs.workers:4}") int workerCount,
+                        @Value("${app.jobs.batch-size:50}") int batchSize,
+                        @Value("${app.jobs.max-attempts:5}") int maxAttempts,
+                        @Value("${app.jobs.retry-backoff-ms:1000}") long backoffMillis,
+                        @Value("${app.jobs.lease-ms:300000}") long leaseMillis,
+                        @Value("${app.jobs.poll-interval-ms:500}") long pollIntervalMillis) {
+        this.jobStore = jobStore;
+        this.jobMetrics = jobMetrics;
+        this.shardRouter = shardRouter;
+        this.handlers = handlers.stream().collect(Collectors.toMap(JobHandler::type, Function.identity()));
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.leaseMillis = leaseMillis;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.freeWorkers = new Semaphore(workerCount);
+        this.workers = Executors.newFixedThreadPool(workerCount);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        log.info("Starting outbox worker {} with handlers {}", nodeId, handlers.keySet());
+        poller.scheduleWithFixedDelay(this::poll, pollIntervalMillis, pollIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void poll() {
+        shardRouter.forEachShard(this::poll);
+    }
+
+    private void poll(int shard) {
+        if (shardRouter.hasFrozenBuckets(shard)) {
+            log.debug("Shard {} has frozen buckets, not claiming jobs", shard);
+            return;
+        }
+        try {
+            while (freeWorkers.availablePermits() > 0) {
+                List<OutboxJob> claimed = jobStore.claim(nodeId, batchSize * freeWorkers.availablePermits(), leaseMillis);
+                if (claimed.isEmpty()) {
+                    return;
+                }
+                Map<String, List<OutboxJob>> byType = claimed.stream()
+                        .collect(Collectors.groupingBy(OutboxJob::getType));
+                for (Map.Entry<String, List<OutboxJob>> entry : byType.entrySet()) {
+                    List<OutboxJob> jobs = entry.getValue();
+                    int size = batchSizeOf(entry.getKey());
+                    for (int from = 0; from < jobs.size(); from += size) {
+                        dispatch(shard, entry.getKey(), jobs.subList(from, Math.min(from + size, jobs.size())));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.error("Outbox poll of shard {} failed", shard, e);
+        }
+    }
+
+    private int batchSizeOf(String type) {
+        JobHandler handler = handlers.get(type);
+        return handler == null ? batchSize : Math.max(1, Math.min(batchSize, handler.maxBatchSize()));
+    }
+
+    private void dispatch(int shard, String type, List<OutboxJob> batch) throws InterruptedException {
+        freeWorkers.acquire();
+        workers.execute(() -> {
+            try (ShardContext.Scope ignored = ShardContext.use(shard)) {
+                run(type, batch);
+            } finally {
+                freeWorkers.release();
+            }
+        });
+    }
+
+    private void run(String type, List<OutboxJob> batch) {
+        JobHandler handler = handlers.get(type);
+        long start = System.currentTimeMillis();
+        try {
+            if (handler == null) {
+                throw new IllegalStateException("No handler registered for job type " + type);
+            }
+            handler.handle(batch);
+            int completed = jobStore.complete(batch);
+            if (completed < batch.size()) {
+                log.warn("{} of {} {} jobs were claimed again by another node after their lease ran out",
+                        batch.size() - completed, batch.size(), type);
+            }
+            jobMetrics.recordSuccess(type, batch.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("{} {} jobs failed: {}", batch.size(), type, e.getMessage());
+            int released = jobStore.fail(batch, e.getMessage(), maxAttempts, backoffMillis);
+            if (released < batch.size()) {
+                log.warn("Dropped the failure of {} {} jobs that another node claimed again",
+                        batch.size() - released, type);
+            }
+            jobMetrics.recordFailure(type, batch.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdown();
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,116 @@
+package lingvo.app.limits;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Additive-increase, multiplicative-decrease concurrency limit. A request that completes within
+ * {@code tolerance} times the baseline latency of its route, with no one waiting for a pool connection, grows
+ * the limit by about one per limit's worth of requests; a slow or pool-starved one cuts it by
+ * {@code backoffRatio}. Requests that were already running when the limit was cut do not cut it again, so one
+ * slow spell costs one decrease, not one per request caught in it.
+ * <p>
+ * Baselines are kept per route, since a class mixes cheap and expensive endpoints. A route is judged only
+ * after {@code WARMUP_SAMPLES} requests, and its baseline follows every uncongested request slowly, each
+ * sample capped at the slow threshold: one outlier barely moves it, a route that has become steadily slower
+ * is re-learned instead of cutting the limit forever.
+ */
+public class AimdLimit {
+
+    private static final double BASELINE_SMOOTHING = 0.01;
+    private static final int WARMUP_SAMPLES = 10;
+    private static final int MAX_ROUTES = 1024;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double tolerance;
+
+    private double limit;
+    private int inFlight;
+    private long rejected;
+    private final Map<String, Baseline> baselines = new HashMap<>();
+    private long lastDecreaseNanos = Long.MIN_VALUE;
+
+    private static final class Baseline {
+        double nanos;
+        long samples;
+    }
+
+    public AimdLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double tolerance) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= max");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.tolerance = tolerance;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            rejected++;
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Counts a request turned away before it reached the limit.
+     */
+    public synchronized void reject() {
+        rejected++;
+    }
+
+    /**
+     * Records a request to {@code route} admitted at {@code startNanos} that took {@code latencyNanos}.
+     */
+    public synchronized void release(String route, long startNanos, long latencyNanos, boolean poolCongested) {
+        inFlight--;
+        Baseline baseline = baseline(route);
+        boolean slow = baseline.samples >= WARMUP_SAMPLES && latencyNanos > baseline.nanos * tolerance;
+        if (!poolCongested) {
+            double sample = baseline.samples == 0 ? latencyNanos : Math.min(latencyNanos, baseline.nanos * tolerance);
+            baseline.nanos = baseline.samples == 0 ? sample : baseline.nanos + (sample - baseline.nanos) * BASELINE_SMOOTHING;
+            baseline.samples++;
+        }
+        if (poolCongested || slow) {
+            if (startNanos > lastDecreaseNanos) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+                lastDecreaseNanos = startNanos + latencyNanos;
+            }
+            return;
+        }
+        // Only grow a limit that is actually being used, or an idle class would drift to the maximum
+        if (inFlight + 1 >= limit / 2) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    private Baseline baseline(String route) {
+        Baseline baseline = baselines.get(route);
+        if (baseline == null) {
+            // Routes are URI patterns, so this only trips on a misbehaving caller; start over rather than grow
+            if (baselines.size() >= MAX_ROUTES) {
+                baselines.clear();
+            }
+            baseline = new Baseline();
+            baselines.put(route, baseline);
+        }
+        return baseline;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized long getRejected() {
+        return rejected;
+    }
+}
@@ -0,0 +1,51 @@
+package lingvo.app.limits;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Admits each request against the limit of its {@link EndpointClass} and answers 503 with
+ * {@code Retry-After} when there is no room, instead of queueing it behind a starved connection pool.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    static final String RETRY_AFTER_SECONDS = "1";
+    static final String UNKNOWN_ROUTE = "UNKNOWN";
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    public ConcurrencyLimitFilter(ConcurrencyLimiter concurrencyLimiter) {
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!concurrencyLimiter.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        EndpointClass endpointClass = EndpointClass.of(request);
+        if (!concurrencyLimiter.tryAcquire(endpointClass)) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Server is busy, retry shortly");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            long latency = System.nanoTime() - start;
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            concurrencyLimiter.release(endpointClass, pattern == null ? UNKNOWN_ROUTE : pattern.toString(), start,
+                    latency);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package lingvo.app.limits;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lingvo.app.limits.dto.ConcurrencyLimitStatsDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One {@link AimdLimit} per {@link EndpointClass}. Bulk and admin traffic are capped lower than the rest, and
+ * bulk traffic is turned away outright while any pool has a queue, so interactive requests get the connections
+ * first while operators can still look at what is going on. The in-flight
+ * count of the auth class is the closest thing to a BCrypt queue: signins beyond the cores wait there for CPU.
+ */
+@Component
+public class ConcurrencyLimiter implements MeterBinder {
+
+    private final PoolSaturation poolSaturation;
+    private final boolean enabled;
+    private final Map<EndpointClass, AimdLimit> limits = new EnumMap<>(EndpointClass.class);
+
+    public ConcurrencyLimiter(PoolSaturation poolSaturation,
+                              @Value("${app.concurrency-limit.enabled:true}") boolean enabled,
+                              @Value("${app.concurrency-limit.initial:20}") int initialLimit,
+                              @Value("${app.concurrency-limit.min:2}") int minLimit,
+                              @Value("${app.concurrency-limit.max:200}") int maxLimit,
+                              @Value("${app.concurrency-limit.bulk-max:4}") int bulkMaxLimit,
+                              @Value("${app.concurrency-limit.backoff-ratio:0.9}") double backoffRatio,
+                              @Value("${app.concurrency-limit.latency-tolerance:2.0}") double latencyTolerance) {
+        this.poolSaturation = poolSaturation;
+        this.enabled = enabled;
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            int max = endpointClass == EndpointClass.BULK || endpointClass == EndpointClass.ADMIN ? bulkMaxLimit : maxLimit;
+            limits.put(endpointClass, new AimdLimit(Math.min(initialLimit, max), Math.min(minLimit, max), max,
+                    backoffRatio, latencyTolerance));
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Admits a request of {@code endpointClass} or returns {@code false}; every admitted request must be
+     * {@link #release released}.
+     */
+    public boolean tryAcquire(EndpointClass endpointClass) {
+        if (endpointClass == EndpointClass.BULK && poolSaturation.isSaturated()) {
+            limits.get(endpointClass).reject();
+            return false;
+        }
+        return limits.get(endpointClass).tryAcquire();
+    }
+
+    /**
+     * {@code route} is the request's URI pattern; latencies are only compared within a route.
+     */
+    public void release(EndpointClass endpointClass, String route, long startNanos, long latencyNanos) {
+        limits.get(endpointClass).release(route, startNanos, latencyNanos, poolSaturation.isSaturated());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        limits.forEach((endpointClass, limit) -> {
+            String tag = endpointClass.name().toLowerCase();
+            Gauge.builder("lingvo.concurrency.limit", limit, AimdLimit::getLimit)
+                    .tag("class", tag)
+                    .register(registry);
+            Gauge.builder("lingvo.concurrency.in.flight", limit, AimdLimit::getInFlight)
+                    .tag("class", tag)
+                    .register(registry);
+            FunctionCounter.builder("lingvo.concurrency.rejected", limit, AimdLimit::getRejected)
+                    .tag("class", tag)
+                    .register(registry);
+        });
+    }
+
+    public List<ConcurrencyLimitStatsDto> snapshot() {
+        return Arrays.stream(EndpointClass.values())
+                .map(endpointClass -> {
+                    AimdLimit limit = limits.get(endpointClass);
+                    return new ConcurrencyLimitStatsDto(endpointClass.name(), limit.getLimit(), limit.getInFlight(),
+                            limit.getRejected());
+                })
+                .toList();
+    }
+}
@@ -0,0 +1,50 @@
+package lingvo.app.limits;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Requests grouped by what they cost and how much a user notices when they fail. Each class has its own
+ * concurrency limit; under pool pressure {@link #BULK} is shed before anything else is limited.
+ */
+public enum EndpointClass {
+
+    /**
+     * Signin, signup and token refresh; BCrypt-bound and needed to use anything else.
+     */
+    AUTH,
+
+    /**
+     * Interactive deck and card reads and writes.
+     */
+    STUDY,
+
+    /**
+     * Admin reads, cache and job controls and profiling: small and rare, but needed most while the pools are
+     * under pressure, so never shed.
+     */
+    ADMIN,
+
+    /**
+     * Full syncs, deck clones, shard moves and stats repairs: large, retryable, and nobody is watching a spinner.
+     */
+    BULK;
+
+    public static EndpointClass of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/auth/")) {
+            return AUTH;
+        }
+        boolean post = HttpMethod.POST.matches(request.getMethod());
+        if (path.startsWith("/api/sync")
+                || (post && path.startsWith("/api/deck/") && path.endsWith("/clone"))
+                || (post && path.startsWith("/api/admin/shards/buckets/") && path.endsWith("/move"))
+                || (post && path.equals("/api/admin/deck-stats/repair"))) {
+            return BULK;
+        }
+        if (path.startsWith("/api/admin/")) {
+            return ADMIN;
+        }
+        return STUDY;
+    }
+}
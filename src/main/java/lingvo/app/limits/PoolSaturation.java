@@ -0,0 +1,66 @@
+package lingvo.app.limits;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lingvo.app.sharding.ShardDataSources;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Whether any connection pool has threads queued for a connection: the point where more concurrency only
+ * adds waiting time. Covers the pools that are beans (primary, replica, sharding directory), also when the
+ * primary one is wrapped for SQL metrics, and the shard pools.
+ */
+@Component
+public class PoolSaturation {
+
+    private final ObjectProvider<DataSource> dataSources;
+    private final ObjectProvider<ShardDataSources> shardDataSources;
+
+    private volatile List<HikariDataSource> pools;
+
+    public PoolSaturation(ObjectProvider<DataSource> dataSources,
+                          ObjectProvider<ShardDataSources> shardDataSources) {
+        this.dataSources = dataSources;
+        this.shardDataSources = shardDataSources;
+    }
+
+    public int threadsAwaitingConnection() {
+        return pools().stream()
+                .map(HikariDataSource::getHikariPoolMXBean)
+                .filter(Objects::nonNull)
+                .mapToInt(HikariPoolMXBean::getThreadsAwaitingConnection)
+                .sum();
+    }
+
+    /**
+     * Resolved on first use, once the context is complete; a pool reports no MX bean until it has started.
+     */
+    private List<HikariDataSource> pools() {
+        List<HikariDataSource> resolved = pools;
+        if (resolved == null) {
+            Set<DataSource> all = new LinkedHashSet<>();
+            dataSources.orderedStream()
+                    .map(dataSource -> dataSource instanceof ProxyDataSource proxy ? proxy.getDataSource() : dataSource)
+                    .forEach(all::add);
+            shardDataSources.ifAvailable(shards -> all.addAll(shards.all()));
+            resolved = all.stream()
+                    .filter(HikariDataSource.class::isInstance)
+                    .map(HikariDataSource.class::cast)
+                    .toList();
+            pools = resolved;
+        }
+        return resolved;
+    }
+
+    public boolean isSaturated() {
+        return threadsAwaitingConnection() > 0;
+    }
+}
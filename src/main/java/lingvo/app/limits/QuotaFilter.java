@@ -0,0 +1,139 @@
+package lingvo.app.limits;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lingvo.app.auth.entity.RoleType;
+import lingvo.app.auth.service.UserIdCache;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Enforces {@link UserQuotas} for authenticated requests and reports them in {@code X-RateLimit-*} headers.
+ * An exhausted quota is answered with 429 and {@code Retry-After}. Bulk requests are also checked against
+ * the byte quota: the request body up front, the response body once it has been written.
+ */
+public class QuotaFilter extends OncePerRequestFilter {
+
+    static final String LIMIT_HEADER = "X-RateLimit-Limit";
+    static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    static final String BULK_LIMIT_HEADER = "X-Bulk-Bytes-Limit";
+    static final String BULK_REMAINING_HEADER = "X-Bulk-Bytes-Remaining";
+
+    private final UserQuotas userQuotas;
+    private final UserIdCache userIdCache;
+
+    public QuotaFilter(UserQuotas userQuotas, UserIdCache userIdCache) {
+        this.userQuotas = userQuotas;
+        this.userIdCache = userIdCache;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Long userId = userQuotas.isEnabled() && authentication != null && authentication.isAuthenticated()
+                ? userIdCache.idOf(authentication.getName())
+                : null;
+        if (userId == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        RoleType role = userQuotas.roleOf(authentication.getAuthorities());
+        long remaining = userQuotas.tryRequest(userId, role);
+        response.setHeader(LIMIT_HEADER, String.valueOf(userQuotas.requestsPerMinute(role)));
+        if (remaining < 0) {
+            reject(response, remaining, "Request quota exceeded");
+            return;
+        }
+        response.setHeader(REMAINING_HEADER, String.valueOf(remaining));
+        if (EndpointClass.of(request) != EndpointClass.BULK) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long bulkRemaining = userQuotas.tryBulk(userId, role, Math.max(0, request.getContentLengthLong()));
+        response.setHeader(BULK_LIMIT_HEADER, String.valueOf(userQuotas.bulkBytesPerMinute(role)));
+        if (bulkRemaining < 0) {
+            reject(response, bulkRemaining, "Bulk transfer quota exceeded");
+            return;
+        }
+        response.setHeader(BULK_REMAINING_HEADER, String.valueOf(bulkRemaining));
+        CountingResponse countingResponse = new CountingResponse(response);
+        try {
+            filterChain.doFilter(request, countingResponse);
+        } finally {
+            userQuotas.chargeBulk(userId, role, countingResponse.bytesWritten);
+        }
+    }
+
+    private static void reject(HttpServletResponse response, long result, String message) throws IOException {
+        response.setHeader(REMAINING_HEADER, "0");
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (-result + 999_999_999) / 1_000_000_000)));
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), message);
+    }
+
+    /**
+     * Counts bytes written through {@link #getOutputStream()}, which is what message converters use. Text
+     * written through {@link #getWriter()} (error pages) is not counted.
+     */
+    static class CountingResponse extends HttpServletResponseWrapper {
+
+        private long bytesWritten;
+        private ServletOutputStream outputStream;
+
+        CountingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                        bytesWritten++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                        bytesWritten += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        delegate.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package lingvo.app.limits;
+
+import java.util.Arrays;
+
+/**
+ * Token buckets keyed by a {@code long}, kept in fixed primitive arrays so a check allocates nothing. The
+ * table is split into independently locked stripes; a key lives in one stripe, within a short probe window
+ * of its home slot. Buckets refill lazily when touched.
+ * <p>
+ * When a key finds no slot, it takes an empty one, else one idle for {@code idleEvictNanos}, else the least
+ * recently used one in its window. A bucket idle that long has refilled completely, so dropping it loses
+ * nothing; only evicting a recently used bucket, in a table too small for its active users, lets that user
+ * start over with a full bucket.
+ */
+public class TokenBucketTable {
+
+    private static final int PROBES = 8;
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    private final int slotMask;
+    private final long idleEvictNanos;
+
+    private static final class Stripe {
+        final long[] keys;
+        final double[] tokens;
+        final long[] updatedAt;
+
+        Stripe(int slots) {
+            keys = new long[slots];
+            tokens = new double[slots];
+            updatedAt = new long[slots];
+            Arrays.fill(keys, EMPTY);
+        }
+    }
+
+    /**
+     * Both counts are rounded up to powers of two.
+     */
+    public TokenBucketTable(int stripeCount, int slotsPerStripe, long idleEvictNanos) {
+        int stripesRounded = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        int slotsRounded = Math.max(PROBES, Integer.highestOneBit(Math.max(1, slotsPerStripe - 1)) << 1);
+        this.stripes = new Stripe[stripesRounded];
+        for (int i = 0; i < stripesRounded; i++) {
+            stripes[i] = new Stripe(slotsRounded);
+        }
+        this.stripeMask = stripesRounded - 1;
+        this.slotMask = slotsRounded - 1;
+        this.idleEvictNanos = idleEvictNanos;
+    }
+
+    /**
+     * Takes {@code permits} tokens if the bucket holds them. Returns the tokens left (rounded down) when
+     * taken; otherwise a negative number whose magnitude is the nanoseconds until enough have refilled.
+     */
+    public long tryAcquire(long key, long permits, long capacity, double refillPerSecond, long nowNanos) {
+        long hash = mix(key);
+        Stripe stripe = stripes[(int) (hash >>> 32) & stripeMask];
+        synchronized (stripe) {
+            int slot = slotOf(stripe, key, (int) hash, capacity, nowNanos);
+            double available = refill(stripe, slot, capacity, refillPerSecond, nowNanos);
+            if (available >= permits) {
+                stripe.tokens[slot] = available - permits;
+                return (long) (available - permits);
+            }
+            stripe.tokens[slot] = available;
+            return -Math.max(1, (long) Math.ceil((permits - available) / refillPerSecond * 1e9));
+        }
+    }
+
+    /**
+     * Takes {@code amount} tokens unconditionally, for usage that is only known afterwards. The bucket may go
+     * into debt down to {@code -capacity}, which later {@link #tryAcquire} calls have to wait out.
+     */
+    public void charge(long key, long amount, long capacity, double refillPerSecond, long nowNanos) {
+        long hash = mix(key);
+        Stripe stripe = stripes[(int) (hash >>> 32) & stripeMask];
+        synchronized (stripe) {
+            int slot = slotOf(stripe, key, (int) hash, capacity, nowNanos);
+            double available = refill(stripe, slot, capacity, refillPerSecond, nowNanos);
+            stripe.tokens[slot] = Math.max(-capacity, available - amount);
+        }
+    }
+
+    private int slotOf(Stripe stripe, long key, int hash, long capacity, long nowNanos) {
+        int victim = -1;
+        long victimUpdatedAt = Long.MAX_VALUE;
+        for (int probe = 0; probe < PROBES; probe++) {
+            int slot = (hash + probe) & slotMask;
+            long slotKey = stripe.keys[slot];
+            if (slotKey == key) {
+                return slot;
+            }
+            if (slotKey == EMPTY || nowNanos - stripe.updatedAt[slot] >= idleEvictNanos) {
+                // Keep probing: the key may still sit further along the window
+                if (victimUpdatedAt != Long.MIN_VALUE) {
+                    victim = slot;
+                    victimUpdatedAt = Long.MIN_VALUE;
+                }
+            } else if (stripe.updatedAt[slot] < victimUpdatedAt) {
+                victim = slot;
+                victimUpdatedAt = stripe.updatedAt[slot];
+            }
+        }
+        stripe.keys[victim] = key;
+        stripe.tokens[victim] = capacity;
+        stripe.updatedAt[victim] = nowNanos;
+        return victim;
+    }
+
+    private static double refill(Stripe stripe, int slot, long capacity, double refillPerSecond, long nowNanos) {
+        long elapsed = Math.max(0, nowNanos - stripe.updatedAt[slot]);
+        stripe.updatedAt[slot] = nowNanos;
+        return Math.min(capacity, stripe.tokens[slot] + elapsed * refillPerSecond / 1e9);
+    }
+
+    /**
+     * Spreads sequential ids over stripes and slots (the 64-bit finalizer of MurmurHash3).
+     */
+    private static long mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,127 @@
+package lingvo.app.limits;
+
+import lingvo.app.auth.entity.RoleType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per-user quotas by {@link RoleType}: requests per minute on every endpoint, and bytes per minute moved by
+ * bulk endpoints. A user with several roles gets the most generous quota among them. Each quota is a token
+ * bucket holding one minute's worth, refilled continuously. Buckets live in this node's memory, so every
+ * node enforces the quota on its own: behind a load balancer a user gets up to the quota per node.
+ */
+@Component
+public class UserQuotas {
+
+    /**
+     * A full bucket refills from empty in this long.
+     */
+    private static final Duration REFILL_TIME = Duration.ofMinutes(1);
+
+    private final boolean enabled;
+    private final Map<RoleType, Long> requestsPerMinute;
+    private final Map<RoleType, Long> bulkBytesPerMinute;
+    private final TokenBucketTable requests;
+    private final TokenBucketTable bulkBytes;
+
+    public UserQuotas(@Value("${app.quota.enabled:true}") boolean enabled,
+                      @Value("${app.quota.requests-per-minute:USER:600}") String requestsPerMinute,
+                      @Value("${app.quota.bulk-bytes-per-minute:USER:52428800}") String bulkBytesPerMinute,
+                      @Value("${app.quota.stripes:64}") int stripes,
+                      @Value("${app.quota.slots-per-stripe:1024}") int slotsPerStripe,
+                      @Value("${app.quota.idle-evict-ms:120000}") long idleEvictMillis) {
+        this.enabled = enabled;
+        this.requestsPerMinute = parse(requestsPerMinute);
+        this.bulkBytesPerMinute = parse(bulkBytesPerMinute);
+        // Bulk charges can put a bucket down to -capacity, which takes two refill times to pay off; evicting
+        // any earlier would forgive the debt
+        long idleEvictNanos = Math.max(REFILL_TIME.multipliedBy(2).toNanos(), Duration.ofMillis(idleEvictMillis).toNanos());
+        this.requests = new TokenBucketTable(stripes, slotsPerStripe, idleEvictNanos);
+        this.bulkBytes = new TokenBucketTable(stripes, slotsPerStripe, idleEvictNanos);
+    }
+
+    /**
+     * Parses {@code ROLE:amount} pairs separated by commas; roles left out get the {@code USER} amount.
+     */
+    static Map<RoleType, Long> parse(String quotas) {
+        Map<RoleType, Long> parsed = new EnumMap<>(RoleType.class);
+        Arrays.stream(quotas.split(","))
+                .map(String::trim)
+                .filter(entry -> !entry.isEmpty())
+                .forEach(entry -> {
+                    String[] parts = entry.split(":");
+                    if (parts.length != 2) {
+                        throw new IllegalArgumentException("Quota must look like ROLE:amount, got " + entry);
+                    }
+                    parsed.put(RoleType.valueOf(parts[0].trim()), Long.parseLong(parts[1].trim()));
+                });
+        Long userQuota = parsed.get(RoleType.USER);
+        if (userQuota == null) {
+            throw new IllegalArgumentException("Quota for USER is required: " + quotas);
+        }
+        for (RoleType role : RoleType.values()) {
+            parsed.putIfAbsent(role, userQuota);
+        }
+        return parsed;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public RoleType roleOf(Collection<? extends GrantedAuthority> authorities) {
+        RoleType best = RoleType.USER;
+        for (GrantedAuthority authority : authorities) {
+            for (RoleType role : RoleType.values()) {
+                if (role.name().equals(authority.getAuthority())
+                        && requestsPerMinute.get(role) > requestsPerMinute.get(best)) {
+                    best = role;
+                }
+            }
+        }
+        return best;
+    }
+
+    public long requestsPerMinute(RoleType role) {
+        return requestsPerMinute.get(role);
+    }
+
+    public long bulkBytesPerMinute(RoleType role) {
+        return bulkBytesPerMinute.get(role);
+    }
+
+    /**
+     * Takes one request; see {@link TokenBucketTable#tryAcquire} for the result.
+     */
+    public long tryRequest(long userId, RoleType role) {
+        long perMinute = requestsPerMinute.get(role);
+        return requests.tryAcquire(userId, 1, perMinute, refillPerSecond(perMinute), System.nanoTime());
+    }
+
+    /**
+     * Takes the bytes a bulk request brings with it; with none, only checks that the user is not in debt.
+     */
+    public long tryBulk(long userId, RoleType role, long requestBytes) {
+        long perMinute = bulkBytesPerMinute.get(role);
+        return bulkBytes.tryAcquire(userId, requestBytes, perMinute, refillPerSecond(perMinute), System.nanoTime());
+    }
+
+    /**
+     * Charges the bytes a bulk response turned out to have.
+     */
+    public void chargeBulk(long userId, RoleType role, long responseBytes) {
+        long perMinute = bulkBytesPerMinute.get(role);
+        bulkBytes.charge(userId, responseBytes, perMinute, refillPerSecond(perMinute), System.nanoTime());
+    }
+
+    private static double refillPerSecond(long capacity) {
+        return capacity / (double) REFILL_TIME.toSeconds();
+    }
+}
@@ -0,0 +1,27 @@
+package lingvo.app.limits.controller;
+
+import lingvo.app.limits.ConcurrencyLimiter;
+import lingvo.app.limits.dto.ConcurrencyLimitStatsDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/concurrency-limits")
+@RequiredArgsConstructor
+@Slf4j
+public class ConcurrencyLimitController {
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    @GetMapping
+    public ResponseEntity<List<ConcurrencyLimitStatsDto>> getLimits() {
+        log.info("REST request to get concurrency limits");
+        return ResponseEntity.ok(concurrencyLimiter.snapshot());
+    }
+}
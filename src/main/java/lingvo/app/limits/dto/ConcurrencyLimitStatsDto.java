@@ -0,0 +1,15 @@
+package lingvo.app.limits.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConcurrencyLimitStatsDto {
+    private String endpointClass;
+    private int limit;
+    private int inFlight;
+    private long rejected;
+}
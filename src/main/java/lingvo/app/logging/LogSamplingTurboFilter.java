@@ -0,0 +1,59 @@
+package lingvo.app.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lets one in {@code keepOneIn} events at {@code level} (WARN by default) of the loggers under
+ * {@code logger} through; for messages that may repeat on every request, such as failed signins. Decided before the
+ * event is built, so a dropped event costs a counter increment. Configured in logback-spring.xml.
+ */
+public class LogSamplingTurboFilter extends TurboFilter {
+
+    private final AtomicLong seen = new AtomicLong();
+
+    private String loggerName;
+    private int keepOneIn = 1;
+    private Level sampledLevel = Level.WARN;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // No format: a level check such as isDebugEnabled(), not an event
+        if (format == null || !isStarted() || keepOneIn <= 1 || level != sampledLevel
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel()) || !isUnder(logger.getName())) {
+            return FilterReply.NEUTRAL;
+        }
+        return seen.getAndIncrement() % keepOneIn == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    private boolean isUnder(String name) {
+        return name.startsWith(loggerName)
+                && (name.length() == loggerName.length() || name.charAt(loggerName.length()) == '.');
+    }
+
+    @Override
+    public void start() {
+        if (loggerName == null || loggerName.isBlank()) {
+            addError("No logger set for " + getName());
+            return;
+        }
+        super.start();
+    }
+
+    public void setLogger(String logger) {
+        this.loggerName = logger;
+    }
+
+    public void setKeepOneIn(int keepOneIn) {
+        this.keepOneIn = keepOneIn;
+    }
+
+    public void setLevel(String level) {
+        this.sampledLevel = Level.toLevel(level, Level.WARN);
+    }
+}
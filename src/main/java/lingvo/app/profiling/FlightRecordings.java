@@ -0,0 +1,309 @@
+package lingvo.app.profiling;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+import lingvo.app.exception.ResourceNotFoundException;
+import lingvo.app.profiling.dto.FlightRecordingDto;
+import lingvo.app.profiling.dto.FlightRecordingSummaryDto;
+import lingvo.app.profiling.dto.HotspotDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time-boxed JFR recordings started on demand, one at a time, with one of the JDK's settings profiles
+ * ({@code default} for about 1% overhead, {@code profile} for finer sampling at about 2%). Each recording is
+ * stopped after its duration and dumped to a temporary file, which is moved into place once complete; only
+ * then is the recording finished and its file served. The last {@code kept-recordings} files are kept for
+ * download and summaries.
+ */
+@Component
+@Slf4j
+public class FlightRecordings {
+
+    private static final String PREFIX = "lingvo-";
+
+    private final long maxDurationSeconds;
+    private final int keptRecordings;
+    private final long slowRequestMillis;
+    private final Map<Long, Entry> recordings = new LinkedHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    private Path directory;
+
+    private static final class Entry {
+        final Recording recording;
+        final String profile;
+        final Path file;
+        final Instant startedAt;
+        final long durationSeconds;
+        String state = RecordingState.RUNNING.name();
+        long sizeBytes;
+
+        Entry(Recording recording, String profile, Path file, long durationSeconds) {
+            this.recording = recording;
+            this.profile = profile;
+            this.file = file;
+            this.startedAt = Instant.now();
+            this.durationSeconds = durationSeconds;
+        }
+
+        boolean isRunning() {
+            return RecordingState.RUNNING.name().equals(state);
+        }
+
+        boolean isFinished() {
+            return RecordingState.STOPPED.name().equals(state);
+        }
+    }
+
+    public FlightRecordings(@Value("${app.profiling.max-duration-seconds:300}") long maxDurationSeconds,
+                            @Value("${app.profiling.kept-recordings:5}") int keptRecordings,
+                            @Value("${app.profiling.slow-request-ms:1000}") long slowRequestMillis) {
+        this.maxDurationSeconds = maxDurationSeconds;
+        this.keptRecordings = keptRecordings;
+        this.slowRequestMillis = slowRequestMillis;
+    }
+
+    public synchronized FlightRecordingDto start(String profile, long seconds) {
+        if (seconds < 1 || seconds > maxDurationSeconds) {
+            throw new IllegalArgumentException("Duration must be between 1 and " + maxDurationSeconds + " seconds");
+        }
+        if (recordings.values().stream().anyMatch(Entry::isRunning)) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        Configuration configuration = configuration(profile);
+        Recording recording = new Recording(configuration);
+        try {
+            Path file = directory().resolve(PREFIX + recording.getId() + ".jfr");
+            recording.setName(PREFIX + profile);
+            recording.enable(SlowRequestEvent.class).withThreshold(Duration.ofMillis(slowRequestMillis));
+            recording.setToDisk(true);
+            recording.start();
+            recordings.put(recording.getId(), new Entry(recording, profile, file, seconds));
+        } catch (IOException e) {
+            recording.close();
+            throw new UncheckedIOException(e);
+        }
+        long id = recording.getId();
+        scheduler.schedule(() -> finish(id), seconds, TimeUnit.SECONDS);
+        log.info("Started JFR recording {} with profile {} for {} s", id, profile, seconds);
+        prune();
+        return toDto(recordings.get(recording.getId()));
+    }
+
+    /**
+     * Stops the recording and dumps it next to its final path; the file only appears under that path, and the
+     * recording only counts as finished, once the dump is complete.
+     */
+    void finish(long id) {
+        Entry entry;
+        synchronized (this) {
+            entry = recordings.get(id);
+            if (entry == null || !entry.isRunning()) {
+                return;
+            }
+        }
+        Path partial = entry.file.resolveSibling(entry.file.getFileName() + ".part");
+        String state;
+        long size = 0;
+        try {
+            entry.recording.stop();
+            entry.recording.dump(partial);
+            Files.move(partial, entry.file, StandardCopyOption.ATOMIC_MOVE);
+            size = Files.size(entry.file);
+            state = RecordingState.STOPPED.name();
+            log.info("JFR recording {} finished, {} bytes", id, size);
+        } catch (IOException | IllegalStateException e) {
+            log.error("JFR recording {} could not be written", id, e);
+            state = "FAILED";
+        } finally {
+            entry.recording.close();
+        }
+        synchronized (this) {
+            entry.sizeBytes = size;
+            entry.state = state;
+        }
+    }
+
+    private static Configuration configuration(String profile) {
+        boolean known = Configuration.getConfigurations().stream().anyMatch(c -> c.getName().equals(profile));
+        if (!known) {
+            throw new IllegalArgumentException("Unknown JFR profile " + profile);
+        }
+        try {
+            return Configuration.getConfiguration(profile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("JFR profile " + profile + " cannot be read", e);
+        }
+    }
+
+    private Path directory() throws IOException {
+        if (directory == null) {
+            directory = Files.createTempDirectory(PREFIX + "jfr");
+        }
+        return directory;
+    }
+
+    public synchronized List<FlightRecordingDto> list() {
+        return recordings.values().stream().map(FlightRecordings::toDto).toList();
+    }
+
+    /**
+     * The recording's file, once JFR has written it.
+     */
+    public synchronized Path file(long id) {
+        Entry entry = recordings.get(id);
+        if (entry == null) {
+            throw new ResourceNotFoundException("Recording not found with id: " + id);
+        }
+        if (entry.isRunning()) {
+            throw new IllegalStateException("Recording " + id + " is still running");
+        }
+        if (!entry.isFinished()) {
+            throw new IllegalStateException("Recording " + id + " could not be written");
+        }
+        return entry.file;
+    }
+
+    /**
+     * Top {@code limit} sites by sampled CPU, sampled allocated bytes, time blocked on monitors or parked,
+     * and slow requests, each keyed by the innermost frame.
+     */
+    public FlightRecordingSummaryDto summarize(long id, int limit) {
+        Path file = file(id);
+        String profile;
+        synchronized (this) {
+            profile = recordings.get(id).profile;
+        }
+        Map<String, long[]> hotMethods = new HashMap<>();
+        Map<String, long[]> allocationSites = new HashMap<>();
+        Map<String, long[]> lockContention = new HashMap<>();
+        Map<String, long[]> slowRequests = new HashMap<>();
+        try (RecordingFile recordingFile = new RecordingFile(file)) {
+            while (recordingFile.hasMoreEvents()) {
+                RecordedEvent event = recordingFile.readEvent();
+                switch (event.getEventType().getName()) {
+                    case "jdk.ExecutionSample" -> add(hotMethods, method(event.getStackTrace()), 1);
+                    case "jdk.ObjectAllocationSample" ->
+                            add(allocationSites, frame(event.getStackTrace()), event.getLong("weight"));
+                    case "jdk.JavaMonitorEnter" -> add(lockContention,
+                            className(event.getClass("monitorClass")) + " in " + method(event.getStackTrace()),
+                            event.getDuration().toMillis());
+                    case "jdk.ThreadPark" -> add(lockContention,
+                            "park " + className(event.getClass("parkedClass")) + " in " + method(event.getStackTrace()),
+                            event.getDuration().toMillis());
+                    case SlowRequestEvent.NAME -> add(slowRequests,
+                            event.getString("method") + " " + event.getString("uri"), event.getDuration().toMillis());
+                    default -> {
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new FlightRecordingSummaryDto(id, profile, top(hotMethods, limit), top(allocationSites, limit),
+                top(lockContention, limit), top(slowRequests, limit));
+    }
+
+    private static void add(Map<String, long[]> sites, String site, long amount) {
+        long[] totals = sites.computeIfAbsent(site, key -> new long[2]);
+        totals[0]++;
+        totals[1] += amount;
+    }
+
+    private static List<HotspotDto> top(Map<String, long[]> sites, int limit) {
+        return sites.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue()[1], a.getValue()[1]))
+                .limit(limit)
+                .map(entry -> new HotspotDto(entry.getKey(), entry.getValue()[0], entry.getValue()[1]))
+                .toList();
+    }
+
+    private static String method(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        RecordedFrame frame = stackTrace.getFrames().get(0);
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName();
+    }
+
+    private static String frame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "unknown";
+        }
+        return method(stackTrace) + ":" + stackTrace.getFrames().get(0).getLineNumber();
+    }
+
+    private static String className(RecordedClass recordedClass) {
+        return recordedClass == null ? "unknown" : recordedClass.getName();
+    }
+
+    /**
+     * Drops the oldest finished recordings and their files beyond {@code kept-recordings}.
+     */
+    private void prune() {
+        List<Entry> done = new ArrayList<>(recordings.values().stream().filter(entry -> !entry.isRunning()).toList());
+        while (done.size() > keptRecordings) {
+            Entry oldest = done.remove(0);
+            recordings.remove(oldest.recording.getId());
+            discard(oldest);
+        }
+    }
+
+    private static void discard(Entry entry) {
+        entry.recording.close();
+        try {
+            Files.deleteIfExists(entry.file);
+            Files.deleteIfExists(entry.file.resolveSibling(entry.file.getFileName() + ".part"));
+        } catch (IOException e) {
+            log.warn("Could not delete JFR recording {}: {}", entry.file, e.getMessage());
+        }
+    }
+
+    private static FlightRecordingDto toDto(Entry entry) {
+        long size = entry.isRunning() ? entry.recording.getSize() : entry.sizeBytes;
+        return new FlightRecordingDto(entry.recording.getId(), entry.profile, entry.state, entry.startedAt,
+                entry.durationSeconds, size);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        scheduler.shutdownNow();
+        recordings.values().forEach(FlightRecordings::discard);
+        recordings.clear();
+        if (directory != null) {
+            try {
+                Files.deleteIfExists(directory);
+            } catch (IOException e) {
+                log.warn("Could not delete JFR directory {}: {}", directory, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package lingvo.app.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A request that took longer than {@code app.profiling.slow-request-ms}. Committed only while a recording
+ * or stream has the event enabled, with that threshold; otherwise it costs a check per request.
+ */
+@Name(SlowRequestEvent.NAME)
+@Label("Slow Request")
+@Category("LinGuru")
+@Description("HTTP request slower than app.profiling.slow-request-ms")
+@StackTrace(false)
+public class SlowRequestEvent extends Event {
+
+    public static final String NAME = "lingvo.SlowRequest";
+
+    @Label("Method")
+    String method;
+
+    @Label("URI Pattern")
+    String uri;
+
+    @Label("Status")
+    int status;
+
+    @Label("Request Id")
+    String requestId;
+}
@@ -0,0 +1,50 @@
+package lingvo.app.profiling;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lingvo.app.logging.RequestIdFilter;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Times every request as a {@link SlowRequestEvent}; JFR drops those under the threshold. Runs right after
+ * {@link RequestIdFilter}, so the event carries the id that the request's log lines have.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class SlowRequestEventFilter extends OncePerRequestFilter {
+
+    static final String UNKNOWN_URI = "UNKNOWN";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SlowRequestEvent event = new SlowRequestEvent();
+        if (!event.isEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        event.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                event.method = request.getMethod();
+                event.uri = pattern == null ? UNKNOWN_URI : pattern.toString();
+                event.status = response.getStatus();
+                event.requestId = MDC.get(RequestIdFilter.MDC_KEY);
+                event.commit();
+            }
+        }
+    }
+}
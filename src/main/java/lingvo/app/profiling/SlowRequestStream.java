@@ -0,0 +1,73 @@
+package lingvo.app.profiling;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Keeps a JFR stream open for {@link SlowRequestEvent} only, so slow requests are recorded all the time at
+ * the cost of one event per slow request. Each one is timed as {@code lingvo.slow.requests} by method and
+ * URI pattern and logged with its request id.
+ */
+@Component
+@Slf4j
+public class SlowRequestStream {
+
+    private static final Duration MAX_AGE = Duration.ofMinutes(10);
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long slowRequestMillis;
+
+    private RecordingStream stream;
+
+    public SlowRequestStream(MeterRegistry meterRegistry,
+                             @Value("${app.profiling.slow-request-stream-enabled:true}") boolean enabled,
+                             @Value("${app.profiling.slow-request-ms:1000}") long slowRequestMillis) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.slowRequestMillis = slowRequestMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || stream != null) {
+            return;
+        }
+        stream = new RecordingStream();
+        stream.enable(SlowRequestEvent.class).withThreshold(Duration.ofMillis(slowRequestMillis));
+        stream.setMaxAge(MAX_AGE);
+        stream.onEvent(SlowRequestEvent.NAME, this::onSlowRequest);
+        stream.startAsync();
+        log.info("Streaming JFR events of requests slower than {} ms", slowRequestMillis);
+    }
+
+    void onSlowRequest(RecordedEvent event) {
+        Timer.builder("lingvo.slow.requests")
+                .description("Requests slower than app.profiling.slow-request-ms")
+                .tag("method", String.valueOf(event.getString("method")))
+                .tag("uri", String.valueOf(event.getString("uri")))
+                .register(meterRegistry)
+                .record(event.getDuration());
+        log.warn("Slow request {} {} took {} ms (status {}, request {})", event.getString("method"),
+                event.getString("uri"), event.getDuration().toMillis(), event.getInt("status"),
+                event.getString("requestId"));
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package lingvo.app.profiling.controller;
+
+import lingvo.app.profiling.FlightRecordings;
+import lingvo.app.profiling.dto.FlightRecordingDto;
+import lingvo.app.profiling.dto.FlightRecordingSummaryDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Restricted to super administrators in {@code SecurityConfig}.
+ */
+@RestController
+@RequestMapping("/api/admin/profiling/recordings")
+@RequiredArgsConstructor
+@Slf4j
+public class ProfilingController {
+
+    private final FlightRecordings flightRecordings;
+
+    @PostMapping
+    public ResponseEntity<FlightRecordingDto> startRecording(@RequestParam(defaultValue = "profile") String profile,
+                                                             @RequestParam(defaultValue = "60") long seconds)
+            throws URISyntaxException {
+        log.info("REST request to start a {} s JFR recording with profile {}", seconds, profile);
+        FlightRecordingDto result = flightRecordings.start(profile, seconds);
+        return ResponseEntity.created(new URI("/api/admin/profiling/recordings/" + result.getId())).body(result);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<FlightRecordingDto>> getRecordings() {
+        log.info("REST request to get JFR recordings");
+        return ResponseEntity.ok(flightRecordings.list());
+    }
+
+    @GetMapping("/{id}/file")
+    public ResponseEntity<Resource> downloadRecording(@PathVariable long id) {
+        log.info("REST request to download JFR recording {}", id);
+        Path file = flightRecordings.file(id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString())
+                .body(new FileSystemResource(file));
+    }
+
+    @GetMapping("/{id}/summary")
+    public ResponseEntity<FlightRecordingSummaryDto> getSummary(@PathVariable long id,
+                                                                @RequestParam(defaultValue = "10") int limit) {
+        log.info("REST request to summarize JFR recording {}", id);
+        return ResponseEntity.ok(flightRecordings.summarize(id, limit));
+    }
+}
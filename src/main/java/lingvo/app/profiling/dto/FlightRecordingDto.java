@@ -0,0 +1,19 @@
+package lingvo.app.profiling.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightRecordingDto {
+    private long id;
+    private String profile;
+    private String state;
+    private Instant startedAt;
+    private long durationSeconds;
+    private long sizeBytes;
+}
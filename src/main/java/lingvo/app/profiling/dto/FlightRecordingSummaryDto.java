@@ -0,0 +1,19 @@
+package lingvo.app.profiling.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightRecordingSummaryDto {
+    private long id;
+    private String profile;
+    private List<HotspotDto> hotMethods;
+    private List<HotspotDto> allocationSites;
+    private List<HotspotDto> lockContention;
+    private List<HotspotDto> slowRequests;
+}
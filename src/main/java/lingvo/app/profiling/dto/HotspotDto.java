@@ -0,0 +1,18 @@
+package lingvo.app.profiling.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One site of a recording summary. {@code amount} is samples for hot methods, sampled bytes for allocation
+ * sites and milliseconds blocked for lock contention.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotspotDto {
+    private String site;
+    private long events;
+    private long amount;
+}
@@ -0,0 +1,41 @@
+package lingvo.app.sharding;
+
+/**
+ * The shard the current thread works on. Without a shard set, work goes to the {@link #DIRECTORY} shard,
+ * which also holds the global tables (users, roles, bucket assignment). A transaction stays on the shard it
+ * started on: switching inside an open transaction has no effect on its connection.
+ */
+public final class ShardContext {
+
+    public static final int DIRECTORY = 0;
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Restores the previous shard when closed.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard == null ? DIRECTORY : shard;
+    }
+
+    public static Scope use(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,41 @@
+package lingvo.app.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * One connection pool per shard, indexed by shard number; the directory pool is a bean of its own and is
+ * closed by the context, the others are closed here.
+ */
+public class ShardDataSources implements DisposableBean {
+
+    private final List<DataSource> shards;
+
+    public ShardDataSources(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+    }
+
+    public DataSource get(int shard) {
+        return shards.get(shard);
+    }
+
+    public List<DataSource> all() {
+        return shards;
+    }
+
+    public int size() {
+        return shards.size();
+    }
+
+    @Override
+    public void destroy() {
+        shards.stream()
+                .skip(1)
+                .filter(HikariDataSource.class::isInstance)
+                .map(HikariDataSource.class::cast)
+                .forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,185 @@
+package lingvo.app.sharding;
+
+import jakarta.annotation.PostConstruct;
+import lingvo.app.cache.invalidation.CacheInvalidationHandler;
+import lingvo.app.sharding.entity.ShardBucket;
+import lingvo.app.sharding.repository.ShardBucketRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Maps users to shards. A user id hashes to one of {@link #BUCKETS} buckets and the bucket assignment,
+ * stored on the directory shard, names the shard; moving a bucket is therefore a data copy plus one row
+ * update, and never rehashes anyone else. Every node keeps the assignment in memory and reloads it when
+ * another node moves a bucket. With no {@code app.sharding.urls} there is one shard and nothing is read.
+ */
+@Component
+@Slf4j
+public class ShardRouter implements CacheInvalidationHandler {
+
+    private static final int BUCKET_BITS = 10;
+
+    private static final long FIBONACCI_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    public static final int BUCKETS = 1 << BUCKET_BITS;
+
+    /**
+     * Deck and card ids step by this much on every shard (V4 migration), which caps the number of shards.
+     */
+    public static final int MAX_SHARDS = 64;
+
+    public static final String REGION = "shard-buckets";
+
+    private final ShardBucketRepository shardBucketRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int shardCount;
+
+    private volatile int[] assignment = new int[BUCKETS];
+    private volatile BitSet frozen = new BitSet(BUCKETS);
+
+    public ShardRouter(ShardBucketRepository shardBucketRepository,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${app.sharding.urls:}") String shardUrls) {
+        this.shardBucketRepository = shardBucketRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.shardCount = 1 + parseUrls(shardUrls).size();
+    }
+
+    /**
+     * Shards after the directory, which is {@code spring.datasource.url}.
+     */
+    public static List<String> parseUrls(String urls) {
+        return Arrays.stream(urls.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Spreads consecutive ids over all buckets (Fibonacci hashing); stable across nodes and restarts.
+     */
+    public static int bucketOf(long userId) {
+        return (int) ((userId * FIBONACCI_MULTIPLIER) >>> (Long.SIZE - BUCKET_BITS));
+    }
+
+    /**
+     * {@link #bucketOf} as a PostgreSQL expression over a bigint column. The product would overflow bigint, so
+     * it is taken in numeric modulo 2^64, with the column and the multiplier read as unsigned like in Java.
+     */
+    public static String bucketOfSql(String column) {
+        String word = BigInteger.ONE.shiftLeft(Long.SIZE).toString();
+        return "div((" + column + "::numeric % " + word + " + " + word + ") % " + word
+                + " * " + Long.toUnsignedString(FIBONACCI_MULTIPLIER) + " % " + word
+                + ", " + BigInteger.ONE.shiftLeft(Long.SIZE - BUCKET_BITS) + ")";
+    }
+
+    public boolean isEnabled() {
+        return shardCount > 1;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardOf(long userId) {
+        return assignment[bucketOf(userId)];
+    }
+
+    public int shardOfBucket(int bucket) {
+        return assignment[bucket];
+    }
+
+    public boolean isFrozen(long userId) {
+        return frozen.get(bucketOf(userId));
+    }
+
+    /**
+     * Whether a bucket is being moved off the shard. Background workers, which write rows of many users
+     * at once, leave such a shard alone until the move is over.
+     */
+    public boolean hasFrozenBuckets(int shard) {
+        BitSet frozenNow = frozen;
+        int[] assignmentNow = assignment;
+        for (int bucket = frozenNow.nextSetBit(0); bucket >= 0; bucket = frozenNow.nextSetBit(bucket + 1)) {
+            if (assignmentNow[bucket] == shard) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs {@code work} once per shard with that shard as the current one. A failing shard is logged and does
+     * not keep the others from running.
+     */
+    public void forEachShard(IntConsumer work) {
+        for (int shard = 0; shard < shardCount; shard++) {
+            try (ShardContext.Scope ignored = ShardContext.use(shard)) {
+                work.accept(shard);
+            } catch (RuntimeException e) {
+                log.error("Work on shard {} failed", shard, e);
+            }
+        }
+    }
+
+    /**
+     * Loads the bucket assignment from the directory, creating it on first start with every bucket on the
+     * directory, where all data lives before the first move.
+     */
+    @PostConstruct
+    public void reload() {
+        if (!isEnabled()) {
+            return;
+        }
+        List<ShardBucket> buckets;
+        try (ShardContext.Scope ignored = ShardContext.use(ShardContext.DIRECTORY)) {
+            buckets = transactionTemplate.execute(status -> {
+                if (shardBucketRepository.count() == 0) {
+                    shardBucketRepository.saveAll(IntStream.range(0, BUCKETS)
+                            .mapToObj(bucket -> new ShardBucket(bucket, ShardContext.DIRECTORY, false))
+                            .toList());
+                }
+                return shardBucketRepository.findAll();
+            });
+        }
+        int[] nextAssignment = new int[BUCKETS];
+        BitSet nextFrozen = new BitSet(BUCKETS);
+        for (ShardBucket bucket : buckets) {
+            if (bucket.getShard() < 0 || bucket.getShard() >= shardCount) {
+                throw new IllegalStateException("Bucket " + bucket.getBucket() + " is on shard " + bucket.getShard()
+                        + " but only " + shardCount + " shards are configured");
+            }
+            nextAssignment[bucket.getBucket()] = bucket.getShard();
+            nextFrozen.set(bucket.getBucket(), bucket.isFrozen());
+        }
+        assignment = nextAssignment;
+        frozen = nextFrozen;
+        log.info("Loaded bucket assignment for {} shards, {} buckets frozen", shardCount, nextFrozen.cardinality());
+    }
+
+    @Override
+    public Set<String> regions() {
+        return Set.of(REGION);
+    }
+
+    @Override
+    public void evict(String region, Collection<String> keys) {
+        reload();
+    }
+
+    @Override
+    public void evictAll(String region) {
+        reload();
+    }
+}
@@ -0,0 +1,57 @@
+package lingvo.app.sharding;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lingvo.app.auth.service.UserIdCache;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Runs an authenticated request on its user's shard. Writes of users whose bucket is being moved are turned
+ * away with 503 and {@code Retry-After}; reads go on against the old shard until the move switches over.
+ */
+public class ShardSelectionFilter extends OncePerRequestFilter {
+
+    static final String RETRY_AFTER_SECONDS = "5";
+
+    private final ShardRouter shardRouter;
+    private final UserIdCache userIdCache;
+
+    public ShardSelectionFilter(ShardRouter shardRouter, UserIdCache userIdCache) {
+        this.shardRouter = shardRouter;
+        this.userIdCache = userIdCache;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Long userId = shardRouter.isEnabled() ? currentUserId() : null;
+        if (userId == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (shardRouter.isFrozen(userId) && !HttpMethod.GET.matches(request.getMethod())) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS);
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Account data is being moved, retry shortly");
+            return;
+        }
+        try (ShardContext.Scope ignored = ShardContext.use(shardRouter.shardOf(userId))) {
+            filterChain.doFilter(request, response);
+        }
+    }
+
+    private Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return userIdCache.idOf(authentication.getName());
+    }
+}
@@ -0,0 +1,93 @@
+package lingvo.app.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Active only when {@code app.sharding.urls} is set. Shard 0 is the directory at {@code spring.datasource.url},
+ * the listed URLs are shards 1..n; every shard gets its own pool and the full schema. Cannot be combined
+ * with a read replica.
+ */
+@Configuration
+@ConditionalOnProperty("app.sharding.urls")
+public class ShardingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource directoryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ShardDataSources shardDataSources(@Qualifier("directoryDataSource") DataSource directoryDataSource,
+                                             DataSourceProperties properties,
+                                             @Value("${app.sharding.urls}") String shardUrls,
+                                             @Value("${app.sharding.maximum-pool-size:10}") int maximumPoolSize,
+                                             @Value("${app.datasource.replica.url:}") String replicaUrl,
+                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        if (!replicaUrl.isBlank()) {
+            throw new IllegalStateException("app.sharding.urls and app.datasource.replica.url cannot be combined");
+        }
+        List<String> urls = ShardRouter.parseUrls(shardUrls);
+        if (urls.size() + 1 > ShardRouter.MAX_SHARDS) {
+            throw new IllegalStateException("At most " + ShardRouter.MAX_SHARDS + " shards are supported");
+        }
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(directoryDataSource);
+        for (String url : urls) {
+            HikariDataSource shard = new HikariDataSource();
+            shard.setPoolName("shard-" + shards.size());
+            shard.setDriverClassName(properties.determineDriverClassName());
+            shard.setJdbcUrl(url);
+            shard.setUsername(properties.determineUsername());
+            shard.setPassword(properties.determinePassword());
+            shard.setMaximumPoolSize(maximumPoolSize);
+            // Not a bean, so Spring Boot does not bind its hikaricp.* metrics
+            meterRegistry.ifAvailable(shard::setMetricRegistry);
+            shards.add(shard);
+        }
+        return new ShardDataSources(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardDataSources shardDataSources) {
+        return new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(shardDataSources.all()));
+    }
+
+    /**
+     * Boot migrates the primary data source, which resolves to the directory; the other shards are migrated
+     * with the same settings and their own {@code shard_index}, which V4 uses to interleave their ids.
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(ShardDataSources shardDataSources) {
+        return flyway -> {
+            flyway.migrate();
+            for (int shard = 1; shard < shardDataSources.size(); shard++) {
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shardDataSources.get(shard))
+                        .placeholders(Map.of("shard_index", String.valueOf(shard)))
+                        .load()
+                        .migrate();
+            }
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package lingvo.app.sharding.controller;
+
+import lingvo.app.sharding.dto.BucketMoveResultDto;
+import lingvo.app.sharding.dto.ShardSummaryDto;
+import lingvo.app.sharding.service.BucketMigrationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/shards")
+@ConditionalOnProperty("app.sharding.urls")
+@RequiredArgsConstructor
+@Slf4j
+public class ShardController {
+
+    private final BucketMigrationService bucketMigrationService;
+
+    @GetMapping
+    public ResponseEntity<List<ShardSummaryDto>> getShards() {
+        log.info("REST request to get shard bucket counts");
+        return ResponseEntity.ok(bucketMigrationService.getSummary());
+    }
+
+    @PostMapping("/buckets/{bucket}/move")
+    public ResponseEntity<BucketMoveResultDto> moveBucket(@PathVariable int bucket, @RequestParam int shard) {
+        log.info("REST request to move bucket {} to shard {}", bucket, shard);
+        return ResponseEntity.ok(bucketMigrationService.moveBucket(bucket, shard));
+    }
+}
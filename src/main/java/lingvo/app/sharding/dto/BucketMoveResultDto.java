@@ -0,0 +1,18 @@
+package lingvo.app.sharding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BucketMoveResultDto {
+    private int bucket;
+    private int fromShard;
+    private int toShard;
+    private int users;
+    private Map<String, Integer> copiedRows;
+}
@@ -0,0 +1,14 @@
+package lingvo.app.sharding.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardSummaryDto {
+    private int shard;
+    private long buckets;
+    private long frozenBuckets;
+}
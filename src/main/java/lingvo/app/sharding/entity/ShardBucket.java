@@ -0,0 +1,32 @@
+package lingvo.app.sharding.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Which shard one of the {@link lingvo.app.sharding.ShardRouter#BUCKETS} user buckets lives on. Only the
+ * rows on the directory shard are read. A frozen bucket is being moved and accepts no writes.
+ */
+@Entity
+@Table(name = "t_shard_bucket")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ShardBucket {
+
+    @Id
+    private Integer bucket;
+
+    @Column(nullable = false)
+    private int shard;
+
+    @Column(nullable = false)
+    private boolean frozen;
+}
@@ -0,0 +1,7 @@
+package lingvo.app.sharding.repository;
+
+import lingvo.app.sharding.entity.ShardBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ShardBucketRepository extends JpaRepository<ShardBucket, Integer> {
+}
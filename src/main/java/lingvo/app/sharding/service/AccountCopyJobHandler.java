@@ -0,0 +1,37 @@
+package lingvo.app.sharding.service;
+
+import lingvo.app.jobs.entity.OutboxJob;
+import lingvo.app.jobs.service.JobHandler;
+import lingvo.app.jobs.service.OutboxService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Copies new accounts to their home shard. The job is recorded with the signup, so a copy that failed right
+ * after it is retried until the account is in place; accounts already there are left alone.
+ */
+@Component
+@ConditionalOnProperty("app.sharding.urls")
+@RequiredArgsConstructor
+public class AccountCopyJobHandler implements JobHandler {
+
+    public static final String TYPE = "ACCOUNT_COPY";
+
+    private final BucketMigrationService bucketMigrationService;
+    private final OutboxService outboxService;
+
+    @Override
+    public String type() {
+        return TYPE;
+    }
+
+    @Override
+    public void handle(List<OutboxJob> jobs) {
+        for (OutboxJob job : jobs) {
+            bucketMigrationService.copyAccount(outboxService.readPayload(job, AccountCopyPayload.class).userId());
+        }
+    }
+}
@@ -0,0 +1,4 @@
+package lingvo.app.sharding.service;
+
+public record AccountCopyPayload(long userId) {
+}
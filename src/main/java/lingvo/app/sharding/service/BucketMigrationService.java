@@ -0,0 +1,386 @@
+package lingvo.app.sharding.service;
+
+import io.micrometer.core.annotation.Timed;
+import lingvo.app.auth.service.UserCreatedEvent;
+import lingvo.app.cache.invalidation.CacheInvalidationBus;
+import lingvo.app.jobs.service.OutboxService;
+import lingvo.app.sharding.ShardContext;
+import lingvo.app.sharding.ShardDataSources;
+import lingvo.app.sharding.ShardRouter;
+import lingvo.app.sharding.dto.BucketMoveResultDto;
+import lingvo.app.sharding.dto.ShardSummaryDto;
+import lingvo.app.sharding.entity.ShardBucket;
+import lingvo.app.sharding.repository.ShardBucketRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Moves user buckets between shards and places new users on their home shard. A move freezes the bucket,
+ * which also pauses the background workers of the source shard, waits for requests already past the filter,
+ * copies the bucket's rows to the target in one transaction, checks that the source still has exactly the
+ * copied rows, switches the assignment and only then deletes the rows from the source. Until the switch the
+ * source stays authoritative, so a failed move is simply retried.
+ */
+@Service
+@Timed("lingvo.service")
+@ConditionalOnProperty("app.sharding.urls")
+@Slf4j
+public class BucketMigrationService {
+
+    private static final int INSERT_BATCH_SIZE = 500;
+
+    private static final String DECKS_OF_USERS = "SELECT id FROM t_deck WHERE created_by_user_id = ANY(?)";
+    private static final String CARDS_OF_USERS = "SELECT id FROM t_flashcard WHERE owner_id = ANY(?) OR deck_id IN ("
+            + DECKS_OF_USERS + ")";
+
+    /**
+     * Rows that point from the bucket's users to other users' data or back. Any such row would dangle on one
+     * of the two shards after the move.
+     */
+    private static final List<String> CROSS_USER_CHECKS = List.of(
+            "SELECT count(*) FROM user_decks ud JOIN t_deck d ON d.id = ud.deck_id"
+                    + " WHERE (ud.user_id = ANY(?)) <> coalesce(d.created_by_user_id = ANY(?), false)",
+            "SELECT count(*) FROM t_flashcard f JOIN t_deck d ON d.id = f.deck_id"
+                    + " WHERE coalesce(f.owner_id = ANY(?), false) <> coalesce(d.created_by_user_id = ANY(?), false)",
+            "SELECT count(*) FROM t_flashcard f JOIN t_flashcard s ON s.id = f.source_card_id AND s.deck_id = f.deck_id"
+                    + " WHERE coalesce(f.owner_id = ANY(?), false) <> coalesce(s.owner_id = ANY(?), false)",
+            "SELECT count(*) FROM t_card_progress p JOIN t_deck d ON d.id = p.deck_id"
+                    + " WHERE (p.user_id = ANY(?)) <> coalesce(d.created_by_user_id = ANY(?), false)");
+
+    private enum Kind {
+        /**
+         * Same rows on every shard; copied where missing, never deleted.
+         */
+        REFERENCE,
+        /**
+         * Account rows; the directory always keeps its copy.
+         */
+        USER,
+        DATA
+    }
+
+    /**
+     * The rows of one table that belong to a set of users; every parameter is the same {@code bigint[]} of
+     * user ids. Tables whose ids are not interleaved across shards are copied without their id column.
+     */
+    private record Slice(String table, String where, Kind kind, boolean copiesId) {
+
+        Slice(String table, String where, Kind kind) {
+            this(table, where, kind, true);
+        }
+
+        Object[] arguments(Long[] userIds) {
+            Object[] arguments = new Object[(int) where.chars().filter(c -> c == '?').count()];
+            Arrays.fill(arguments, userIds);
+            return arguments;
+        }
+    }
+
+    /**
+     * In foreign key order: copies run top to bottom, deletes bottom to top.
+     */
+    private static final List<Slice> SLICES = List.of(
+            new Slice("t_role", "id IN (SELECT role_id FROM user_roles WHERE user_id = ANY(?))", Kind.REFERENCE),
+            new Slice("t_user", "id = ANY(?)", Kind.USER),
+            new Slice("user_roles", "user_id = ANY(?)", Kind.USER),
+            new Slice("user_languages", "user_id = ANY(?)", Kind.USER),
+            new Slice("t_deck", "created_by_user_id = ANY(?)", Kind.DATA),
+            new Slice("t_deck_stats", "deck_id IN (" + DECKS_OF_USERS + ")", Kind.DATA),
+            new Slice("t_flashcard", "id IN (" + CARDS_OF_USERS + ")", Kind.DATA),
+            new Slice("t_selected_translation", "flashcard_id IN (" + CARDS_OF_USERS + ")", Kind.DATA),
+            new Slice("usage_example", "flashcard_id IN (" + CARDS_OF_USERS + ")", Kind.DATA),
+            new Slice("t_card_progress", "user_id = ANY(?)", Kind.DATA),
+            new Slice("t_progress_submission", "user_id = ANY(?)", Kind.DATA),
+            new Slice("user_decks", "user_id = ANY(?)", Kind.DATA),
+            new Slice("t_outbox_job", "user_id = ANY(?)", Kind.DATA, false));
+
+    private final ShardRouter shardRouter;
+    private final ShardDataSources shardDataSources;
+    private final ShardBucketRepository shardBucketRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final OutboxService outboxService;
+    private final long graceMillis;
+
+    public BucketMigrationService(ShardRouter shardRouter,
+                                  ShardDataSources shardDataSources,
+                                  ShardBucketRepository shardBucketRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  CacheInvalidationBus cacheInvalidationBus,
+                                  OutboxService outboxService,
+                                  @Value("${app.sharding.move-grace-ms:10000}") long graceMillis) {
+        this.shardRouter = shardRouter;
+        this.shardDataSources = shardDataSources;
+        this.shardBucketRepository = shardBucketRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.outboxService = outboxService;
+        this.graceMillis = graceMillis;
+    }
+
+    public List<ShardSummaryDto> getSummary() {
+        List<ShardBucket> buckets;
+        try (ShardContext.Scope ignored = ShardContext.use(ShardContext.DIRECTORY)) {
+            buckets = shardBucketRepository.findAll();
+        }
+        Map<Integer, List<ShardBucket>> byShard = buckets.stream()
+                .collect(Collectors.groupingBy(ShardBucket::getShard));
+        List<ShardSummaryDto> summary = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+            List<ShardBucket> onShard = byShard.getOrDefault(shard, List.of());
+            summary.add(new ShardSummaryDto(shard, onShard.size(),
+                    onShard.stream().filter(ShardBucket::isFrozen).count()));
+        }
+        return summary;
+    }
+
+    /**
+     * Records the copy of a new user's account rows to its home shard in the signup transaction, so a copy
+     * that fails is retried by the outbox instead of leaving the user without an account on that shard.
+     */
+    @EventListener
+    public void onUserCreated(UserCreatedEvent event) {
+        if (shardRouter.shardOf(event.userId()) != ShardContext.DIRECTORY) {
+            outboxService.enqueue(AccountCopyJobHandler.TYPE, new AccountCopyPayload(event.userId()));
+        }
+    }
+
+    /**
+     * Tries the copy as soon as the signup committed, so the account is usually in place before the user's
+     * first request reaches the home shard; the recorded job finds it there and does nothing.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void afterUserCreated(UserCreatedEvent event) {
+        try {
+            copyAccount(event.userId());
+        } catch (RuntimeException e) {
+            log.warn("Copy of account {} to its home shard failed, leaving it to the outbox: {}",
+                    event.userId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Copies the account rows of a user from the directory to its home shard unless they are there already.
+     * While the user's bucket is being moved the copy is refused, since the move might miss it.
+     */
+    public void copyAccount(long userId) {
+        int shard = shardRouter.shardOf(userId);
+        if (shard == ShardContext.DIRECTORY) {
+            return;
+        }
+        if (shardRouter.isFrozen(userId)) {
+            throw new IllegalStateException("Bucket of user " + userId + " is being moved");
+        }
+        Long[] userIds = {userId};
+        inTransaction(shard, target -> {
+            Long existing = target.queryForObject("SELECT count(*) FROM t_user WHERE id = ?", Long.class, userId);
+            if (existing != null && existing > 0) {
+                return null;
+            }
+            SLICES.stream()
+                    .filter(slice -> slice.kind() != Kind.DATA)
+                    .forEach(slice -> copy(slice, jdbc(ShardContext.DIRECTORY), target, userIds));
+            return null;
+        });
+    }
+
+    public BucketMoveResultDto moveBucket(int bucket, int targetShard) {
+        if (bucket < 0 || bucket >= ShardRouter.BUCKETS) {
+            throw new IllegalArgumentException("Bucket must be between 0 and " + (ShardRouter.BUCKETS - 1));
+        }
+        if (targetShard < 0 || targetShard >= shardRouter.shardCount()) {
+            throw new IllegalArgumentException("Shard must be between 0 and " + (shardRouter.shardCount() - 1));
+        }
+        int sourceShard = shardRouter.shardOfBucket(bucket);
+        if (sourceShard == targetShard) {
+            throw new IllegalArgumentException("Bucket " + bucket + " is already on shard " + targetShard);
+        }
+
+        updateAssignment(bucket, sourceShard, true);
+        Map<String, Integer> copied;
+        Long[] userIds;
+        try {
+            Thread.sleep(graceMillis);
+            userIds = usersOf(bucket);
+            checkNoCrossUserRows(sourceShard, userIds);
+            copied = inTransaction(targetShard, target -> {
+                Map<String, Integer> counts = new LinkedHashMap<>();
+                // Leftovers of an earlier attempt that copied but never switched over
+                for (Slice slice : reversed(copiedSlices(targetShard))) {
+                    if (slice.kind() != Kind.REFERENCE) {
+                        delete(slice, target, userIds);
+                    }
+                }
+                Map<String, String> fingerprints = fingerprints(sourceShard, copiedSlices(targetShard), userIds);
+                for (Slice slice : copiedSlices(targetShard)) {
+                    counts.put(slice.table(), copy(slice, jdbc(sourceShard), target, userIds));
+                }
+                checkUnchanged(sourceShard, fingerprints, userIds);
+                return counts;
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            updateAssignment(bucket, sourceShard, false);
+            throw new IllegalStateException("Move of bucket " + bucket + " was interrupted", e);
+        } catch (RuntimeException e) {
+            updateAssignment(bucket, sourceShard, false);
+            throw e;
+        }
+        updateAssignment(bucket, targetShard, false);
+
+        inTransaction(sourceShard, source -> {
+            for (Slice slice : reversed(SLICES)) {
+                if (slice.kind() == Kind.DATA || (slice.kind() == Kind.USER && sourceShard != ShardContext.DIRECTORY)) {
+                    delete(slice, source, userIds);
+                }
+            }
+            return null;
+        });
+        log.info("Moved bucket {} with {} users from shard {} to shard {}", bucket, userIds.length, sourceShard, targetShard);
+        return new BucketMoveResultDto(bucket, sourceShard, targetShard, userIds.length, copied);
+    }
+
+    private void updateAssignment(int bucket, int shard, boolean frozen) {
+        try (ShardContext.Scope ignored = ShardContext.use(ShardContext.DIRECTORY)) {
+            transactionTemplate.executeWithoutResult(status -> {
+                ShardBucket shardBucket = shardBucketRepository.findById(bucket)
+                        .orElseThrow(() -> new IllegalStateException("Bucket " + bucket + " is not assigned"));
+                shardBucket.setShard(shard);
+                shardBucket.setFrozen(frozen);
+                cacheInvalidationBus.publishAll(ShardRouter.REGION);
+            });
+        }
+        shardRouter.reload();
+    }
+
+    /**
+     * Every user is on the directory, so the bucket's members are read there; the bucket is computed by the
+     * database, so only the members are sent back.
+     */
+    private Long[] usersOf(int bucket) {
+        return jdbc(ShardContext.DIRECTORY).queryForList(
+                        "SELECT id FROM t_user WHERE " + ShardRouter.bucketOfSql("id") + " = ?", Long.class, bucket)
+                .toArray(Long[]::new);
+    }
+
+    private void checkNoCrossUserRows(int shard, Long[] userIds) {
+        JdbcTemplate source = jdbc(shard);
+        for (String check : CROSS_USER_CHECKS) {
+            Long rows = source.queryForObject(check, Long.class, (Object) userIds, userIds);
+            if (rows != null && rows > 0) {
+                throw new IllegalStateException("Bucket users share decks, cards or progress with users outside"
+                        + " the bucket; the bucket cannot be moved");
+            }
+        }
+    }
+
+    /**
+     * Row count and a sum of row hashes per slice. The hash covers every column, version and change_txid
+     * included, so an update that keeps the count still changes the fingerprint.
+     */
+    private Map<String, String> fingerprints(int shard, List<Slice> slices, Long[] userIds) {
+        JdbcTemplate source = jdbc(shard);
+        Map<String, String> fingerprints = new LinkedHashMap<>();
+        for (Slice slice : slices) {
+            fingerprints.put(slice.table(), source.queryForObject(
+                    "SELECT count(*) || '/' || coalesce(sum(hashtextextended(r::text, 0)), 0) FROM " + slice.table()
+                            + " r WHERE " + slice.where(), String.class, slice.arguments(userIds)));
+        }
+        return fingerprints;
+    }
+
+    /**
+     * A write that slipped past the freeze (a request or job that outlived the grace period) would be lost
+     * with the source rows; such a move is rolled back instead and can be retried. The source is fingerprinted
+     * before the copy and again after it, so any insert, update or delete in between shows up.
+     */
+    private void checkUnchanged(int sourceShard, Map<String, String> before, Long[] userIds) {
+        List<Slice> slices = SLICES.stream().filter(slice -> before.containsKey(slice.table())).toList();
+        Map<String, String> after = fingerprints(sourceShard, slices, userIds);
+        for (Slice slice : slices) {
+            if (!before.get(slice.table()).equals(after.get(slice.table()))) {
+                throw new IllegalStateException("Rows of " + slice.table() + " changed on shard " + sourceShard
+                        + " during the copy; retry the move");
+            }
+        }
+    }
+
+    /**
+     * The directory already holds every account, so only the data is copied there.
+     */
+    private static List<Slice> copiedSlices(int targetShard) {
+        return SLICES.stream()
+                .filter(slice -> slice.kind() == Kind.DATA || targetShard != ShardContext.DIRECTORY)
+                .toList();
+    }
+
+    private static int copy(Slice slice, JdbcTemplate source, JdbcTemplate target, Long[] userIds) {
+        List<String> columns = new ArrayList<>();
+        List<Object[]> rows = source.query("SELECT * FROM " + slice.table() + " WHERE " + slice.where(), rs -> {
+            ResultSetMetaData metaData = rs.getMetaData();
+            List<Integer> indexes = new ArrayList<>();
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                if (slice.copiesId() || !metaData.getColumnName(i).equals("id")) {
+                    columns.add(metaData.getColumnName(i));
+                    indexes.add(i);
+                }
+            }
+            List<Object[]> result = new ArrayList<>();
+            while (rs.next()) {
+                Object[] row = new Object[columns.size()];
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = rs.getObject(indexes.get(i));
+                }
+                result.add(row);
+            }
+            return result;
+        }, slice.arguments(userIds));
+        if (rows == null || rows.isEmpty()) {
+            return 0;
+        }
+        String insert = "INSERT INTO " + slice.table() + " (" + String.join(", ", columns) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columns.size(), "?")) + ")"
+                + (slice.kind() == Kind.REFERENCE ? " ON CONFLICT DO NOTHING" : "");
+        for (int from = 0; from < rows.size(); from += INSERT_BATCH_SIZE) {
+            target.batchUpdate(insert, rows.subList(from, Math.min(from + INSERT_BATCH_SIZE, rows.size())));
+        }
+        return rows.size();
+    }
+
+    private static void delete(Slice slice, JdbcTemplate jdbcTemplate, Long[] userIds) {
+        jdbcTemplate.update("DELETE FROM " + slice.table() + " WHERE " + slice.where(), slice.arguments(userIds));
+    }
+
+    private <T> T inTransaction(int shard, Function<JdbcTemplate, T> work) {
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(shardDataSources.get(shard));
+        return new TransactionTemplate(transactionManager).execute(status -> work.apply(jdbc(shard)));
+    }
+
+    private JdbcTemplate jdbc(int shard) {
+        return new JdbcTemplate(shardDataSources.get(shard));
+    }
+
+    private static List<Slice> reversed(List<Slice> slices) {
+        List<Slice> copy = new ArrayList<>(slices);
+        Collections.reverse(copy);
+        return copy;
+    }
+}
@@ -0,0 +1,39 @@
+package lingvo.app.sql;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the primary {@code dataSource} bean, whichever configuration defines it, so every statement reaches
+ * the {@link SqlStatementRecorder}. The pools behind it are left as they are. Replaces
+ * {@code spring.jpa.show-sql}, which printed every statement synchronously.
+ */
+@Component
+public class SqlProxyDataSourcePostProcessor implements BeanPostProcessor {
+
+    static final String DATA_SOURCE_BEAN = "dataSource";
+
+    private final ObjectProvider<SqlStatementRecorder> recorder;
+    private final boolean enabled;
+
+    public SqlProxyDataSourcePostProcessor(ObjectProvider<SqlStatementRecorder> recorder,
+                                           @Value("${app.sql.metrics-enabled:true}") boolean enabled) {
+        this.recorder = recorder;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!enabled || !DATA_SOURCE_BEAN.equals(beanName) || !(bean instanceof DataSource dataSource)) {
+            return bean;
+        }
+        return ProxyDataSourceBuilder.create(DATA_SOURCE_BEAN, dataSource)
+                .listener(recorder.getObject())
+                .build();
+    }
+}
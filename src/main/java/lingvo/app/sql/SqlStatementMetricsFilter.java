@@ -0,0 +1,54 @@
+package lingvo.app.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records the statements each request ran as {@code lingvo.http.sql.statements}, tagged like
+ * {@code http.server.requests} by method and URI pattern, so an N+1 regression shows up as a jump in one
+ * endpoint's percentiles. Runs ahead of Spring Security, so the user lookup of the JWT filter counts too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SqlStatementMetricsFilter extends OncePerRequestFilter {
+
+    static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final SqlStatementRecorder recorder;
+    private final MeterRegistry meterRegistry;
+
+    public SqlStatementMetricsFilter(SqlStatementRecorder recorder, MeterRegistry meterRegistry) {
+        this.recorder = recorder;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        recorder.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int statements = recorder.end();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("lingvo.http.sql.statements")
+                    .description("SQL statements run by one request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern == null ? UNKNOWN_URI : pattern.toString())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(statements);
+        }
+    }
+}
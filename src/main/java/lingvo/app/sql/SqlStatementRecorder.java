@@ -0,0 +1,91 @@
+package lingvo.app.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Sees every statement sent through the primary {@code DataSource}. Counts them for the request running on
+ * the current thread, if any, one per execution (a batch is one round trip). Statements slower than
+ * {@code app.sql.slow-query-ms} are counted as {@code lingvo.sql.slow}, and a {@code slow-query-sample-rate}
+ * fraction of them is logged. Bind parameters are never logged, and literals written into the SQL text are
+ * replaced by {@code ?}.
+ */
+@Component
+@Slf4j
+public class SqlStatementRecorder implements QueryExecutionListener {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+    private static final ThreadLocal<int[]> STATEMENTS = new ThreadLocal<>();
+
+    private final Counter slowQueries;
+    private final long slowQueryMillis;
+    private final double sampleRate;
+
+    public SqlStatementRecorder(MeterRegistry meterRegistry,
+                                @Value("${app.sql.slow-query-ms:200}") long slowQueryMillis,
+                                @Value("${app.sql.slow-query-sample-rate:1.0}") double sampleRate) {
+        this.slowQueries = Counter.builder("lingvo.sql.slow")
+                .description("Statements slower than app.sql.slow-query-ms, logged or not")
+                .register(meterRegistry);
+        this.slowQueryMillis = slowQueryMillis;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Starts counting for the current thread; pair with {@link #end()} in a {@code finally} block.
+     */
+    public void begin() {
+        STATEMENTS.set(new int[1]);
+    }
+
+    /**
+     * Stops counting for the current thread and returns the statements counted since {@link #begin()}.
+     */
+    public int end() {
+        int[] statements = STATEMENTS.get();
+        STATEMENTS.remove();
+        return statements == null ? 0 : statements[0];
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        int[] statements = STATEMENTS.get();
+        if (statements != null) {
+            statements[0]++;
+        }
+        long elapsed = execInfo.getElapsedTime();
+        if (elapsed < slowQueryMillis) {
+            return;
+        }
+        slowQueries.increment();
+        if (sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            String sql = queryInfoList.stream()
+                    .map(queryInfo -> redact(queryInfo.getQuery()))
+                    .collect(Collectors.joining("; "));
+            log.warn("Slow SQL ({} ms{}): {}", elapsed, execInfo.isBatch() ? ", batch of " + execInfo.getBatchSize() : "",
+                    sql);
+        }
+    }
+
+    static String redact(String sql) {
+        String withoutStrings = STRING_LITERAL.matcher(sql).replaceAll("?");
+        return NUMBER_LITERAL.matcher(withoutStrings).replaceAll("?");
+    }
+}
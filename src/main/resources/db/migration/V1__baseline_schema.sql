@@ -0,0 +1,161 @@
+-- Schema as Hibernate generated it from the entities under ddl-auto=create, plus the change tracking
+-- that used to live in schema.sql. From here on every schema change is a new migration; Hibernate only
+-- validates (spring.jpa.hibernate.ddl-auto=validate).
+
+CREATE TABLE t_role (
+    id   bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name varchar(255) NOT NULL UNIQUE
+        CHECK (name IN ('USER', 'PRIVILEGED_USER', 'ADMINISTRATOR', 'SUPER_ADMINISTRATOR'))
+);
+
+CREATE TABLE t_user (
+    id                 bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username           varchar(20)  NOT NULL UNIQUE,
+    password           varchar(255) NOT NULL,
+    email              varchar(255) NOT NULL UNIQUE,
+    preferred_language varchar(255) NOT NULL
+        CHECK (preferred_language IN ('ENGLISH', 'GERMAN', 'FRENCH', 'SPANISH', 'ITALIAN', 'RUSSIAN', 'UKRAINIAN'))
+);
+
+CREATE TABLE user_roles (
+    user_id bigint NOT NULL REFERENCES t_user (id),
+    role_id bigint NOT NULL REFERENCES t_role (id),
+    PRIMARY KEY (user_id, role_id)
+);
+
+CREATE TABLE user_languages (
+    user_id  bigint NOT NULL REFERENCES t_user (id),
+    language varchar(255)
+        CHECK (language IN ('ENGLISH', 'GERMAN', 'FRENCH', 'SPANISH', 'ITALIAN', 'RUSSIAN', 'UKRAINIAN'))
+);
+
+CREATE TABLE t_deck (
+    id                 bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title              varchar(255) NOT NULL,
+    title_normalized   varchar(255) COLLATE "C" NOT NULL,
+    language           varchar(255) NOT NULL
+        CHECK (language IN ('ENGLISH', 'GERMAN', 'FRENCH', 'SPANISH', 'ITALIAN', 'RUSSIAN', 'UKRAINIAN')),
+    created_by_user_id bigint REFERENCES t_user (id),
+    is_public          boolean      NOT NULL,
+    favorite_count     bigint       NOT NULL,
+    created_at         timestamp(6) NOT NULL,
+    version            bigint       NOT NULL,
+    updated_at         timestamp(6) NOT NULL,
+    cards_version      bigint       NOT NULL,
+    cards_updated_at   timestamp(6),
+    deleted            boolean      NOT NULL,
+    change_txid        bigint       NOT NULL,
+    change_seq         bigint       NOT NULL
+);
+
+CREATE INDEX idx_deck_owner_change ON t_deck (created_by_user_id, change_txid, change_seq);
+CREATE INDEX idx_deck_catalog ON t_deck (is_public, language, favorite_count DESC, id);
+CREATE INDEX idx_deck_owner_title ON t_deck (created_by_user_id, language, title_normalized, id);
+
+CREATE TABLE user_decks (
+    user_id bigint NOT NULL REFERENCES t_user (id),
+    deck_id bigint NOT NULL REFERENCES t_deck (id),
+    PRIMARY KEY (user_id, deck_id)
+);
+
+CREATE TABLE t_flashcard (
+    id                  bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    word                varchar(255) NOT NULL,
+    translation_per_api varchar(255),
+    deck_id             bigint       NOT NULL REFERENCES t_deck (id),
+    source_card_id      bigint,
+    owner_id            bigint,
+    created_at          timestamp(6) NOT NULL,
+    last_review_at      timestamp(6),
+    next_review_at      timestamp(6),
+    review_count        integer      NOT NULL,
+    difficult_factor    float(53)    NOT NULL,
+    enriched_at         timestamp(6),
+    version             bigint       NOT NULL,
+    updated_at          timestamp(6) NOT NULL,
+    deleted             boolean      NOT NULL,
+    change_txid         bigint       NOT NULL,
+    change_seq          bigint       NOT NULL
+);
+
+CREATE INDEX idx_flashcard_owner_change ON t_flashcard (owner_id, change_txid, change_seq);
+CREATE INDEX idx_flashcard_owner_deck ON t_flashcard (owner_id, deck_id, id);
+CREATE INDEX idx_flashcard_owner_word ON t_flashcard (owner_id, word);
+CREATE INDEX idx_flashcard_owner_next_review ON t_flashcard (owner_id, next_review_at);
+CREATE INDEX idx_flashcard_deck ON t_flashcard (deck_id);
+CREATE INDEX idx_flashcard_source_owner ON t_flashcard (source_card_id, owner_id);
+
+CREATE TABLE t_selected_translation (
+    flashcard_id bigint NOT NULL REFERENCES t_flashcard (id),
+    translation  varchar(25)
+);
+
+CREATE TABLE usage_example (
+    flashcard_id bigint NOT NULL REFERENCES t_flashcard (id),
+    example      varchar(99)
+);
+
+CREATE TABLE t_card_progress (
+    user_id          bigint       NOT NULL,
+    card_id          bigint       NOT NULL,
+    deck_id          bigint       NOT NULL,
+    last_review_at   timestamp(6),
+    next_review_at   timestamp(6),
+    review_count     integer      NOT NULL,
+    difficult_factor float(53)    NOT NULL,
+    version          bigint       NOT NULL,
+    updated_at       timestamp(6) NOT NULL,
+    PRIMARY KEY (user_id, card_id)
+);
+
+CREATE INDEX idx_card_progress_user_deck ON t_card_progress (user_id, deck_id);
+
+CREATE TABLE t_deck_stats (
+    deck_id         bigint       PRIMARY KEY,
+    card_count      bigint       NOT NULL,
+    due_count       bigint       NOT NULL,
+    difficulty_sum  float(53)    NOT NULL,
+    last_studied_at timestamp(6),
+    next_due_at     timestamp(6),
+    pending_changes integer      NOT NULL,
+    revision        bigint       NOT NULL,
+    updated_at      timestamp(6) NOT NULL
+);
+
+CREATE INDEX idx_deck_stats_next_due ON t_deck_stats (next_due_at);
+
+CREATE TABLE t_outbox_job (
+    id           bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    type         varchar(64)   NOT NULL,
+    payload      text          NOT NULL,
+    status       varchar(16)   NOT NULL CHECK (status IN ('PENDING', 'RUNNING', 'FAILED')),
+    attempts     integer       NOT NULL,
+    available_at timestamp(6)  NOT NULL,
+    locked_by    varchar(128),
+    locked_until timestamp(6),
+    last_error   varchar(1000),
+    created_at   timestamp(6)  NOT NULL
+);
+
+CREATE SEQUENCE t_change_seq;
+
+-- Stamps a row with the writing transaction id and a global change sequence on insert and
+-- whenever its version changes. Sync pages are ordered by (change_txid, change_seq).
+CREATE FUNCTION track_change() RETURNS trigger AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' THEN
+        IF NEW.version IS NOT DISTINCT FROM OLD.version THEN
+            RETURN NEW;
+        END IF;
+    END IF;
+    NEW.change_seq := nextval('t_change_seq');
+    NEW.change_txid := pg_current_xact_id()::text::bigint;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER t_deck_track_change BEFORE INSERT OR UPDATE ON t_deck
+    FOR EACH ROW EXECUTE FUNCTION track_change();
+
+CREATE TRIGGER t_flashcard_track_change BEFORE INSERT OR UPDATE ON t_flashcard
+    FOR EACH ROW EXECUTE FUNCTION track_change();
@@ -0,0 +1,22 @@
+-- t_flashcard.deck_id is covered by idx_flashcard_deck and t_deck.created_by_user_id by the leading
+-- column of idx_deck_owner_change; title lookups go through title_normalized (idx_deck_owner_title).
+
+-- Due cards: findDue never returns tombstones.
+DROP INDEX idx_flashcard_owner_next_review;
+CREATE INDEX idx_flashcard_owner_due ON t_flashcard (owner_id, next_review_at) WHERE deleted = false;
+
+DROP INDEX idx_deck_stats_next_due;
+CREATE INDEX idx_deck_stats_next_due ON t_deck_stats (next_due_at) WHERE next_due_at IS NOT NULL;
+CREATE INDEX idx_deck_stats_pending ON t_deck_stats (deck_id) WHERE pending_changes > 0;
+
+-- Only pending and running jobs are ever claimed; failed ones stay out of the index.
+CREATE INDEX idx_outbox_job_runnable ON t_outbox_job (id) WHERE status IN ('PENDING', 'RUNNING');
+
+-- Foreign keys that are not the leading column of a primary key. Without these, loading or deleting a
+-- card's element collections and removing a deck from favorites scan the whole table.
+CREATE INDEX idx_selected_translation_flashcard ON t_selected_translation (flashcard_id);
+CREATE INDEX idx_usage_example_flashcard ON usage_example (flashcard_id);
+CREATE INDEX idx_user_languages_user ON user_languages (user_id);
+CREATE INDEX idx_user_roles_role ON user_roles (role_id);
+CREATE INDEX idx_user_decks_deck ON user_decks (deck_id);
+CREATE INDEX idx_card_progress_card ON t_card_progress (card_id);
@@ -0,0 +1,18 @@
+-- Every card write bumps its deck's card-list version. On t_deck that bulk update evicts the whole
+-- second-level cache region of Deck, so the version moves to the per-deck stats row.
+
+ALTER TABLE t_deck_stats ADD COLUMN cards_version bigint NOT NULL DEFAULT 0;
+ALTER TABLE t_deck_stats ADD COLUMN cards_updated_at timestamp(6);
+
+-- Decks without a stats row get one; pending_changes makes the next rollup fill in the counts.
+INSERT INTO t_deck_stats (deck_id, card_count, due_count, difficulty_sum, pending_changes, revision, updated_at)
+SELECT d.id, 0, 0, 0, 1, 0, now()
+FROM t_deck d
+WHERE NOT EXISTS (SELECT 1 FROM t_deck_stats s WHERE s.deck_id = d.id);
+
+UPDATE t_deck_stats s
+SET cards_version = d.cards_version, cards_updated_at = d.cards_updated_at
+FROM t_deck d
+WHERE d.id = s.deck_id;
+
+ALTER TABLE t_deck DROP COLUMN cards_version, DROP COLUMN cards_updated_at;
@@ -0,0 +1,22 @@
+-- User bucket -> shard assignment; only the directory shard's rows are read (see ShardRouter).
+CREATE TABLE t_shard_bucket (
+    bucket integer PRIMARY KEY,
+    shard  integer NOT NULL,
+    frozen boolean NOT NULL
+);
+
+-- Deck and card ids are interleaved across shards: every shard steps by 64 from its own residue
+-- (shard_index + 1), so rows keep their ids when a user bucket moves and cached ids stay unique.
+-- Without sharding shard_index is 0 and ids merely become sparser.
+DO $$
+DECLARE
+    t text;
+    next_id bigint;
+BEGIN
+    FOREACH t IN ARRAY ARRAY['t_deck', 't_flashcard'] LOOP
+        EXECUTE format('SELECT (coalesce(max(id), 0) / 64 + 1) * 64 + %s FROM %I', ${shard_index} + 1, t)
+            INTO next_id;
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN id SET INCREMENT BY 64 RESTART WITH %s', t, next_id);
+    END LOOP;
+END
+$$;
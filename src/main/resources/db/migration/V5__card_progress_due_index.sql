@@ -0,0 +1,3 @@
+-- Due cards of shared decks: per-user progress is read like idx_flashcard_owner_due reads own cards.
+-- Progress rows are deleted rather than tombstoned, so the index needs no predicate.
+CREATE INDEX idx_card_progress_user_due ON t_card_progress (user_id, next_review_at);
@@ -0,0 +1,3 @@
+-- Jobs that work on one user's data move with that user's bucket (see BucketMigrationService).
+ALTER TABLE t_outbox_job ADD COLUMN user_id bigint;
+CREATE INDEX idx_outbox_job_user ON t_outbox_job (user_id) WHERE user_id IS NOT NULL;
@@ -0,0 +1,7 @@
+-- Stamped on the primary and read back on the replica to measure replication lag (ReplicaLagGuard).
+-- Milliseconds of the application clock, so database clocks never enter the comparison.
+CREATE TABLE t_replica_heartbeat (
+    id          integer PRIMARY KEY CHECK (id = 1),
+    beat_millis bigint NOT NULL
+);
+INSERT INTO t_replica_heartbeat (id, beat_millis) VALUES (1, 0);
@@ -0,0 +1,10 @@
+-- Progress submissions already merged, so a retried PUT is not counted twice. Kept for
+-- app.progress.submission-retention-hours, well beyond any client retry.
+CREATE TABLE t_progress_submission (
+    user_id       bigint       NOT NULL,
+    submission_id uuid         NOT NULL,
+    card_id       bigint       NOT NULL,
+    created_at    timestamp(6) NOT NULL,
+    PRIMARY KEY (user_id, submission_id)
+);
+CREATE INDEX idx_progress_submission_created ON t_progress_submission (created_at);
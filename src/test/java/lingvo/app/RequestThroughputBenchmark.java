@@ -0,0 +1,122 @@
+package lingvo.app;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lingvo.app.auth.dto.AuthResponseDto;
+import lingvo.app.auth.dto.LoginRequestDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * More concurrent clients than Tomcat has platform threads, mostly reading decks (JDBC) with an occasional
+ * signin (BCrypt), against a real Postgres. Compare the two request modes on Java 21:
+ * {@code mvn test -Pjava21 -Dtest=RequestThroughputBenchmark -Dbenchmark=true -Dspring.threads.virtual.enabled=false}
+ * and the same with {@code -Dspring.threads.virtual.enabled=true}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class RequestThroughputBenchmark {
+
+    private static final int CLIENTS = 400;
+    private static final int REQUESTS_PER_CLIENT = 50;
+    private static final int SIGNIN_EVERY = 50;
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${app.super-admin.username}")
+    private String username;
+
+    @Value("${app.super-admin.password}")
+    private String password;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient httpClient = HttpClient.newBuilder().executor(Executors.newFixedThreadPool(8)).build();
+
+    @Test
+    void mixedLoad_ShouldReportThroughputAndTailLatency() throws Exception {
+        String token = signin().getAccessToken();
+
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            int client = c;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                    long begin = System.nanoTime();
+                    if ((client * REQUESTS_PER_CLIENT + i) % SIGNIN_EVERY == 0) {
+                        signin();
+                    } else {
+                        HttpRequest request = HttpRequest.newBuilder(uri("/api/deck"))
+                                .header("Authorization", "Bearer " + token)
+                                .GET()
+                                .build();
+                        assertEquals(200, httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode());
+                    }
+                    latencies.add(System.nanoTime() - begin);
+                }
+                return null;
+            }));
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - began;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.printf("%d requests from %d clients on %s threads: %.0f req/s, p50 %.2f ms, p99 %.2f ms%n",
+                sorted.size(), CLIENTS, virtualThreads ? "virtual" : "platform",
+                sorted.size() / (elapsed / 1e9),
+                sorted.get(sorted.size() / 2) / 1e6,
+                sorted.get((int) (sorted.size() * 0.99)) / 1e6);
+    }
+
+    private AuthResponseDto signin() throws Exception {
+        LoginRequestDto login = new LoginRequestDto();
+        login.setUsername(username);
+        login.setPassword(password);
+        HttpRequest request = HttpRequest.newBuilder(uri("/api/auth/signin"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(login)))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        return objectMapper.readValue(response.body(), AuthResponseDto.class);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -1,5 +1,7 @@
 package lingvo.app.auth;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
@@ -20,6 +22,8 @@ class JwtTokenProviderTest {
 
     private JwtTokenProvider jwtTokenProvider;
 
+    private MeterRegistry meterRegistry;
+
     @Mock
     private UserDetailsService userDetailsService;
 
@@ -35,6 +39,8 @@ class JwtTokenProviderTest {
         MockitoAnnotations.openMocks(this);
         jwtTokenProvider = new JwtTokenProvider();
         jwtTokenProvider.setUserDetailsService(userDetailsService);
+        meterRegistry = new SimpleMeterRegistry();
+        jwtTokenProvider.setMeterRegistry(meterRegistry);
 
         ReflectionTestUtils.setField(jwtTokenProvider, "secretKeyString", SECRET_KEY);
         ReflectionTestUtils.setField(jwtTokenProvider, "accessTokenValidityInMilliseconds", ACCESS_TOKEN_VALIDITY);
@@ -106,6 +112,25 @@ class JwtTokenProviderTest {
         assertTrue(isValid);
     }
 
+    @Test
+    void getAuthentication_ShouldTimeEachStage() {
+        // Arrange
+        String token = jwtTokenProvider.createAccessToken("testuser");
+        when(userDetailsService.loadUserByUsername("testuser"))
+                .thenReturn(new User("testuser", "password", Collections.emptyList()));
+
+        // Act
+        jwtTokenProvider.validateToken(token);
+        jwtTokenProvider.getAuthentication(token);
+        jwtTokenProvider.revokeToken(token);
+
+        // Assert
+        assertEquals(2, meterRegistry.get("lingvo.auth.jwt").tag("stage", "parse").timer().count());
+        assertEquals(1, meterRegistry.get("lingvo.auth.jwt").tag("stage", "blacklist").timer().count());
+        assertEquals(1, meterRegistry.get("lingvo.auth.jwt").tag("stage", "user-load").timer().count());
+        assertEquals(1.0, meterRegistry.get("lingvo.auth.revoked.tokens").gauge().value());
+    }
+
     @Test
     void validateToken_WithBlacklistedToken_ShouldReturnFalse() {
         String token = jwtTokenProvider.createAccessToken("testuser");
@@ -0,0 +1,32 @@
+package lingvo.app.cache;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.junit.jupiter.api.Test;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EhcacheConfigurationTest {
+
+    @Test
+    void ehcacheXml_ShouldDeclareEveryHibernateRegion() throws Exception {
+        // Arrange
+        CachingProvider provider = Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+
+        // Act
+        try (CacheManager cacheManager = provider.getCacheManager(
+                getClass().getResource("/ehcache.xml").toURI(), getClass().getClassLoader())) {
+            Set<String> regions = new HashSet<>();
+            cacheManager.getCacheNames().forEach(regions::add);
+
+            // Assert
+            assertEquals(Set.of("roles", "decks", "user-roles", "default-query-results-region",
+                    "default-update-timestamps-region"), regions);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package lingvo.app.cache.invalidation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CacheInvalidationBusTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private CacheInvalidationBus bus;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bus = new CacheInvalidationBus(jdbcTemplate, objectMapper, true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void publish_InTransaction_ShouldSendOneNotificationPerRegionBeforeCommit() throws Exception {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        bus.publish("decks", 1L);
+        bus.publish("decks", 2L);
+        bus.publish("decks", 1L);
+        verifyNoInteractions(jdbcTemplate);
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+
+        // Assert
+        List<String> payloads = sentPayloads(1);
+        InvalidationMessage message = objectMapper.readValue(payloads.get(0), InvalidationMessage.class);
+        assertEquals(new InvalidationMessage(bus.nodeId(), "decks", List.of("1", "2"), false), message);
+    }
+
+    @Test
+    void publish_OutsideTransaction_ShouldSendRightAway() throws Exception {
+        // Act
+        bus.publish("decks", 5L);
+
+        // Assert
+        InvalidationMessage message = objectMapper.readValue(sentPayloads(1).get(0), InvalidationMessage.class);
+        assertEquals(List.of("5"), message.keys());
+    }
+
+    @Test
+    void publish_TooManyKeys_ShouldFlushRegionInstead() throws Exception {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        IntStream.range(0, 2000).forEach(id -> bus.publish("flashcards", id));
+
+        // Act
+        TransactionSynchronizationUtils.triggerBeforeCommit(false);
+
+        // Assert
+        InvalidationMessage message = objectMapper.readValue(sentPayloads(1).get(0), InvalidationMessage.class);
+        assertTrue(message.all());
+        assertTrue(message.keys().isEmpty());
+    }
+
+    @Test
+    void publish_WhenDisabled_ShouldSendNothing() {
+        // Arrange
+        bus = new CacheInvalidationBus(jdbcTemplate, objectMapper, false);
+
+        // Act
+        bus.publish("decks", 1L);
+        bus.publishAll("decks");
+
+        // Assert
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private List<String> sentPayloads(int count) {
+        ArgumentCaptor<Object> args = ArgumentCaptor.forClass(Object.class);
+        verify(jdbcTemplate, times(count)).query(eq("SELECT pg_notify(?, ?)"), any(RowCallbackHandler.class),
+                eq(CacheInvalidationBus.CHANNEL), args.capture());
+        return args.getAllValues().stream().map(String.class::cast).toList();
+    }
+}
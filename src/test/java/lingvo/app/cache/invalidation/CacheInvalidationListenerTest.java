@@ -0,0 +1,84 @@
+package lingvo.app.cache.invalidation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CacheInvalidationListenerTest {
+
+    @Mock
+    private CacheInvalidationBus bus;
+
+    @Mock
+    private CacheInvalidationHandler handler;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private CacheInvalidationListener listener;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(bus.nodeId()).thenReturn("self");
+        when(handler.regions()).thenReturn(Set.of("decks", "flashcards"));
+        listener = new CacheInvalidationListener(bus, objectMapper, new DataSourceProperties(), List.of(handler),
+                10_000, 5_000, "");
+    }
+
+    @Test
+    void apply_ShouldMergeKeysPerRegionAndSkipOwnMessages() throws Exception {
+        // Arrange
+        List<String> payloads = List.of(
+                payload(new InvalidationMessage("other", "decks", List.of("1", "2"), false)),
+                payload(new InvalidationMessage("another", "decks", List.of("2", "3"), false)),
+                payload(new InvalidationMessage("self", "flashcards", List.of("9"), false)),
+                payload(new InvalidationMessage("other", "unknown", List.of("4"), false)),
+                "not json");
+
+        // Act
+        listener.apply(payloads);
+
+        // Assert
+        verify(handler).evict("decks", Set.of("1", "2", "3"));
+        verify(handler, never()).evict(eq("flashcards"), any());
+        verify(handler, never()).evictAll(any());
+    }
+
+    @Test
+    void apply_RegionFlush_ShouldWinOverKeys() throws Exception {
+        // Arrange
+        List<String> payloads = List.of(
+                payload(new InvalidationMessage("other", "decks", List.of("1"), false)),
+                payload(new InvalidationMessage("other", "decks", List.of(), true)));
+
+        // Act
+        listener.apply(payloads);
+
+        // Assert
+        verify(handler).evictAll("decks");
+        verify(handler, never()).evict(any(), any());
+    }
+
+    @Test
+    void flushAll_ShouldEvictEveryRegion() {
+        // Act
+        listener.flushAll();
+
+        // Assert
+        verify(handler).evictAll("decks");
+        verify(handler).evictAll("flashcards");
+    }
+
+    private String payload(InvalidationMessage message) throws Exception {
+        return objectMapper.writeValueAsString(message);
+    }
+}
@@ -0,0 +1,71 @@
+package lingvo.app.cache.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import lingvo.app.cache.dto.CacheRegionStatsDto;
+import lingvo.app.flashcards.cache.FlashcardCache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CacheStatisticsTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Statistics statistics;
+
+    @Mock
+    private FlashcardCache flashcardCache;
+
+    private CacheStatistics cacheStatistics;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        // SessionFactory is an EntityManagerFactory too, so @InjectMocks could pick either mock
+        cacheStatistics = new CacheStatistics(entityManagerFactory, flashcardCache);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+    }
+
+    @Test
+    void snapshot_ShouldReportHitRatioPerRegion() {
+        // Arrange
+        CacheRegionStatistics roles = region("roles", 90, 10);
+        CacheRegionStatistics decks = region("decks", 0, 0);
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[]{"roles", "decks", "gone"});
+        when(statistics.getCacheRegionStatistics("roles")).thenReturn(roles);
+        when(statistics.getCacheRegionStatistics("decks")).thenReturn(decks);
+        when(flashcardCache.stats()).thenReturn(List.of(new CacheRegionStatsDto("flashcards", 3, 1, 1, 0.75, 1)));
+
+        // Act
+        List<CacheRegionStatsDto> snapshot = cacheStatistics.snapshot();
+
+        // Assert
+        assertEquals(List.of("decks", "roles", "flashcards"), snapshot.stream().map(CacheRegionStatsDto::getRegion).toList());
+        assertEquals(0.0, snapshot.get(0).getHitRatio());
+        assertEquals(0.9, snapshot.get(1).getHitRatio(), 1e-9);
+        assertEquals(90, snapshot.get(1).getHits());
+    }
+
+    private CacheRegionStatistics region(String name, long hits, long misses) {
+        CacheRegionStatistics region = mock(CacheRegionStatistics.class);
+        when(region.getRegionName()).thenReturn(name);
+        when(region.getHitCount()).thenReturn(hits);
+        when(region.getMissCount()).thenReturn(misses);
+        return region;
+    }
+}
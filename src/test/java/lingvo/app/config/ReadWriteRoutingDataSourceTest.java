@@ -0,0 +1,133 @@
+package lingvo.app.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReadWriteRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replicaConnection;
+
+    @Mock
+    private ReplicaLagGuard lagGuard;
+
+    private ReadWriteRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(lagGuard.isReplicaUsable()).thenReturn(true);
+        dataSource = new ReadWriteRoutingDataSource(primary, replica, lagGuard);
+        TransactionSynchronizationManager.initSynchronization();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void getConnection_ReadOnlyTransaction_ShouldUseReplica() throws SQLException {
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act & Assert
+        assertSame(replicaConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_ReadWriteTransaction_ShouldUsePrimaryAndPinUserAfterCommit() throws SQLException {
+        // Act
+        Connection connection = dataSource.getConnection();
+        verify(lagGuard, never()).recordWrite(any());
+        TransactionSynchronizationUtils.triggerAfterCommit();
+
+        // Assert
+        assertSame(primaryConnection, connection);
+        verify(lagGuard).recordWrite("alice");
+    }
+
+    @Test
+    void getConnection_AfterOwnWrite_ShouldReadFromPrimary() throws SQLException {
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(lagGuard.hasRecentWrite("alice")).thenReturn(true);
+
+        // Act & Assert
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_OnPrimary_ShouldReadFromPrimaryWithoutPinningTheUser() throws SQLException {
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // Act
+        Connection connection = ReadWriteRoutingDataSource.onPrimary(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Assert
+        assertSame(primaryConnection, connection);
+        assertSame(replicaConnection, dataSource.getConnection());
+        verify(lagGuard, never()).recordWrite(any());
+    }
+
+    @Test
+    void getConnection_ReplicaLagging_ShouldReadFromPrimary() throws SQLException {
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(lagGuard.isReplicaUsable()).thenReturn(false);
+
+        // Act & Assert
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    @Test
+    void getConnection_ReplicaDown_ShouldFallBackToPrimary() throws SQLException {
+        // Arrange
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        when(replica.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        // Act
+        Connection connection = dataSource.getConnection();
+
+        // Assert
+        assertSame(primaryConnection, connection);
+        verify(lagGuard).replicaFailed();
+    }
+}
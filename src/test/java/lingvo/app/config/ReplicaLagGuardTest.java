@@ -0,0 +1,106 @@
+package lingvo.app.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class ReplicaLagGuardTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private PreparedStatement beatUpdate;
+
+    @Mock
+    private Connection replicaConnection;
+
+    @Mock
+    private Statement statement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    private ReplicaLagGuard guard;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        MockitoAnnotations.openMocks(this);
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(primaryConnection.prepareStatement(ReplicaLagGuard.BEAT_UPDATE)).thenReturn(beatUpdate);
+        when(replica.getConnection()).thenReturn(replicaConnection);
+        when(replicaConnection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery(ReplicaLagGuard.BEAT_QUERY)).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        guard = new ReplicaLagGuard(primary, replica, 1_000, 1_000, 5_000);
+    }
+
+    @Test
+    void check_RecentHeartbeat_ShouldPutReplicaInRotationAndBeatAgain() throws SQLException {
+        // Arrange
+        when(resultSet.getLong(1)).thenReturn(System.currentTimeMillis() - 1_200);
+
+        // Act
+        guard.check();
+
+        // Assert
+        assertTrue(guard.isReplicaUsable());
+        verify(beatUpdate).setLong(eq(1), anyLong());
+        verify(beatUpdate).executeUpdate();
+    }
+
+    @Test
+    void check_StaleHeartbeat_ShouldKeepReadsOnPrimary() throws SQLException {
+        // Arrange: a caught-up replica whose WAL receiver stopped 30 s ago
+        when(resultSet.getLong(1)).thenReturn(System.currentTimeMillis() - 30_000);
+
+        // Act
+        guard.check();
+
+        // Assert
+        assertFalse(guard.isReplicaUsable());
+    }
+
+    @Test
+    void check_MissingHeartbeatRow_ShouldKeepReadsOnPrimary() throws SQLException {
+        // Arrange
+        when(resultSet.next()).thenReturn(false);
+
+        // Act
+        guard.check();
+
+        // Assert
+        assertFalse(guard.isReplicaUsable());
+    }
+
+    @Test
+    void check_HeartbeatWriteFailing_ShouldStillCheckTheReplica() throws SQLException {
+        // Arrange
+        when(resultSet.getLong(1)).thenReturn(System.currentTimeMillis());
+        when(primary.getConnection()).thenThrow(new SQLException("primary down"));
+
+        // Act
+        guard.check();
+
+        // Assert
+        assertTrue(guard.isReplicaUsable());
+    }
+}
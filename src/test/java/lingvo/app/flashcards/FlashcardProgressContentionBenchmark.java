@@ -0,0 +1,116 @@
+package lingvo.app.flashcards;
+
+import lingvo.app.flashcards.dto.DeckCreateUpdateDto;
+import lingvo.app.flashcards.dto.DeckResponseDto;
+import lingvo.app.flashcards.dto.FlashcardCreateDto;
+import lingvo.app.flashcards.dto.FlashcardResponseDto;
+import lingvo.app.flashcards.dto.FlashcardUpdateDto;
+import lingvo.app.flashcards.dto.FlashcardUpdateProgressDto;
+import lingvo.app.flashcards.entity.Language;
+import lingvo.app.flashcards.service.DeckService;
+import lingvo.app.flashcards.service.FlashcardService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.security.test.context.support.WithMockUser;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Many threads submitting progress (and a few content edits) for the same card against a real Postgres.
+ * Run with {@code mvn test -Dtest=FlashcardProgressContentionBenchmark -Dbenchmark=true}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class FlashcardProgressContentionBenchmark {
+
+    private static final int THREADS = 32;
+    private static final int REVIEWS_PER_THREAD = 200;
+
+    @Autowired
+    private DeckService deckService;
+
+    @Autowired
+    private FlashcardService flashcardService;
+
+    @Test
+    @WithMockUser(username = "superadmin")
+    void concurrentProgressUpdates_ShouldNotLoseReviews() throws Exception {
+        DeckCreateUpdateDto deck = new DeckCreateUpdateDto();
+        deck.setTitle("contention");
+        deck.setLanguage(Language.GERMAN);
+        DeckResponseDto savedDeck = deckService.createDeck(deck);
+
+        FlashcardCreateDto card = new FlashcardCreateDto();
+        card.setWord("Haus");
+        card.setTranslationPerApi("house");
+        card.setUsageExample(Set.of("Das Haus ist groß"));
+        card.setDeckId(savedDeck.getId());
+        Long cardId = flashcardService.createFlashcard(card).getId();
+
+        ExecutorService executor = new DelegatingSecurityContextExecutorService(Executors.newFixedThreadPool(THREADS));
+        CountDownLatch start = new CountDownLatch(1);
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        LocalDateTime base = LocalDateTime.now().withNano(0);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < REVIEWS_PER_THREAD; i++) {
+                    long begin = System.nanoTime();
+                    if (thread == 0 && i % 20 == 0) {
+                        FlashcardUpdateDto edit = new FlashcardUpdateDto();
+                        edit.setWord("Haus");
+                        edit.setTranslationPerApi("house " + i);
+                        edit.setDeckId(savedDeck.getId());
+                        flashcardService.updateFlashcard(cardId, edit);
+                    }
+                    FlashcardUpdateProgressDto progress = new FlashcardUpdateProgressDto();
+                    progress.setSubmissionId(UUID.randomUUID());
+                    progress.setReviewCount(1);
+                    progress.setLastReviewAt(base.plusSeconds((long) thread * REVIEWS_PER_THREAD + i));
+                    progress.setDifficultFactor(thread % 10);
+                    flashcardService.updateFlashcardProgress(cardId, progress);
+                    latencies.add(System.nanoTime() - begin);
+                }
+                return null;
+            }));
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - began;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        FlashcardResponseDto result = flashcardService.getFlashcardById(cardId);
+        assertEquals(THREADS * REVIEWS_PER_THREAD, result.getReviewCount());
+        assertEquals(base.plusSeconds((long) THREADS * REVIEWS_PER_THREAD - 1), result.getLastReviewAt());
+
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        System.out.printf("%d progress updates on one card with %d threads: %.0f ops/s, p50 %.2f ms, p99 %.2f ms%n",
+                sorted.size(), THREADS,
+                sorted.size() / (elapsed / 1e9),
+                sorted.get(sorted.size() / 2) / 1e6,
+                sorted.get((int) (sorted.size() * 0.99)) / 1e6);
+    }
+}
@@ -0,0 +1,194 @@
+package lingvo.app.flashcards.cache;
+
+import lingvo.app.cache.dto.CacheRegionStatsDto;
+import lingvo.app.cache.invalidation.CacheInvalidationBus;
+import lingvo.app.flashcards.cache.FlashcardCache.CachedFlashcard;
+import lingvo.app.flashcards.dto.FlashcardResponseDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class FlashcardCacheTest {
+
+    private final CacheInvalidationBus invalidationBus = mock(CacheInvalidationBus.class);
+
+    @Test
+    void get_ConcurrentMisses_ShouldLoadOnce() throws Exception {
+        // Arrange
+        FlashcardCache cache = new FlashcardCache(invalidationBus, true, 100, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<CachedFlashcard> loader = () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return card(1L, 7L, 10L);
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        // Act
+        Future<CachedFlashcard> first = executor.submit(() -> cache.get(1L, loader));
+        loading.await(5, TimeUnit.SECONDS);
+        Future<CachedFlashcard> second = executor.submit(() -> cache.get(1L, loader));
+        release.countDown();
+
+        // Assert
+        assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        executor.shutdown();
+    }
+
+    @Test
+    void get_EvictedWhileLoading_ShouldNotCacheTheLoadedValue() {
+        // Arrange
+        FlashcardCache cache = new FlashcardCache(invalidationBus, true, 100, 60_000);
+
+        // Act
+        CachedFlashcard loaded = cache.get(1L, () -> {
+            cache.evict(FlashcardCache.REGION, List.of("1"));
+            return card(1L, 7L, 10L);
+        });
+
+        // Assert
+        assertEquals(10L, loaded.dto().getDeckId());
+        assertEquals(11L, cache.get(1L, () -> card(1L, 7L, 11L)).dto().getDeckId());
+    }
+
+    @Test
+    void get_WhenLoaderFails_ShouldRethrowAndCacheNothing() {
+        // Arrange
+        FlashcardCache cache = new FlashcardCache(invalidationBus, true, 100, 60_000);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> cache.get(1L, () -> {
+            throw new IllegalStateException("database down");
+        }));
+        assertEquals(10L, cache.get(1L, () -> card(1L, 7L, 10L)).dto().getDeckId());
+    }
+
+    @Test
+    void evictAfterCommit_OutsideTransaction_ShouldDropCardAndWordsRightAway() {
+        // Arrange
+        FlashcardCache cache = new FlashcardCache(invalidationBus, true, 100, 60_000);
+        cache.get(1L, () -> card(1L, 7L, 10L));
+        cache.getIdByWord(7L, "apple", () -> 1L);
+
+        // Act
+        cache.evictAfterCommit(1L, 7L, "apple");
+
+        // Assert
+        assertEquals(2L, cache.get(1L, () -> card(2L, 7L, 10L)).dto().getId());
+        assertEquals(2L, cache.getIdByWord(7L, "apple", () -> 2L));
+    }
+
+    @Test
+    void evictAfterCommit_ShouldPublishCardAndWordKeys() {
+        // Arrange
+        FlashcardCache cache = new FlashcardCache(invalidationBus, true, 100, 60_000);
+
+        // Act
+        cache.evictAfterCommit(1L, 7L, "a:b", null);
+
+        // Assert
+        verify(invalidationBus).publish(FlashcardCache.REGION, 1L);
+        verify(invalidationBus).publish(FlashcardCache.WORDS_REGION, "7:a:b");
+        verifyNoMoreInteractions(invalidationBus);
+    }
+
+    @Test
+    void evict_FromOtherNode_ShouldDropParsedKeys() {
+        // Arrange
+        FlashcardCache cache = new FlashcardCache(invalidationBus, true, 100, 60_000);
+        cache.get(1L, () -> card(1L, 7L, 10L));
+        cache.getIdByWord(7L, "a:b", () -> 1L);
+
+        // Act
+        cache.evict(FlashcardCache.REGION, List.of("1"));
+        cache.evict(FlashcardCache.WORDS_REGION, List.of("7:a:b"));
+
+        // Assert
+        assertEquals(2L, cache.get(1L, () -> card(2L, 7L, 10L)).dto().getId());
+        assertEquals(2L, cache.getIdByWord(7L, "a:b", () -> 2L));
+    }
+
+    @Test
+    void evictDeckAfterCommit_ShouldDropOnlyCardsOfThatDeck() {
+        // Arrange
+        FlashcardCache cache = new FlashcardCache(invalidationBus, true, 100, 60_000);
+        cache.get(1L, () -> card(1L, 7L, 10L));
+        cache.get(2L, () -> card(2L, 7L, 20L));
+
+        // Act
+        cache.evictDeckAfterCommit(10L);
+
+        // Assert
+        assertEquals(11L, cache.get(1L, () -> card(1L, 7L, 11L)).dto().getDeckId());
+        assertEquals(20L, cache.get(2L, () -> card(2L, 7L, 21L)).dto().getDeckId());
+    }
+
+    @Test
+    void get_WhenDisabled_ShouldAlwaysLoad() {
+        // Arrange
+        FlashcardCache cache = new FlashcardCache(invalidationBus, false, 100, 60_000);
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        cache.get(1L, () -> { loads.incrementAndGet(); return card(1L, 7L, 10L); });
+        cache.get(1L, () -> { loads.incrementAndGet(); return card(1L, 7L, 10L); });
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void stats_ShouldReportHitsAndMisses() {
+        // Arrange
+        FlashcardCache cache = new FlashcardCache(invalidationBus, true, 100, 60_000);
+        cache.get(1L, () -> card(1L, 7L, 10L));
+        cache.get(1L, () -> card(1L, 7L, 10L));
+        cache.get(1L, () -> card(1L, 7L, 10L));
+
+        // Act
+        CacheRegionStatsDto cards = cache.stats().get(0);
+
+        // Assert
+        assertEquals("flashcards", cards.getRegion());
+        assertEquals(2, cards.getHits());
+        assertEquals(1, cards.getMisses());
+        assertEquals(2.0 / 3, cards.getHitRatio(), 1e-9);
+        assertEquals(0.0, cache.stats().get(1).getHitRatio());
+    }
+
+    @Test
+    void isOwnerView_ShouldRejectSubscribers() {
+        // Arrange
+        CachedFlashcard cached = card(1L, 7L, 10L);
+
+        // Act & Assert
+        assertTrue(cached.isOwnerView(7L));
+        assertFalse(cached.isOwnerView(8L));
+        assertFalse(card(2L, null, 10L).isOwnerView(8L));
+    }
+
+    private static CachedFlashcard card(Long id, Long ownerId, Long deckId) {
+        FlashcardResponseDto dto = new FlashcardResponseDto();
+        dto.setId(id);
+        dto.setDeckId(deckId);
+        return new CachedFlashcard(ownerId, ownerId, dto);
+    }
+}
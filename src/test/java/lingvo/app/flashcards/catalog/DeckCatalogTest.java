@@ -0,0 +1,120 @@
+package lingvo.app.flashcards.catalog;
+
+import lingvo.app.flashcards.dto.DeckCatalogEntryDto;
+import lingvo.app.flashcards.dto.DeckCatalogPageDto;
+import lingvo.app.flashcards.entity.Language;
+import lingvo.app.flashcards.repository.DeckRepository;
+import lingvo.app.flashcards.stats.DeckStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DeckCatalogTest {
+
+    private DeckCatalog deckCatalog;
+
+    @Mock
+    private DeckRepository deckRepository;
+
+    @Mock
+    private DeckStatsService deckStatsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        deckCatalog = new DeckCatalog(deckRepository, deckStatsService, 3, 60_000);
+        when(deckStatsService.findByDeckIds(any())).thenReturn(Map.of());
+        when(deckRepository.findCatalog(any(), any())).thenAnswer(invocation -> new ArrayList<>());
+    }
+
+    @Test
+    void getPage_WithinTopK_ShouldBeServedFromMemory() {
+        // Arrange
+        when(deckRepository.findCatalog(eq(Language.GERMAN), any()))
+                .thenAnswer(invocation -> new ArrayList<>(List.of(entry(1L, 9), entry(2L, 5))));
+        deckCatalog.refresh();
+
+        // Act
+        DeckCatalogPageDto first = deckCatalog.getPage(Language.GERMAN, null, 1);
+        DeckCatalogPageDto second = deckCatalog.getPage(Language.GERMAN, first.getNextCursor(), 1);
+
+        // Assert
+        assertEquals(1L, first.getDecks().get(0).getId());
+        assertEquals("9-1", first.getNextCursor());
+        assertEquals(2L, second.getDecks().get(0).getId());
+        verify(deckRepository, never()).findCatalogAfter(any(), anyLong(), any(), any());
+    }
+
+    @Test
+    void getPage_PastTopK_ShouldContinueFromDatabase() {
+        // Arrange
+        when(deckRepository.findCatalog(eq(Language.GERMAN), any()))
+                .thenAnswer(invocation -> new ArrayList<>(List.of(entry(1L, 9), entry(2L, 5), entry(3L, 5))));
+        when(deckRepository.findCatalogAfter(eq(Language.GERMAN), eq(5L), eq(3L), any()))
+                .thenReturn(new ArrayList<>(List.of(entry(4L, 1))));
+        deckCatalog.refresh();
+
+        // Act
+        DeckCatalogPageDto page = deckCatalog.getPage(Language.GERMAN, "5-2", 2);
+
+        // Assert
+        assertEquals(List.of(3L, 4L), page.getDecks().stream().map(DeckCatalogEntryDto::getId).toList());
+    }
+
+    @Test
+    void refresh_WithUnchangedRanking_ShouldKeepVersion() {
+        // Arrange
+        when(deckRepository.findCatalog(eq(Language.GERMAN), any()))
+                .thenAnswer(invocation -> new ArrayList<>(List.of(entry(1L, 9))));
+        deckCatalog.refresh();
+        String before = deckCatalog.getVersion(Language.GERMAN, null, 20).orElseThrow().getTag();
+
+        // Act
+        deckCatalog.refresh();
+
+        // Assert
+        assertEquals(before, deckCatalog.getVersion(Language.GERMAN, null, 20).orElseThrow().getTag());
+    }
+
+    @Test
+    void getVersion_OnAnotherNodeWithTheSameRanking_ShouldMatch() {
+        // Arrange
+        when(deckRepository.findCatalog(eq(Language.GERMAN), any()))
+                .thenAnswer(invocation -> new ArrayList<>(List.of(entry(1L, 9))));
+        DeckCatalog otherNode = new DeckCatalog(deckRepository, deckStatsService, 3, 60_000);
+        otherNode.refresh();
+        otherNode.refresh();
+        deckCatalog.refresh();
+
+        // Act
+        String tag = deckCatalog.getVersion(Language.GERMAN, null, 20).orElseThrow().getTag();
+
+        // Assert
+        assertEquals(otherNode.getVersion(Language.GERMAN, null, 20).orElseThrow().getTag(), tag);
+    }
+
+    @Test
+    void getVersion_PastTopK_ShouldBeEmpty() {
+        // Arrange
+        when(deckRepository.findCatalog(eq(Language.GERMAN), any()))
+                .thenAnswer(invocation -> new ArrayList<>(List.of(entry(1L, 9), entry(2L, 5), entry(3L, 5))));
+        deckCatalog.refresh();
+
+        // Act & Assert
+        assertTrue(deckCatalog.getVersion(Language.GERMAN, null, 3).isPresent());
+        assertTrue(deckCatalog.getVersion(Language.GERMAN, "5-2", 2).isEmpty());
+    }
+
+    private static DeckCatalogEntryDto entry(Long id, long favoriteCount) {
+        return new DeckCatalogEntryDto(id, "deck " + id, Language.GERMAN, null, favoriteCount);
+    }
+}
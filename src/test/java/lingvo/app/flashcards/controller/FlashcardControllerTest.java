@@ -0,0 +1,90 @@
+package lingvo.app.flashcards.controller;
+
+import lingvo.app.flashcards.dto.CollectionVersionDto;
+import lingvo.app.flashcards.dto.FlashcardResponseDto;
+import lingvo.app.flashcards.service.FlashcardService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class FlashcardControllerTest {
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private FlashcardService flashcardService;
+
+    @InjectMocks
+    private FlashcardController flashcardController;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(flashcardController).build();
+    }
+
+    @Test
+    void getFlashcardsByDeck_ShouldReturnCardsWithETag() throws Exception {
+        when(flashcardService.getDeckFlashcardsVersion(1L))
+                .thenReturn(new CollectionVersionDto("deck-1-cards-7", LocalDateTime.now()));
+        when(flashcardService.getFlashcardsByDeck(1L)).thenReturn(List.of(flashcard(10L, 2)));
+
+        mockMvc.perform(get("/api/flashcard/deck/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"deck-1-cards-7\""))
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(jsonPath("$[0].id").value(10));
+    }
+
+    @Test
+    void getFlashcardsByDeck_WithMatchingETag_ShouldReturnNotModifiedWithoutLoadingCards() throws Exception {
+        when(flashcardService.getDeckFlashcardsVersion(1L))
+                .thenReturn(new CollectionVersionDto("deck-1-cards-7", LocalDateTime.now()));
+
+        mockMvc.perform(get("/api/flashcard/deck/1").header("If-None-Match", "\"deck-1-cards-7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(flashcardService, never()).getFlashcardsByDeck(anyLong());
+    }
+
+    @Test
+    void getFlashcardsByDeck_WithStaleETag_ShouldReturnCards() throws Exception {
+        when(flashcardService.getDeckFlashcardsVersion(1L))
+                .thenReturn(new CollectionVersionDto("deck-1-cards-8", LocalDateTime.now()));
+        when(flashcardService.getFlashcardsByDeck(1L)).thenReturn(List.of(flashcard(10L, 3)));
+
+        mockMvc.perform(get("/api/flashcard/deck/1").header("If-None-Match", "\"deck-1-cards-7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"deck-1-cards-8\""));
+    }
+
+    @Test
+    void getFlashcardById_WithMatchingETag_ShouldReturnNotModified() throws Exception {
+        when(flashcardService.getFlashcardById(10L)).thenReturn(flashcard(10L, 4));
+
+        mockMvc.perform(get("/api/flashcard/10").header("If-None-Match", "\"flashcard-10-4\""))
+                .andExpect(status().isNotModified());
+    }
+
+    private FlashcardResponseDto flashcard(Long id, long version) {
+        FlashcardResponseDto flashcard = new FlashcardResponseDto();
+        flashcard.setId(id);
+        flashcard.setWord("Haus");
+        flashcard.setVersion(version);
+        flashcard.setUpdatedAt(LocalDateTime.now());
+        return flashcard;
+    }
+}
@@ -0,0 +1,90 @@
+package lingvo.app.flashcards.enrichment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lingvo.app.flashcards.entity.Language;
+import lingvo.app.jobs.entity.OutboxJob;
+import lingvo.app.jobs.repository.OutboxJobRepository;
+import lingvo.app.jobs.service.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class FlashcardEnrichmentJobHandlerTest {
+
+    private FlashcardEnrichmentJobHandler jobHandler;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private FlashcardEnrichmentClient enrichmentClient;
+
+    @Mock
+    private FlashcardEnrichmentWriter enrichmentWriter;
+
+    @Mock
+    private OutboxJobRepository outboxJobRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        OutboxService outboxService = new OutboxService(outboxJobRepository, objectMapper);
+        jobHandler = new FlashcardEnrichmentJobHandler(enrichmentClient, enrichmentWriter, outboxService);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handle_ShouldCallProviderOncePerLanguage() throws Exception {
+        // Arrange
+        when(enrichmentClient.enrich(eq(Language.GERMAN), anyCollection()))
+                .thenReturn(Map.of("Haus", new EnrichmentResult("house", Set.of("Das Haus ist groß"))));
+        when(enrichmentClient.enrich(eq(Language.FRENCH), anyCollection())).thenReturn(Map.of());
+        List<OutboxJob> jobs = List.of(
+                job(new FlashcardEnrichmentPayload(1L, "Haus", Language.GERMAN)),
+                job(new FlashcardEnrichmentPayload(2L, "Baum", Language.GERMAN)),
+                job(new FlashcardEnrichmentPayload(3L, "maison", Language.FRENCH)));
+
+        // Act
+        jobHandler.handle(jobs);
+
+        // Assert
+        ArgumentCaptor<Collection<String>> germanWords = ArgumentCaptor.forClass(Collection.class);
+        verify(enrichmentClient).enrich(eq(Language.GERMAN), germanWords.capture());
+        assertEquals(Set.of("Haus", "Baum"), Set.copyOf(germanWords.getValue()));
+        verify(enrichmentClient).enrich(eq(Language.FRENCH), anyCollection());
+
+        ArgumentCaptor<Map<Long, EnrichmentResult>> results = ArgumentCaptor.forClass(Map.class);
+        verify(enrichmentWriter).apply(results.capture());
+        assertEquals(3, results.getValue().size());
+        assertEquals("house", results.getValue().get(1L).translation());
+        assertNull(results.getValue().get(2L).translation());
+    }
+
+    @Test
+    void handle_WithFailingProvider_ShouldThrowAndNotWrite() throws Exception {
+        // Arrange
+        when(enrichmentClient.enrich(any(), anyCollection())).thenThrow(new RuntimeException("Provider unavailable"));
+        List<OutboxJob> jobs = List.of(job(new FlashcardEnrichmentPayload(1L, "Haus", Language.GERMAN)));
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> jobHandler.handle(jobs));
+        verify(enrichmentWriter, never()).apply(any());
+    }
+
+    private OutboxJob job(FlashcardEnrichmentPayload payload) throws Exception {
+        OutboxJob job = new OutboxJob();
+        job.setType(FlashcardEnrichmentJobHandler.TYPE);
+        job.setPayload(objectMapper.writeValueAsString(payload));
+        return job;
+    }
+}
@@ -0,0 +1,68 @@
+package lingvo.app.flashcards.enrichment;
+
+import lingvo.app.flashcards.cache.FlashcardCache;
+import lingvo.app.flashcards.entity.Deck;
+import lingvo.app.flashcards.entity.Flashcard;
+import lingvo.app.flashcards.repository.FlashcardRepository;
+import lingvo.app.flashcards.stats.DeckStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class FlashcardEnrichmentWriterTest {
+
+    private FlashcardEnrichmentWriter enrichmentWriter;
+
+    @Mock
+    private FlashcardRepository flashcardRepository;
+
+    @Mock
+    private FlashcardCache flashcardCache;
+
+    @Mock
+    private DeckStatsService deckStatsService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        enrichmentWriter = new FlashcardEnrichmentWriter(flashcardRepository, flashcardCache, deckStatsService);
+    }
+
+    @Test
+    void apply_ShouldMarkEveryAffectedDeckChangedOnce() {
+        // Arrange
+        Flashcard first = flashcard(1L, 10L);
+        Flashcard second = flashcard(2L, 10L);
+        Flashcard third = flashcard(3L, 20L);
+        EnrichmentResult result = new EnrichmentResult("house", Set.of());
+        when(flashcardRepository.findAllById(any())).thenReturn(List.of(first, second, third));
+
+        // Act
+        enrichmentWriter.apply(Map.of(1L, result, 2L, result, 3L, result));
+
+        // Assert
+        assertEquals("house", first.getTranslationPerApi());
+        verify(deckStatsService).cardsChanged(eq(10L), any());
+        verify(deckStatsService).cardsChanged(eq(20L), any());
+        verifyNoMoreInteractions(deckStatsService);
+    }
+
+    private Flashcard flashcard(Long id, Long deckId) {
+        Deck deck = new Deck();
+        deck.setId(deckId);
+        Flashcard flashcard = new Flashcard();
+        flashcard.setId(id);
+        flashcard.setDeck(deck);
+        flashcard.setOwnerId(7L);
+        return flashcard;
+    }
+}
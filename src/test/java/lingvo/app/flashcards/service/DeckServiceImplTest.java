@@ -0,0 +1,187 @@
+package lingvo.app.flashcards.service;
+
+import lingvo.app.auth.entity.User;
+import lingvo.app.auth.service.UserService;
+import lingvo.app.cache.invalidation.CacheInvalidationBus;
+import lingvo.app.exception.ResourceNotFoundException;
+import lingvo.app.flashcards.DeckMapper;
+import lingvo.app.flashcards.dto.DeckSearchPageDto;
+import lingvo.app.flashcards.entity.Deck;
+import lingvo.app.flashcards.entity.Language;
+import lingvo.app.flashcards.purge.DeckPurgeJobHandler;
+import lingvo.app.flashcards.purge.DeckPurgePayload;
+import lingvo.app.flashcards.purge.DeckPurgeService;
+import lingvo.app.flashcards.repository.DeckRepository;
+import lingvo.app.flashcards.repository.FlashcardRepository;
+import lingvo.app.flashcards.stats.DeckStatsService;
+import lingvo.app.jobs.service.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DeckServiceImplTest {
+
+    @InjectMocks
+    private DeckServiceImpl deckService;
+
+    @Mock
+    private DeckRepository deckRepository;
+
+    @Mock
+    private DeckMapper deckMapper;
+
+    @Mock
+    private DeckStatsService deckStatsService;
+
+    @Mock
+    private DeckPurgeService deckPurgeService;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private FlashcardRepository flashcardRepository;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReflectionTestUtils.setField(deckService, "syncPurgeMaxCards", 1000L);
+        when(userService.getCurrentUser()).thenReturn(user(1L));
+    }
+
+    @Test
+    void deleteDeck_WithSmallDeck_ShouldPurgeCardsInRequest() {
+        // Arrange
+        when(deckRepository.findByIdAndCreatedById(1L, 1L)).thenReturn(Optional.of(deck(1L, user(1L), false)));
+        when(deckStatsService.cardCount(1L)).thenReturn(20L);
+
+        // Act
+        deckService.deleteDeck(1L);
+
+        // Assert
+        verify(deckRepository).softDelete(eq(1L), any());
+        verify(deckRepository).removeFromFavorites(1L);
+        verify(deckPurgeService).purgeCards(1L, Integer.MAX_VALUE);
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void deleteDeck_WithLargeDeck_ShouldQueuePurge() {
+        // Arrange
+        when(deckRepository.findByIdAndCreatedById(1L, 1L)).thenReturn(Optional.of(deck(1L, user(1L), false)));
+        when(deckStatsService.cardCount(1L)).thenReturn(50_000L);
+
+        // Act
+        deckService.deleteDeck(1L);
+
+        // Assert
+        verify(deckRepository).softDelete(eq(1L), any());
+        verify(deckRepository).removeFromFavorites(1L);
+        verify(outboxService).enqueue(DeckPurgeJobHandler.TYPE, 1L, new DeckPurgePayload(1L));
+        verifyNoInteractions(deckPurgeService);
+    }
+
+    @Test
+    void deleteDeck_WithForeignDeck_ShouldThrow() {
+        // Arrange
+        when(deckRepository.findByIdAndCreatedById(1L, 1L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> deckService.deleteDeck(1L));
+        verify(deckRepository, never()).softDelete(any(), any());
+    }
+
+    @Test
+    void cloneDeck_WithPublicDeck_ShouldCopyCardsInDatabase() {
+        // Arrange
+        User owner = user(1L);
+        User cloner = user(2L);
+        Deck source = deck(10L, owner, true);
+        Deck clone = deck(11L, cloner, false);
+        when(deckRepository.findById(10L)).thenReturn(Optional.of(source));
+        when(userService.getCurrentUser()).thenReturn(cloner);
+        when(deckRepository.save(any(Deck.class))).thenReturn(clone);
+        when(flashcardRepository.cloneCards(eq(10L), eq(11L), eq(2L), any())).thenReturn(20_000);
+
+        // Act
+        deckService.cloneDeck(10L);
+
+        // Assert
+        verify(flashcardRepository).cloneUsageExamples(11L);
+        verify(flashcardRepository).cloneSelectedTranslations(11L);
+        verify(deckStatsService).deckCloned(11L, 20_000);
+        verify(deckRepository, never()).isFavorite(anyLong(), any());
+    }
+
+    @Test
+    void cloneDeck_WithForeignPrivateDeck_ShouldBeDenied() {
+        // Arrange
+        Deck source = deck(10L, user(1L), false);
+        when(deckRepository.findById(10L)).thenReturn(Optional.of(source));
+        when(userService.getCurrentUser()).thenReturn(user(2L));
+        when(deckRepository.isFavorite(2L, 10L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(AccessDeniedException.class, () -> deckService.cloneDeck(10L));
+        verify(flashcardRepository, never()).cloneCards(any(), any(), any(), any());
+    }
+
+    @Test
+    void getDeckById_WithForeignPrivateDeck_ShouldLookMissing() {
+        // Arrange
+        when(deckRepository.findById(10L)).thenReturn(Optional.of(deck(10L, user(2L), false)));
+        when(deckRepository.isFavorite(1L, 10L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> deckService.getDeckById(10L));
+    }
+
+    private User user(long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+
+    private Deck deck(Long id, User createdBy, boolean publicDeck) {
+        Deck deck = new Deck();
+        deck.setId(id);
+        deck.setCreatedBy(createdBy);
+        deck.setPublicDeck(publicDeck);
+        return deck;
+    }
+
+    @Test
+    void searchDecks_ShouldNormalizeEscapeAndPageByKeyset() {
+        // Arrange
+        User user = user(2L);
+        Deck first = deck(5L, user, false);
+        first.setTitle("Ünits_100");
+        ReflectionTestUtils.setField(first, "normalizedTitle", Deck.normalizeTitle(first.getTitle()));
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(deckRepository.searchByTitle(2L, "GERMAN", "units\\_1%", "", 0L, 1)).thenReturn(List.of(first));
+
+        // Act
+        DeckSearchPageDto page = deckService.searchDecks("  UNITS_1", Language.GERMAN, null, 1);
+        deckService.searchDecks("units_1", Language.GERMAN, page.getNextCursor(), 1);
+
+        // Assert
+        verify(deckRepository).searchByTitle(2L, "GERMAN", "units\\_1%", "units_100", 5L, 1);
+    }
+}
@@ -0,0 +1,128 @@
+package lingvo.app.flashcards.service;
+
+import lingvo.app.auth.entity.User;
+import lingvo.app.auth.service.UserService;
+import lingvo.app.flashcards.FlashcardMapper;
+import lingvo.app.flashcards.cache.FlashcardCache;
+import lingvo.app.flashcards.dto.FlashcardResponseDto;
+import lingvo.app.flashcards.dto.FlashcardUpdateProgressDto;
+import lingvo.app.flashcards.entity.Deck;
+import lingvo.app.flashcards.entity.Flashcard;
+import lingvo.app.flashcards.repository.CardProgressRepository;
+import lingvo.app.flashcards.repository.DeckRepository;
+import lingvo.app.flashcards.repository.FlashcardRepository;
+import lingvo.app.flashcards.sharing.SharedDeckService;
+import lingvo.app.flashcards.stats.DeckStatsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class FlashcardServiceImplTest {
+
+    @InjectMocks
+    private FlashcardServiceImpl flashcardService;
+
+    @Mock
+    private FlashcardRepository flashcardRepository;
+
+    @Mock
+    private CardProgressRepository cardProgressRepository;
+
+    @Mock
+    private DeckRepository deckRepository;
+
+    @Mock
+    private FlashcardMapper flashcardMapper;
+
+    @Mock
+    private DeckStatsService deckStatsService;
+
+    @Mock
+    private SharedDeckService sharedDeckService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private FlashcardCache flashcardCache;
+
+    private final User owner = new User();
+    private Flashcard card;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        owner.setId(1L);
+        Deck deck = new Deck();
+        deck.setId(10L);
+        deck.setCreatedBy(owner);
+        card = new Flashcard();
+        card.setId(100L);
+        card.setDeck(deck);
+        card.setOwnerId(1L);
+        when(userService.getCurrentUser()).thenReturn(owner);
+        when(flashcardRepository.findById(100L)).thenReturn(Optional.of(card));
+        when(flashcardMapper.flashcardToFlashcardResponseDto(card)).thenReturn(new FlashcardResponseDto());
+    }
+
+    @Test
+    void updateFlashcardProgress_RetriedSubmission_ShouldNotMergeAgain() {
+        // Arrange
+        FlashcardUpdateProgressDto progress = progress();
+        when(cardProgressRepository.recordSubmission(eq(1L), eq(progress.getSubmissionId()), eq(100L), any()))
+                .thenReturn(0);
+
+        // Act
+        flashcardService.updateFlashcardProgress(100L, progress);
+
+        // Assert
+        verify(flashcardRepository, never()).mergeProgress(anyLong(), anyInt(), any(), anyDouble(), any(), any());
+        verifyNoInteractions(deckStatsService);
+    }
+
+    @Test
+    void updateFlashcardProgress_NewSubmission_ShouldMerge() {
+        // Arrange
+        FlashcardUpdateProgressDto progress = progress();
+        when(cardProgressRepository.recordSubmission(eq(1L), eq(progress.getSubmissionId()), eq(100L), any()))
+                .thenReturn(1);
+        when(flashcardRepository.mergeProgress(eq(100L), eq(1), any(), anyDouble(), any(), any())).thenReturn(1);
+
+        // Act
+        flashcardService.updateFlashcardProgress(100L, progress);
+
+        // Assert
+        verify(flashcardRepository).mergeProgress(eq(100L), eq(1), any(), anyDouble(), any(), any());
+        verify(deckStatsService).cardReviewed(any(), any());
+        verify(deckStatsService, never()).cardsChanged(any(), any());
+    }
+
+    @Test
+    void updateFlashcardProgress_WithoutSubmissionId_ShouldBeRejected() {
+        // Arrange
+        FlashcardUpdateProgressDto progress = progress();
+        progress.setSubmissionId(null);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> flashcardService.updateFlashcardProgress(100L, progress));
+        verifyNoInteractions(cardProgressRepository);
+    }
+
+    private static FlashcardUpdateProgressDto progress() {
+        FlashcardUpdateProgressDto progress = new FlashcardUpdateProgressDto();
+        progress.setSubmissionId(UUID.randomUUID());
+        progress.setReviewCount(1);
+        progress.setLastReviewAt(LocalDateTime.of(2024, 5, 1, 12, 0));
+        return progress;
+    }
+}
@@ -0,0 +1,105 @@
+package lingvo.app.flashcards.service;
+
+import lingvo.app.auth.entity.User;
+import lingvo.app.auth.service.UserService;
+import lingvo.app.flashcards.DeckMapper;
+import lingvo.app.flashcards.FlashcardMapper;
+import lingvo.app.flashcards.dto.ChangeRow;
+import lingvo.app.flashcards.dto.SyncResponseDto;
+import lingvo.app.flashcards.repository.DeckRepository;
+import lingvo.app.flashcards.repository.FlashcardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SyncServiceImplTest {
+
+    @Mock
+    private DeckRepository deckRepository;
+
+    @Mock
+    private FlashcardRepository flashcardRepository;
+
+    @Mock
+    private DeckMapper deckMapper;
+
+    @Mock
+    private FlashcardMapper flashcardMapper;
+
+    @Mock
+    private UserService userService;
+
+    @InjectMocks
+    private SyncServiceImpl syncService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        User user = new User();
+        user.setId(7L);
+        when(userService.getCurrentUser()).thenReturn(user);
+        when(deckRepository.findAllById(any())).thenReturn(List.of());
+        when(flashcardRepository.findAllById(any())).thenReturn(List.of());
+        when(flashcardMapper.flashcardsToFlashcardResponseDto(any())).thenReturn(List.of());
+    }
+
+    @Test
+    void getChangesSince_ShouldMergeTablesInChangeOrderAndSplitTombstones() {
+        when(deckRepository.findChangesAfter(7, 0, 0, 4)).thenReturn(List.of(row(1L, false, 10, 1), row(2L, true, 12, 4)));
+        when(flashcardRepository.findChangesAfter(7, 0, 0, 4)).thenReturn(List.of(row(5L, false, 10, 2), row(6L, true, 11, 3)));
+
+        SyncResponseDto response = syncService.getChangesSince(null, 3);
+
+        assertTrue(response.isHasMore());
+        assertEquals("11-3", response.getCursor());
+        assertEquals(List.of(), response.getDeletedDeckIds());
+        assertEquals(List.of(6L), response.getDeletedFlashcardIds());
+        verify(deckRepository).findAllById(List.of(1L));
+        verify(flashcardRepository).findAllById(List.of(5L));
+    }
+
+    @Test
+    void getChangesSince_WithCursor_ShouldResumeAfterIt() {
+        when(deckRepository.findChangesAfter(7, 11, 3, 501)).thenReturn(List.of(row(2L, true, 12, 4)));
+        when(flashcardRepository.findChangesAfter(7, 11, 3, 501)).thenReturn(List.of());
+
+        SyncResponseDto response = syncService.getChangesSince("11-3", 500);
+
+        assertFalse(response.isHasMore());
+        assertEquals("12-4", response.getCursor());
+        assertEquals(List.of(2L), response.getDeletedDeckIds());
+    }
+
+    @Test
+    void getChangesSince_WithoutChanges_ShouldKeepCursor() {
+        when(deckRepository.findChangesAfter(anyLong(), anyLong(), anyLong(), anyInt())).thenReturn(List.of());
+        when(flashcardRepository.findChangesAfter(anyLong(), anyLong(), anyLong(), anyInt())).thenReturn(List.of());
+
+        SyncResponseDto response = syncService.getChangesSince("12-4", 5000);
+
+        assertEquals("12-4", response.getCursor());
+        verify(deckRepository).findChangesAfter(7, 12, 4, SyncServiceImpl.MAX_PAGE_SIZE + 1);
+    }
+
+    @Test
+    void getChangesSince_WithMalformedCursor_ShouldThrowException() {
+        assertThrows(IllegalArgumentException.class, () -> syncService.getChangesSince("abc", 10));
+    }
+
+    private ChangeRow row(Long id, boolean deleted, long txid, long seq) {
+        return new ChangeRow() {
+            public Long getId() { return id; }
+            public Boolean getDeleted() { return deleted; }
+            public Long getChangeTxid() { return txid; }
+            public Long getChangeSeq() { return seq; }
+        };
+    }
+}
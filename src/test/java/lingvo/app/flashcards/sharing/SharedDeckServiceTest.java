@@ -0,0 +1,238 @@
+package lingvo.app.flashcards.sharing;
+
+import lingvo.app.auth.entity.User;
+import lingvo.app.flashcards.FlashcardMapper;
+import lingvo.app.flashcards.dto.FlashcardResponseDto;
+import lingvo.app.flashcards.dto.FlashcardUpdateProgressDto;
+import lingvo.app.flashcards.entity.CardProgress;
+import lingvo.app.flashcards.entity.Deck;
+import lingvo.app.flashcards.entity.Flashcard;
+import lingvo.app.flashcards.repository.CardProgressRepository;
+import lingvo.app.flashcards.repository.DeckRepository;
+import lingvo.app.flashcards.repository.FlashcardRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.security.access.AccessDeniedException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SharedDeckServiceTest {
+
+    @InjectMocks
+    private SharedDeckService sharedDeckService;
+
+    @Mock
+    private FlashcardRepository flashcardRepository;
+
+    @Mock
+    private CardProgressRepository cardProgressRepository;
+
+    @Mock
+    private DeckRepository deckRepository;
+
+    @Mock
+    private FlashcardMapper flashcardMapper;
+
+    private final User owner = user(1L);
+    private final User subscriber = user(2L);
+    private Deck deck;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        deck = new Deck();
+        deck.setId(10L);
+        deck.setCreatedBy(owner);
+    }
+
+    @Test
+    void isShared_ShouldBeFalseForOwnerAndDecksWithoutCreator() {
+        // Arrange
+        Deck legacy = new Deck();
+
+        // Act & Assert
+        assertFalse(sharedDeckService.isShared(deck, owner));
+        assertTrue(sharedDeckService.isShared(deck, subscriber));
+        assertFalse(sharedDeckService.isShared(legacy, subscriber));
+    }
+
+    @Test
+    void copyForWrite_OnFirstEdit_ShouldCopyCardAndMoveProgress() {
+        // Arrange
+        Flashcard shared = card(100L, 1L);
+        shared.setUsageExample(Set.of("Das Haus ist groß"));
+        when(deckRepository.isFavorite(2L, 10L)).thenReturn(true);
+        when(flashcardRepository.findBySourceCardIdAndOwnerIdAndDeckId(100L, 2L, 10L)).thenReturn(Optional.empty());
+        when(flashcardRepository.saveAndFlush(any(Flashcard.class))).thenAnswer(invocation -> {
+            Flashcard copy = invocation.getArgument(0);
+            copy.setId(200L);
+            return copy;
+        });
+        when(flashcardRepository.findById(200L)).thenAnswer(invocation -> Optional.of(card(200L, 2L)));
+
+        // Act
+        Flashcard copy = sharedDeckService.copyForWrite(shared, subscriber);
+
+        // Assert
+        assertEquals(200L, copy.getId());
+        ArgumentCaptor<Flashcard> saved = ArgumentCaptor.forClass(Flashcard.class);
+        verify(flashcardRepository).saveAndFlush(saved.capture());
+        assertEquals(2L, saved.getValue().getOwnerId());
+        assertEquals(100L, saved.getValue().getSourceCardId());
+        assertEquals(Set.of("Das Haus ist groß"), saved.getValue().getUsageExample());
+        verify(cardProgressRepository).moveToCopy(eq(2L), eq(100L), eq(200L), any());
+    }
+
+    @Test
+    void copyForWrite_WithExistingCopy_ShouldReuseIt() {
+        // Arrange
+        Flashcard shared = card(100L, 1L);
+        Flashcard existing = card(200L, 2L);
+        when(deckRepository.isFavorite(2L, 10L)).thenReturn(true);
+        when(flashcardRepository.findBySourceCardIdAndOwnerIdAndDeckId(100L, 2L, 10L)).thenReturn(Optional.of(existing));
+
+        // Act
+        Flashcard copy = sharedDeckService.copyForWrite(shared, subscriber);
+
+        // Assert
+        assertSame(existing, copy);
+        verify(flashcardRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void recordProgress_AfterCloningTheDeck_ShouldBookOnTheSharedCard() {
+        // Arrange
+        Flashcard shared = card(100L, 1L);
+        Deck clonedDeck = new Deck();
+        clonedDeck.setId(11L);
+        clonedDeck.setCreatedBy(subscriber);
+        Flashcard cloned = card(300L, 2L);
+        cloned.setDeck(clonedDeck);
+        cloned.setSourceCardId(100L);
+        when(deckRepository.isFavorite(2L, 10L)).thenReturn(true);
+        when(flashcardRepository.findBySourceCardIdAndOwnerIdAndDeckId(100L, 2L, 11L)).thenReturn(Optional.of(cloned));
+        when(flashcardRepository.findBySourceCardIdAndOwnerIdAndDeckId(100L, 2L, 10L)).thenReturn(Optional.empty());
+        when(flashcardRepository.findById(100L)).thenReturn(Optional.of(shared));
+        when(flashcardMapper.flashcardToFlashcardResponseDto(any(Flashcard.class))).thenAnswer(invocation -> dto(invocation.getArgument(0)));
+        FlashcardUpdateProgressDto progress = new FlashcardUpdateProgressDto();
+        progress.setReviewCount(1);
+        progress.setLastReviewAt(LocalDateTime.of(2024, 5, 1, 12, 0));
+
+        // Act
+        sharedDeckService.recordProgress(shared, subscriber, progress);
+
+        // Assert
+        verify(cardProgressRepository).mergeProgress(eq(2L), eq(100L), eq(10L), eq(1), any(), anyDouble(), any(), any());
+        verify(flashcardRepository, never()).findBySourceCardIdAndOwnerIdAndDeckId(100L, 2L, 11L);
+    }
+
+    @Test
+    void copyForWrite_WithoutSubscription_ShouldBeDenied() {
+        // Arrange
+        when(deckRepository.isFavorite(2L, 10L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(AccessDeniedException.class, () -> sharedDeckService.copyForWrite(card(100L, 1L), subscriber));
+    }
+
+    @Test
+    void copyForWrite_WithAnotherSubscribersCopy_ShouldBeDenied() {
+        // Arrange
+        Flashcard foreignCopy = card(300L, 3L);
+
+        // Act & Assert
+        assertThrows(AccessDeniedException.class, () -> sharedDeckService.copyForWrite(foreignCopy, subscriber));
+        verify(flashcardRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void getDueCards_ShouldUseSubscriberProgressAndFillUpWithUnreviewedCards() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 12, 0);
+        CardProgress reviewed = progress(200L, now.minusDays(1));
+        Flashcard copy = card(200L, 2L);
+        Flashcard unreviewed = card(101L, 1L);
+        when(cardProgressRepository.findDueInSharedDecks(2L, now, 5)).thenReturn(List.of(reviewed));
+        when(flashcardRepository.findAllById(List.of(200L))).thenReturn(List.of(copy));
+        when(flashcardRepository.findUnreviewedInSubscribedDecks(2L, 4)).thenReturn(List.of(unreviewed));
+        when(flashcardMapper.flashcardToFlashcardResponseDto(any(Flashcard.class))).thenAnswer(invocation -> dto(invocation.getArgument(0)));
+
+        // Act
+        List<FlashcardResponseDto> due = sharedDeckService.getDueCards(subscriber, now, 5);
+
+        // Assert
+        assertEquals(List.of(200L, 101L), due.stream().map(FlashcardResponseDto::getId).toList());
+        assertEquals(now.minusDays(1), due.get(0).getNextReviewAt());
+        assertEquals(3, due.get(0).getReviewCount());
+        assertNull(due.get(1).getNextReviewAt());
+        assertEquals(0, due.get(1).getReviewCount());
+    }
+
+    @Test
+    void toResponses_ShouldReplaceProgressOfCopiesOnly() {
+        // Arrange
+        Deck ownDeck = new Deck();
+        ownDeck.setId(11L);
+        ownDeck.setCreatedBy(subscriber);
+        Flashcard own = card(150L, 2L);
+        own.setDeck(ownDeck);
+        own.setReviewCount(7);
+        Flashcard copy = card(200L, 2L);
+        copy.setReviewCount(9);
+        when(cardProgressRepository.findByUserIdAndCardIdIn(2L, List.of(200L)))
+                .thenReturn(List.of(progress(200L, LocalDateTime.of(2024, 5, 2, 8, 0))));
+        when(flashcardMapper.flashcardToFlashcardResponseDto(any(Flashcard.class))).thenAnswer(invocation -> dto(invocation.getArgument(0)));
+
+        // Act
+        List<FlashcardResponseDto> responses = sharedDeckService.toResponses(List.of(own, copy), subscriber);
+
+        // Assert
+        assertEquals(7, responses.get(0).getReviewCount());
+        assertEquals(3, responses.get(1).getReviewCount());
+        assertEquals(LocalDateTime.of(2024, 5, 2, 8, 0), responses.get(1).getNextReviewAt());
+    }
+
+    private CardProgress progress(Long cardId, LocalDateTime nextReviewAt) {
+        CardProgress progress = new CardProgress();
+        progress.setUserId(2L);
+        progress.setCardId(cardId);
+        progress.setDeckId(deck.getId());
+        progress.setNextReviewAt(nextReviewAt);
+        progress.setReviewCount(3);
+        return progress;
+    }
+
+    private static FlashcardResponseDto dto(Flashcard card) {
+        FlashcardResponseDto dto = new FlashcardResponseDto();
+        dto.setId(card.getId());
+        dto.setNextReviewAt(card.getNextReviewAt());
+        dto.setReviewCount(card.getReviewCount());
+        return dto;
+    }
+
+    private Flashcard card(Long id, Long ownerId) {
+        Flashcard card = new Flashcard();
+        card.setId(id);
+        card.setWord("Haus");
+        card.setDeck(deck);
+        card.setOwnerId(ownerId);
+        return card;
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
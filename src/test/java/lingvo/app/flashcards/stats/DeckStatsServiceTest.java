@@ -0,0 +1,98 @@
+package lingvo.app.flashcards.stats;
+
+import lingvo.app.cache.invalidation.CacheInvalidationBus;
+import lingvo.app.flashcards.repository.DeckRepository;
+import lingvo.app.flashcards.repository.DeckStatsRepository;
+import lingvo.app.jobs.service.OutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class DeckStatsServiceTest {
+
+    private DeckStatsService deckStatsService;
+
+    @Mock
+    private DeckStatsRepository deckStatsRepository;
+
+    @Mock
+    private DeckRepository deckRepository;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        deckStatsService = new DeckStatsService(deckStatsRepository, deckRepository, outboxService, cacheInvalidationBus);
+    }
+
+    @Test
+    void rollupStale_ShouldRecomputeOnlyClaimedDecks() {
+        // Arrange
+        when(deckStatsRepository.lockStale(any(), eq(200))).thenReturn(List.of(3L, 7L));
+
+        // Act
+        int recomputed = deckStatsService.rollupStale(200);
+
+        // Assert
+        assertEquals(2, recomputed);
+        verify(deckStatsRepository).recompute(eq(List.of(3L, 7L)), any());
+    }
+
+    @Test
+    void rollupStale_WithNothingStale_ShouldNotRecompute() {
+        // Arrange
+        when(deckStatsRepository.lockStale(any(), anyInt())).thenReturn(List.of());
+
+        // Act
+        int recomputed = deckStatsService.rollupStale(200);
+
+        // Assert
+        assertEquals(0, recomputed);
+        verify(deckStatsRepository, never()).recompute(any(), any());
+    }
+
+    @Test
+    void scheduleRepair_ShouldQueueOneJobPerChunk() {
+        // Arrange
+        when(deckRepository.findMinId()).thenReturn(1L);
+        when(deckRepository.findMaxId()).thenReturn(1200L);
+
+        // Act
+        int chunks = deckStatsService.scheduleRepair(500);
+
+        // Assert
+        assertEquals(3, chunks);
+        ArgumentCaptor<DeckStatsRepairPayload> payloads = ArgumentCaptor.forClass(DeckStatsRepairPayload.class);
+        verify(outboxService, times(3)).enqueue(eq(DeckStatsRepairJobHandler.TYPE), payloads.capture());
+        assertEquals(List.of(new DeckStatsRepairPayload(1, 500),
+                        new DeckStatsRepairPayload(501, 1000),
+                        new DeckStatsRepairPayload(1001, 1200)),
+                payloads.getAllValues());
+    }
+
+    @Test
+    void scheduleRepair_WithoutDecks_ShouldQueueNothing() {
+        // Arrange
+        when(deckRepository.findMinId()).thenReturn(null);
+
+        // Act
+        int chunks = deckStatsService.scheduleRepair(500);
+
+        // Assert
+        assertEquals(0, chunks);
+        verifyNoInteractions(outboxService);
+    }
+}
@@ -0,0 +1,122 @@
+package lingvo.app.jobs.service;
+
+import lingvo.app.jobs.entity.JobStatus;
+import lingvo.app.jobs.entity.OutboxJob;
+import lingvo.app.jobs.repository.OutboxJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxJobStoreTest {
+
+    private OutboxJobStore jobStore;
+
+    @Mock
+    private OutboxJobRepository outboxJobRepository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        jobStore = new OutboxJobStore(outboxJobRepository);
+    }
+
+    @Test
+    void claim_ShouldLeaseJobsToNode() {
+        // Arrange
+        OutboxJob job = job(1L, JobStatus.PENDING, 0);
+        when(outboxJobRepository.lockRunnable(any(), eq(10))).thenReturn(List.of(job));
+
+        // Act
+        List<OutboxJob> claimed = jobStore.claim("node-1", 10, 60_000);
+
+        // Assert
+        assertEquals(1, claimed.size());
+        assertEquals(JobStatus.RUNNING, job.getStatus());
+        assertEquals(1, job.getAttempts());
+        assertEquals("node-1", job.getLockedBy());
+        assertTrue(job.getLockedUntil().isAfter(LocalDateTime.now().plusSeconds(50)));
+    }
+
+    @Test
+    void complete_ShouldDeleteOnlyJobsStillClaimedByThisNode() {
+        // Arrange
+        OutboxJob held = claimed(1L, 1);
+        OutboxJob reclaimed = claimed(2L, 1);
+        when(outboxJobRepository.deleteClaimed(1L, "node-1", 1)).thenReturn(1);
+        when(outboxJobRepository.deleteClaimed(2L, "node-1", 1)).thenReturn(0);
+
+        // Act
+        int completed = jobStore.complete(List.of(held, reclaimed));
+
+        // Assert
+        assertEquals(1, completed);
+    }
+
+    @Test
+    void fail_WithAttemptsLeft_ShouldRescheduleWithBackoff() {
+        // Arrange
+        OutboxJob job = claimed(1L, 2);
+        when(outboxJobRepository.releaseClaimed(eq(1L), eq("node-1"), eq(2), any(), any(), any())).thenReturn(1);
+
+        // Act
+        int released = jobStore.fail(List.of(job), "boom", 5, 1000);
+
+        // Assert
+        ArgumentCaptor<LocalDateTime> availableAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(outboxJobRepository).releaseClaimed(eq(1L), eq("node-1"), eq(2), eq(JobStatus.PENDING),
+                availableAt.capture(), eq("boom"));
+        assertEquals(1, released);
+        assertTrue(availableAt.getValue().isAfter(LocalDateTime.now().plusNanos(1_500_000_000L)));
+    }
+
+    @Test
+    void fail_WithoutAttemptsLeft_ShouldParkJob() {
+        // Arrange
+        OutboxJob job = claimed(1L, 5);
+
+        // Act
+        jobStore.fail(List.of(job), "boom", 5, 1000);
+
+        // Assert
+        verify(outboxJobRepository).releaseClaimed(eq(1L), eq("node-1"), eq(5), eq(JobStatus.FAILED), any(), eq("boom"));
+    }
+
+    @Test
+    void fail_AfterAnotherNodeClaimedTheJob_ShouldDropTheOutcome() {
+        // Arrange
+        OutboxJob job = claimed(1L, 1);
+        when(outboxJobRepository.releaseClaimed(any(), any(), anyInt(), any(), any(), any())).thenReturn(0);
+
+        // Act
+        int released = jobStore.fail(List.of(job), "boom", 5, 1000);
+
+        // Assert
+        assertEquals(0, released);
+    }
+
+    private OutboxJob claimed(Long id, int attempts) {
+        OutboxJob job = job(id, JobStatus.RUNNING, attempts);
+        job.setLockedBy("node-1");
+        return job;
+    }
+
+    private OutboxJob job(Long id, JobStatus status, int attempts) {
+        OutboxJob job = new OutboxJob();
+        job.setId(id);
+        job.setType("TEST");
+        job.setPayload("{}");
+        job.setStatus(status);
+        job.setAttempts(attempts);
+        job.setAvailableAt(LocalDateTime.now());
+        return job;
+    }
+}
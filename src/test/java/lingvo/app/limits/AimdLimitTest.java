@@ -0,0 +1,123 @@
+package lingvo.app.limits;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AimdLimitTest {
+
+    private static final long MS = 1_000_000L;
+    private static final String ROUTE = "/api/deck";
+
+    @Test
+    void tryAcquire_AtLimit_ShouldRejectUntilReleased() {
+        // Arrange
+        AimdLimit limit = new AimdLimit(2, 1, 10, 0.5, 2.0);
+
+        // Act
+        boolean first = limit.tryAcquire();
+        boolean second = limit.tryAcquire();
+        boolean third = limit.tryAcquire();
+        limit.release(ROUTE, 0, 10 * MS, false);
+        boolean fourth = limit.tryAcquire();
+
+        // Assert
+        assertTrue(first && second && fourth);
+        assertFalse(third);
+        assertEquals(1, limit.getRejected());
+        assertEquals(2, limit.getInFlight());
+    }
+
+    @Test
+    void release_FastRequestsUnderLoad_ShouldGrowLimitAdditively() {
+        // Arrange
+        AimdLimit limit = new AimdLimit(4, 1, 10, 0.5, 2.0);
+
+        // Act
+        for (int i = 0; i < 40; i++) {
+            int admitted = 0;
+            while (limit.tryAcquire()) {
+                admitted++;
+            }
+            for (int j = 0; j < admitted; j++) {
+                limit.release(ROUTE, i * 20 * MS, 10 * MS, false);
+            }
+        }
+
+        // Assert
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    void release_PoolCongestion_ShouldCutLimitOncePerSlowSpell() {
+        // Arrange
+        AimdLimit limit = new AimdLimit(8, 1, 10, 0.5, 2.0);
+        for (int i = 0; i < 3; i++) {
+            limit.tryAcquire();
+        }
+
+        // Act: three requests started together all finish while the pool is starved
+        limit.release(ROUTE, 100 * MS, 50 * MS, true);
+        limit.release(ROUTE, 100 * MS, 60 * MS, true);
+        limit.release(ROUTE, 100 * MS, 70 * MS, true);
+
+        // Assert
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    void release_SlowAgainstBaseline_ShouldCutLimitButNotBelowMinimum() {
+        // Arrange
+        AimdLimit limit = new AimdLimit(2, 2, 10, 0.5, 2.0);
+        for (int i = 0; i < 10; i++) {
+            limit.tryAcquire();
+            limit.release(ROUTE, 0, 10 * MS, false);
+        }
+
+        // Act
+        limit.tryAcquire();
+        limit.release(ROUTE, 20 * MS, 100 * MS, false);
+
+        // Assert
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    void release_SlowAgainstRouteBaselineAfterWarmup_ShouldCutLimit() {
+        // Arrange
+        AimdLimit limit = new AimdLimit(8, 1, 10, 0.5, 2.0);
+        for (int i = 0; i < 10; i++) {
+            limit.tryAcquire();
+            limit.release(ROUTE, i * MS, 10 * MS, false);
+        }
+
+        // Act
+        limit.tryAcquire();
+        limit.release(ROUTE, 100 * MS, 50 * MS, false);
+
+        // Assert
+        assertEquals(4, limit.getLimit());
+    }
+
+    @Test
+    void release_MixedFastAndSlowRoutesUnderSteadyLoad_ShouldNotShrink() {
+        // Arrange
+        AimdLimit limit = new AimdLimit(4, 1, 10, 0.5, 2.0);
+
+        // Act: every round saturates the limit with cheap reads and an expensive clone, each at its usual speed
+        for (int i = 0; i < 200; i++) {
+            int admitted = 0;
+            while (limit.tryAcquire()) {
+                admitted++;
+            }
+            for (int j = 0; j < admitted; j++) {
+                boolean expensive = j % 2 == 0;
+                limit.release(expensive ? "/api/deck/{id}/clone" : ROUTE, i * 500 * MS, (expensive ? 400 : 5) * MS,
+                        false);
+            }
+        }
+
+        // Assert
+        assertEquals(10, limit.getLimit());
+    }
+}
@@ -0,0 +1,118 @@
+package lingvo.app.limits;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ConcurrencyLimitFilterTest {
+
+    @Mock
+    private PoolSaturation poolSaturation;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private ConcurrencyLimiter concurrencyLimiter;
+    private ConcurrencyLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        concurrencyLimiter = new ConcurrencyLimiter(poolSaturation, true, 1, 1, 10, 2, 0.9, 2.0);
+        filter = new ConcurrencyLimitFilter(concurrencyLimiter);
+        when(request.getContextPath()).thenReturn("");
+    }
+
+    @Test
+    void doFilterInternal_BulkWhilePoolIsQueued_ShouldShed() throws ServletException, IOException {
+        // Arrange
+        when(request.getRequestURI()).thenReturn("/api/sync");
+        when(request.getMethod()).thenReturn("GET");
+        when(poolSaturation.isSaturated()).thenReturn(true);
+
+        // Act
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(response).setHeader(HttpHeaders.RETRY_AFTER, ConcurrencyLimitFilter.RETRY_AFTER_SECONDS);
+        verify(response).sendError(eq(HttpServletResponse.SC_SERVICE_UNAVAILABLE), anyString());
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    void doFilterInternal_AdminReadWhilePoolIsQueued_ShouldStillBeAdmitted() throws ServletException, IOException {
+        // Arrange
+        when(request.getRequestURI()).thenReturn("/api/admin/jobs");
+        when(request.getMethod()).thenReturn("GET");
+        when(poolSaturation.isSaturated()).thenReturn(true);
+
+        // Act
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(filterChain).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_ShardMoveWhilePoolIsQueued_ShouldShed() throws ServletException, IOException {
+        // Arrange
+        when(request.getRequestURI()).thenReturn("/api/admin/shards/buckets/12/move");
+        when(request.getMethod()).thenReturn("POST");
+        when(poolSaturation.isSaturated()).thenReturn(true);
+
+        // Act
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(response).sendError(eq(HttpServletResponse.SC_SERVICE_UNAVAILABLE), anyString());
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    void doFilterInternal_StudyWhilePoolIsQueued_ShouldStillBeAdmittedWithinLimit() throws ServletException, IOException {
+        // Arrange
+        when(request.getRequestURI()).thenReturn("/api/flashcard/due");
+        when(request.getMethod()).thenReturn("GET");
+        when(poolSaturation.isSaturated()).thenReturn(true);
+
+        // Act
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(filterChain).doFilter(request, response);
+        assertEquals(0, concurrencyLimiter.snapshot().get(EndpointClass.STUDY.ordinal()).getInFlight());
+    }
+
+    @Test
+    void doFilterInternal_OverClassLimit_ShouldRejectOnlyThatClass() throws ServletException, IOException {
+        // Arrange
+        when(request.getRequestURI()).thenReturn("/api/deck");
+        when(request.getMethod()).thenReturn("GET");
+        assertTrue(concurrencyLimiter.tryAcquire(EndpointClass.STUDY));
+
+        // Act
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(response).sendError(eq(HttpServletResponse.SC_SERVICE_UNAVAILABLE), anyString());
+        assertTrue(concurrencyLimiter.tryAcquire(EndpointClass.AUTH));
+    }
+}
@@ -0,0 +1,114 @@
+package lingvo.app.limits;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lingvo.app.auth.entity.RoleType;
+import lingvo.app.auth.service.UserIdCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class QuotaFilterTest {
+
+    @Mock
+    private UserIdCache userIdCache;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private ServletOutputStream outputStream;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private UserQuotas userQuotas;
+    private QuotaFilter filter;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        userQuotas = new UserQuotas(true, "USER:2,PRIVILEGED_USER:100", "USER:1000", 4, 16, 120_000);
+        filter = new QuotaFilter(userQuotas, userIdCache);
+        when(userIdCache.idOf("alice")).thenReturn(42L);
+        when(request.getContextPath()).thenReturn("");
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getContentLengthLong()).thenReturn(-1L);
+        when(response.getOutputStream()).thenReturn(outputStream);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("alice", null,
+                List.of(new SimpleGrantedAuthority(RoleType.USER.name()))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilterInternal_OverRequestQuota_ShouldAnswerTooManyRequests() throws ServletException, IOException {
+        // Arrange
+        when(request.getRequestURI()).thenReturn("/api/deck");
+
+        // Act
+        filter.doFilterInternal(request, response, filterChain);
+        filter.doFilterInternal(request, response, filterChain);
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(filterChain, times(2)).doFilter(any(), any());
+        verify(response, times(3)).setHeader(QuotaFilter.LIMIT_HEADER, "2");
+        verify(response).setHeader(QuotaFilter.REMAINING_HEADER, "1");
+        verify(response).setHeader(HttpHeaders.RETRY_AFTER, "30");
+        verify(response).sendError(eq(429), anyString());
+    }
+
+    @Test
+    void doFilterInternal_BulkResponse_ShouldBeChargedAgainstByteQuota() throws ServletException, IOException {
+        // Arrange
+        when(request.getRequestURI()).thenReturn("/api/sync");
+        doAnswer(invocation -> {
+            invocation.<HttpServletResponse>getArgument(1).getOutputStream().write(new byte[1500], 0, 1500);
+            return null;
+        }).when(filterChain).doFilter(any(), any());
+
+        // Act
+        filter.doFilterInternal(request, response, filterChain);
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(filterChain, times(1)).doFilter(any(), any());
+        verify(response).setHeader(QuotaFilter.BULK_REMAINING_HEADER, "1000");
+        verify(response).sendError(eq(429), anyString());
+    }
+
+    @Test
+    void roleOf_ShouldPickMostGenerousRole() {
+        // Act
+        RoleType role = userQuotas.roleOf(List.of(new SimpleGrantedAuthority("USER"),
+                new SimpleGrantedAuthority("PRIVILEGED_USER")));
+
+        // Assert
+        assertEquals(RoleType.PRIVILEGED_USER, role);
+        assertEquals(2, userQuotas.requestsPerMinute(RoleType.ADMINISTRATOR));
+    }
+}
@@ -0,0 +1,95 @@
+package lingvo.app.limits;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTableTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void tryAcquire_WhenEmpty_ShouldReportTimeUntilRefill() {
+        // Arrange
+        TokenBucketTable table = new TokenBucketTable(4, 16, 60 * SECOND);
+
+        // Act
+        long first = table.tryAcquire(1L, 1, 2, 1.0, 0);
+        long second = table.tryAcquire(1L, 1, 2, 1.0, 0);
+        long third = table.tryAcquire(1L, 1, 2, 1.0, 0);
+        long afterRefill = table.tryAcquire(1L, 1, 2, 1.0, SECOND);
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(0, second);
+        assertEquals(-SECOND, third);
+        assertEquals(0, afterRefill);
+    }
+
+    @Test
+    void charge_IntoDebt_ShouldBlockUntilRepaid() {
+        // Arrange
+        TokenBucketTable table = new TokenBucketTable(4, 16, 60 * SECOND);
+
+        // Act
+        table.charge(1L, 150, 100, 10.0, 0);
+        long whileInDebt = table.tryAcquire(1L, 0, 100, 10.0, SECOND);
+        long repaid = table.tryAcquire(1L, 0, 100, 10.0, 5 * SECOND);
+
+        // Assert
+        assertEquals(-4 * SECOND, whileInDebt);
+        assertEquals(0, repaid);
+    }
+
+    @Test
+    void tryAcquire_ManyUsersInSmallTable_ShouldKeepRecentBucketsAndEvictIdleOnes() {
+        // Arrange: one stripe of 8 slots, every key competes for the same window
+        TokenBucketTable table = new TokenBucketTable(1, 8, 10 * SECOND);
+        for (long user = 1; user <= 8; user++) {
+            table.tryAcquire(user, 1, 1, 0.001, 0);
+        }
+
+        // Act: user 9 arrives once the others have gone idle and takes over one of their slots
+        long firstRequest = table.tryAcquire(9L, 1, 1, 0.001, 20 * SECOND);
+        long secondRequest = table.tryAcquire(9L, 1, 1, 0.001, 20 * SECOND);
+
+        // Assert: the slot now holds user 9's own, drained bucket
+        assertEquals(0, firstRequest);
+        assertTrue(secondRequest < 0);
+    }
+
+    @Test
+    void tryAcquire_ConcurrentlyOnOneUser_ShouldNeverOverAdmit() throws Exception {
+        // Arrange
+        TokenBucketTable table = new TokenBucketTable(16, 64, 60 * SECOND);
+        AtomicLong admitted = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Act
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    if (table.tryAcquire(42L, 1, 500, 0.0, 0) >= 0) {
+                        admitted.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(500, admitted.get());
+    }
+}
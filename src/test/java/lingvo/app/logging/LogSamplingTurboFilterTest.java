@@ -0,0 +1,56 @@
+package lingvo.app.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogSamplingTurboFilterTest {
+
+    private final LoggerContext loggerContext = new LoggerContext();
+    private LogSamplingTurboFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new LogSamplingTurboFilter();
+        filter.setLogger("lingvo.app.auth");
+        filter.setKeepOneIn(10);
+        filter.start();
+        loggerContext.getLogger("lingvo.app").setLevel(Level.INFO);
+    }
+
+    @Test
+    void decide_SampledLoggerAndLevel_ShouldKeepOneInN() {
+        // Arrange
+        Logger logger = loggerContext.getLogger("lingvo.app.auth.controller.AuthController");
+
+        // Act
+        long kept = IntStream.range(0, 100)
+                .mapToObj(i -> filter.decide(null, logger, Level.WARN, "Authentication failed", null, null))
+                .filter(reply -> reply == FilterReply.NEUTRAL)
+                .count();
+
+        // Assert
+        assertEquals(10, kept);
+    }
+
+    @Test
+    void decide_OtherLevelOrLogger_ShouldPassEverything() {
+        // Arrange
+        Logger sampled = loggerContext.getLogger("lingvo.app.auth.controller.AuthController");
+        Logger sibling = loggerContext.getLogger("lingvo.app.authz.Policy");
+
+        // Act & Assert
+        for (int i = 0; i < 5; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, sampled, Level.ERROR, "failed", null, null));
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, sampled, Level.WARN, null, null, null));
+            assertEquals(FilterReply.NEUTRAL, filter.decide(null, sibling, Level.WARN, "failed", null, null));
+        }
+    }
+}
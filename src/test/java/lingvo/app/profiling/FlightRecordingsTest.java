@@ -0,0 +1,59 @@
+package lingvo.app.profiling;
+
+import lingvo.app.exception.ResourceNotFoundException;
+import lingvo.app.profiling.dto.FlightRecordingDto;
+import lingvo.app.profiling.dto.FlightRecordingSummaryDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightRecordingsTest {
+
+    private final FlightRecordings flightRecordings = new FlightRecordings(60, 2, 1);
+
+    @AfterEach
+    void tearDown() {
+        flightRecordings.shutdown();
+    }
+
+    @Test
+    void start_WithUnknownProfileOrDuration_ShouldReject() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> flightRecordings.start("nonexistent", 10));
+        assertThrows(IllegalArgumentException.class, () -> flightRecordings.start("default", 0));
+        assertThrows(IllegalArgumentException.class, () -> flightRecordings.start("default", 61));
+        assertThrows(ResourceNotFoundException.class, () -> flightRecordings.file(42));
+    }
+
+    @Test
+    void start_ShouldRecordForTheDurationThenSummarize() throws Exception {
+        // Arrange
+        FlightRecordingDto started = flightRecordings.start("profile", 60);
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> flightRecordings.start("default", 1));
+        assertThrows(IllegalStateException.class, () -> flightRecordings.file(started.getId()));
+        SlowRequestEvent event = new SlowRequestEvent();
+        event.begin();
+        Thread.sleep(5);
+        event.end();
+        event.method = "GET";
+        event.uri = "/api/deck";
+        event.commit();
+        flightRecordings.finish(started.getId());
+        Path file = flightRecordings.file(started.getId());
+        FlightRecordingSummaryDto summary = flightRecordings.summarize(started.getId(), 5);
+
+        // Assert
+        assertTrue(Files.size(file) > 0);
+        assertEquals("profile", summary.getProfile());
+        assertEquals("GET /api/deck", summary.getSlowRequests().get(0).getSite());
+        assertTrue(summary.getHotMethods().size() <= 5);
+        assertEquals(Files.size(file), flightRecordings.list().get(0).getSizeBytes());
+        assertEquals("STOPPED", flightRecordings.list().get(0).getState());
+    }
+}
@@ -0,0 +1,116 @@
+package lingvo.app.sharding;
+
+import lingvo.app.sharding.entity.ShardBucket;
+import lingvo.app.sharding.repository.ShardBucketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ShardRouterTest {
+
+    @Mock
+    private ShardBucketRepository shardBucketRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void bucketOf_ConsecutiveIds_ShouldSpreadOverAllBuckets() {
+        // Act
+        long used = LongStream.rangeClosed(1, 20_000)
+                .mapToInt(ShardRouter::bucketOf)
+                .distinct()
+                .count();
+
+        // Assert
+        assertEquals(ShardRouter.BUCKETS, used);
+        assertTrue(IntStream.range(0, 1000).allMatch(i -> ShardRouter.bucketOf(i) < ShardRouter.BUCKETS));
+    }
+
+    @Test
+    void reload_WithoutSharding_ShouldNotTouchTheDatabase() {
+        // Arrange
+        ShardRouter router = new ShardRouter(shardBucketRepository, transactionTemplate, "");
+
+        // Act
+        router.reload();
+
+        // Assert
+        assertFalse(router.isEnabled());
+        assertEquals(ShardContext.DIRECTORY, router.shardOf(42L));
+        verifyNoInteractions(shardBucketRepository);
+    }
+
+    @Test
+    void reload_ShouldApplyAssignmentAndFrozenBuckets() {
+        // Arrange
+        ShardRouter router = new ShardRouter(shardBucketRepository, transactionTemplate, "jdbc:a, jdbc:b");
+        int bucket = ShardRouter.bucketOf(42L);
+        List<ShardBucket> buckets = new ArrayList<>();
+        for (int i = 0; i < ShardRouter.BUCKETS; i++) {
+            buckets.add(new ShardBucket(i, i == bucket ? 2 : 0, i == bucket));
+        }
+        when(shardBucketRepository.count()).thenReturn((long) ShardRouter.BUCKETS);
+        when(shardBucketRepository.findAll()).thenReturn(buckets);
+
+        // Act
+        router.reload();
+
+        // Assert
+        assertEquals(3, router.shardCount());
+        assertEquals(2, router.shardOf(42L));
+        assertTrue(router.isFrozen(42L));
+        assertTrue(router.hasFrozenBuckets(2));
+        assertFalse(router.hasFrozenBuckets(0));
+        verify(shardBucketRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void reload_WithBucketOnUnknownShard_ShouldFail() {
+        // Arrange
+        ShardRouter router = new ShardRouter(shardBucketRepository, transactionTemplate, "jdbc:a");
+        when(shardBucketRepository.count()).thenReturn(1L);
+        when(shardBucketRepository.findAll()).thenReturn(List.of(new ShardBucket(0, 5, false)));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, router::reload);
+    }
+
+    @Test
+    void forEachShard_ShouldSetShardAndContinueAfterFailure() {
+        // Arrange
+        ShardRouter router = new ShardRouter(shardBucketRepository, transactionTemplate, "jdbc:a,jdbc:b");
+        List<Integer> seen = new ArrayList<>();
+
+        // Act
+        router.forEachShard(shard -> {
+            seen.add(ShardContext.current());
+            if (shard == 1) {
+                throw new IllegalStateException("shard down");
+            }
+        });
+
+        // Assert
+        assertEquals(List.of(0, 1, 2), seen);
+        assertEquals(ShardContext.DIRECTORY, ShardContext.current());
+    }
+}
@@ -0,0 +1,109 @@
+package lingvo.app.sharding;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lingvo.app.auth.entity.User;
+import lingvo.app.auth.repository.UserRepository;
+import lingvo.app.auth.service.UserIdCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ShardSelectionFilterTest {
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private HttpServletRequest request;
+
+    @Mock
+    private HttpServletResponse response;
+
+    @Mock
+    private FilterChain filterChain;
+
+    private ShardSelectionFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        filter = new ShardSelectionFilter(shardRouter, new UserIdCache(userRepository));
+        User user = new User();
+        user.setId(42L);
+        when(userRepository.findByUsername("alice")).thenReturn(user);
+        when(shardRouter.isEnabled()).thenReturn(true);
+        when(shardRouter.shardOf(42L)).thenReturn(3);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("alice", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void doFilterInternal_ShouldRunChainOnUsersShard() throws ServletException, IOException {
+        // Arrange
+        when(request.getMethod()).thenReturn("POST");
+        doAnswer(invocation -> {
+            assertEquals(3, ShardContext.current());
+            return null;
+        }).when(filterChain).doFilter(request, response);
+
+        // Act
+        filter.doFilterInternal(request, response, filterChain);
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(filterChain, times(2)).doFilter(request, response);
+        verify(userRepository, times(1)).findByUsername(anyString());
+        assertEquals(ShardContext.DIRECTORY, ShardContext.current());
+    }
+
+    @Test
+    void doFilterInternal_WriteToFrozenBucket_ShouldAskToRetry() throws ServletException, IOException {
+        // Arrange
+        when(request.getMethod()).thenReturn("PUT");
+        when(shardRouter.isFrozen(42L)).thenReturn(true);
+
+        // Act
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(response).setHeader(HttpHeaders.RETRY_AFTER, ShardSelectionFilter.RETRY_AFTER_SECONDS);
+        verify(response).sendError(eq(HttpServletResponse.SC_SERVICE_UNAVAILABLE), anyString());
+        verifyNoInteractions(filterChain);
+    }
+
+    @Test
+    void doFilterInternal_ReadOfFrozenBucket_ShouldPassThrough() throws ServletException, IOException {
+        // Arrange
+        when(request.getMethod()).thenReturn("GET");
+        when(shardRouter.isFrozen(42L)).thenReturn(true);
+
+        // Act
+        filter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(filterChain).doFilter(request, response);
+    }
+}
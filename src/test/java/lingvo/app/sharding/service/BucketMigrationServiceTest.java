@@ -0,0 +1,84 @@
+package lingvo.app.sharding.service;
+
+import lingvo.app.auth.service.UserCreatedEvent;
+import lingvo.app.cache.invalidation.CacheInvalidationBus;
+import lingvo.app.jobs.service.OutboxService;
+import lingvo.app.sharding.ShardContext;
+import lingvo.app.sharding.ShardDataSources;
+import lingvo.app.sharding.ShardRouter;
+import lingvo.app.sharding.repository.ShardBucketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BucketMigrationServiceTest {
+
+    private BucketMigrationService bucketMigrationService;
+
+    @Mock
+    private ShardRouter shardRouter;
+
+    @Mock
+    private ShardDataSources shardDataSources;
+
+    @Mock
+    private ShardBucketRepository shardBucketRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        bucketMigrationService = new BucketMigrationService(shardRouter, shardDataSources, shardBucketRepository,
+                transactionTemplate, cacheInvalidationBus, outboxService, 0);
+    }
+
+    @Test
+    void onUserCreated_OnAnotherShard_ShouldRecordAccountCopy() {
+        // Arrange
+        when(shardRouter.shardOf(7L)).thenReturn(2);
+
+        // Act
+        bucketMigrationService.onUserCreated(new UserCreatedEvent(7L));
+
+        // Assert
+        verify(outboxService).enqueue(AccountCopyJobHandler.TYPE, new AccountCopyPayload(7L));
+    }
+
+    @Test
+    void onUserCreated_OnDirectory_ShouldNotRecordAccountCopy() {
+        // Arrange
+        when(shardRouter.shardOf(7L)).thenReturn(ShardContext.DIRECTORY);
+
+        // Act
+        bucketMigrationService.onUserCreated(new UserCreatedEvent(7L));
+
+        // Assert
+        verifyNoInteractions(outboxService);
+    }
+
+    @Test
+    void afterUserCreated_WhileBucketIsMoved_ShouldLeaveCopyToOutbox() {
+        // Arrange
+        when(shardRouter.shardOf(7L)).thenReturn(2);
+        when(shardRouter.isFrozen(7L)).thenReturn(true);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> bucketMigrationService.afterUserCreated(new UserCreatedEvent(7L)));
+        assertThrows(IllegalStateException.class, () -> bucketMigrationService.copyAccount(7L));
+        verifyNoInteractions(shardDataSources);
+    }
+}
@@ -0,0 +1,98 @@
+package lingvo.app.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SqlStatementRecorderTest {
+
+    private MeterRegistry meterRegistry;
+    private SqlStatementRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        recorder = new SqlStatementRecorder(meterRegistry, 200, 1.0);
+    }
+
+    @Test
+    void afterQuery_BetweenBeginAndEnd_ShouldCountEachExecution() {
+        // Arrange
+        recorder.begin();
+
+        // Act
+        recorder.afterQuery(execution(5), List.of(new QueryInfo("select * from t_deck where id = ?")));
+        recorder.afterQuery(execution(5), List.of(new QueryInfo("select * from t_flashcard where deck_id = ?")));
+
+        // Assert
+        assertEquals(2, recorder.end());
+        assertEquals(0, recorder.end());
+    }
+
+    @Test
+    void afterQuery_OutsideRequest_ShouldOnlyCountSlowQueries() {
+        // Act
+        recorder.afterQuery(execution(5), List.of(new QueryInfo("select 1")));
+        recorder.afterQuery(execution(250), List.of(new QueryInfo("select pg_sleep(0.25)")));
+
+        // Assert
+        assertEquals(1.0, meterRegistry.get("lingvo.sql.slow").counter().count());
+        assertEquals(0, recorder.end());
+    }
+
+    @Test
+    void redact_ShouldReplaceLiteralsButKeepIdentifiers() {
+        // Act
+        String redacted = SqlStatementRecorder.redact(
+                "select * from t_user2 u where u.email = 'o''brien@example.com' and u.id > 42 limit ?");
+
+        // Assert
+        assertEquals("select * from t_user2 u where u.email = ? and u.id > ? limit ?", redacted);
+    }
+
+    @Test
+    void filter_ShouldRecordStatementsPerUriPattern() throws ServletException, IOException {
+        // Arrange
+        SqlStatementMetricsFilter filter = new SqlStatementMetricsFilter(recorder, meterRegistry);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)).thenReturn("/api/deck/{id}");
+        FilterChain filterChain = (req, res) -> {
+            for (int i = 0; i < 3; i++) {
+                recorder.afterQuery(execution(1), List.of(new QueryInfo("select 1")));
+            }
+        };
+
+        // Act
+        filter.doFilterInternal(request, mock(HttpServletResponse.class), filterChain);
+
+        // Assert
+        DistributionSummary summary = meterRegistry.get("lingvo.http.sql.statements")
+                .tag("method", "GET")
+                .tag("uri", "/api/deck/{id}")
+                .summary();
+        assertEquals(1, summary.count());
+        assertEquals(3.0, summary.totalAmount());
+    }
+
+    private static ExecutionInfo execution(long elapsedMillis) {
+        ExecutionInfo executionInfo = new ExecutionInfo();
+        executionInfo.setElapsedTime(elapsedMillis);
+        return executionInfo;
+    }
+}